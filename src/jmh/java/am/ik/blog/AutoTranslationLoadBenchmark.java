@@ -0,0 +1,169 @@
+package am.ik.blog;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of {@code POST /translations/{entryId}/auto} with the default sizes of the Tomcat threads, the Hikari pool
+ * and the upstream bulkheads, and with the ones of the {@code high-concurrency} profile. The blog api and the Google
+ * Translation api are stubbed with {@link MockWebServer}s that answer after {@code upstreamLatency} milliseconds. The
+ * sampled latencies include p0.99, and the maximum number of requests in flight at the stubbed blog api and the number
+ * of requests that were not answered with 201, e.g. 503 when a bulkhead was full, are printed at the end of each trial.
+ * <p>
+ * The database is started by Testcontainers unless {@code -Dspring.datasource.url} is given, e.g.
+ * {@code ./mvnw -Pjmh test-compile exec:exec -Djmh.args="AutoTranslationLoadBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class AutoTranslationLoadBenchmark {
+	@Param({ "none", "high-concurrency" })
+	String profile;
+
+	@Param({ "200" })
+	int upstreamLatency;
+
+	final ObjectMapper objectMapper = new ObjectMapper();
+
+	final AtomicLong entryIds = new AtomicLong();
+
+	// makes the content differ from the translations stored by previous runs
+	final long run = System.currentTimeMillis();
+
+	final AtomicInteger inFlight = new AtomicInteger();
+
+	final AtomicInteger maxInFlight = new AtomicInteger();
+
+	final AtomicInteger rejected = new AtomicInteger();
+
+	MockWebServer blogApi;
+
+	MockWebServer googleApi;
+
+	ConfigurableApplicationContext context;
+
+	HttpClient httpClient;
+
+	String baseUrl;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		this.blogApi = new MockWebServer();
+		this.blogApi.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+				final int current = inFlight.incrementAndGet();
+				maxInFlight.accumulateAndGet(current, Math::max);
+				try {
+					Thread.sleep(upstreamLatency);
+					final String entryId = request.getPath().substring(request.getPath().lastIndexOf('/') + 1);
+					return new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+							{"entryId": %s, "frontMatter": {"title": "タイトル%s"}, "content": "# 見出し\\n\\nこんにちは世界 %s (%d)\\n\\n* リスト\\n"}
+							""".formatted(entryId, entryId, entryId, run));
+				}
+				finally {
+					inFlight.decrementAndGet();
+				}
+			}
+		});
+		this.googleApi = new MockWebServer();
+		this.googleApi.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+				Thread.sleep(upstreamLatency);
+				try {
+					final JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+					final ObjectNode response = objectMapper.createObjectNode();
+					final ArrayNode translations = response.putObject("data").putArray("translations");
+					body.get("q").forEach(q -> translations.addObject().put("translatedText", q.asText()));
+					return new MockResponse().setHeader("Content-Type", "application/json").setBody(response.toString());
+				}
+				catch (IOException e) {
+					return new MockResponse().setResponseCode(400);
+				}
+			}
+		});
+		this.blogApi.start();
+		this.googleApi.start();
+		final String datasourceUrl = System.getProperty("spring.datasource.url", "jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql");
+		this.context = new SpringApplicationBuilder(BlogTranslationApplication.class).run(
+				"--server.port=0",
+				"--spring.profiles.active=" + (this.profile.equals("none") ? "benchmark" : "benchmark," + this.profile),
+				"--spring.datasource.url=" + datasourceUrl,
+				"--spring.datasource.driver-class-name=" + (datasourceUrl.startsWith("jdbc:tc:") ? "org.testcontainers.jdbc.ContainerDatabaseDriver" : "org.postgresql.Driver"),
+				"--spring.datasource.username=" + System.getProperty("spring.datasource.username", "test"),
+				"--spring.datasource.password=" + System.getProperty("spring.datasource.password", "test"),
+				"--spring.sql.init.mode=always",
+				"--translator.blog-api-url=" + this.blogApi.url("").toString().replaceAll("/$", ""),
+				"--translator.google-api-url=" + this.googleApi.url("").toString().replaceAll("/$", ""),
+				"--translator.google-api-key=dummy",
+				"--translator.entry-source.max-age=0s",
+				"--management.endpoints.web.exposure.include=health,info",
+				"--management.metrics.export.wavefront.enabled=false",
+				"--logging.level.root=WARN");
+		this.baseUrl = "http://localhost:" + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.out.printf("%nprofile=%s: max concurrent /auto requests at blog-api = %d, rejected requests = %d%n", this.profile, this.maxInFlight.get(), this.rejected.get());
+		this.context.close();
+		this.blogApi.shutdown();
+		this.googleApi.shutdown();
+	}
+
+	@Benchmark
+	public int auto() throws IOException, InterruptedException {
+		final HttpRequest request = HttpRequest.newBuilder(URI.create("%s/translations/%d/auto?language=en".formatted(this.baseUrl, this.entryIds.incrementAndGet())))
+				.POST(HttpRequest.BodyPublishers.noBody())
+				.timeout(Duration.ofMinutes(1))
+				.build();
+		final HttpResponse<Void> response = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() != 201) {
+			this.rejected.incrementAndGet();
+		}
+		return response.statusCode();
+	}
+}
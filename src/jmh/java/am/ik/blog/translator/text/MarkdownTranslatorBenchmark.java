@@ -0,0 +1,195 @@
+package am.ik.blog.translator.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.engine.TranslationEngine;
+import am.ik.blog.translator.engine.TranslationEngineProps;
+import am.ik.blog.translator.engine.TranslationEngineRouter;
+import am.ik.blog.translator.memory.Segment;
+import am.ik.blog.translator.memory.TranslationMemory;
+import com.vladsch.flexmark.formatter.RenderPurpose;
+import com.vladsch.flexmark.formatter.TranslationHandler;
+import com.vladsch.flexmark.util.ast.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures each stage of {@link MarkdownTranslator#translate(String, String, String)} and the whole pipeline with an
+ * engine that returns the given html as is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dfile.encoding=UTF-8")
+public class MarkdownTranslatorBenchmark {
+	@Param({ "short", "long" })
+	String entry;
+
+	MarkdownTranslator cold;
+
+	MarkdownTranslator warm;
+
+	String text;
+
+	String preprocessed;
+
+	Document document;
+
+	List<String> translatingTexts;
+
+	List<String> htmls;
+
+	@Setup
+	public void setUp() {
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 10000, 4, 4, 128, 5000, 4, true, null, null);
+		final TranslationEngine echo = new TranslationEngine() {
+			@Override
+			public String name() {
+				return "echo";
+			}
+
+			@Override
+			public List<String> translate(List<String> htmls, String source, String target) {
+				return htmls;
+			}
+		};
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(echo), new TranslationEngineProps("echo", Map.of(), null));
+		this.cold = new MarkdownTranslator(props, new InMemoryTranslationMemory(props, false), router);
+		this.warm = new MarkdownTranslator(props, new InMemoryTranslationMemory(props, true), router);
+		this.text = load(this.entry);
+		this.warm.translate(this.text, "ja", "en");
+		this.preprocessed = this.cold.preprocess(this.text);
+		this.document = this.cold.parser.parse(this.preprocessed);
+		final TranslationHandler translationHandler = this.cold.formatter.getTranslationHandler();
+		this.cold.formatter.translationRender(this.document, translationHandler, RenderPurpose.TRANSLATION_SPANS);
+		this.translatingTexts = translationHandler.getTranslatingTexts();
+		this.htmls = this.translatingTexts.stream()
+				.map(Segment::of)
+				.filter(segment -> !segment.isBlank())
+				.map(segment -> this.cold.htmlRenderer.render(this.cold.parser.parse(segment.text())))
+				.toList();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.cold.destroy();
+		this.warm.destroy();
+	}
+
+	@Benchmark
+	public String preprocess() {
+		return this.cold.preprocess(this.text);
+	}
+
+	@Benchmark
+	public Document parse() {
+		return this.cold.parser.parse(this.preprocessed);
+	}
+
+	@Benchmark
+	public List<String> translationSpans() {
+		final TranslationHandler translationHandler = this.cold.formatter.getTranslationHandler();
+		this.cold.formatter.translationRender(this.document, translationHandler, RenderPurpose.TRANSLATION_SPANS);
+		return translationHandler.getTranslatingTexts();
+	}
+
+	@Benchmark
+	public List<Segment> segments() {
+		return this.translatingTexts.stream().map(Segment::of).toList();
+	}
+
+	@Benchmark
+	public List<String> renderHtml() {
+		return this.translatingTexts.stream()
+				.map(Segment::of)
+				.filter(segment -> !segment.isBlank())
+				.map(segment -> this.cold.htmlRenderer.render(this.cold.parser.parse(segment.text())))
+				.toList();
+	}
+
+	@Benchmark
+	public List<String> convertTranslatedHtml() {
+		return this.htmls.stream().map(this.cold::convertTranslatedHtml).toList();
+	}
+
+	@Benchmark
+	public String reassemble() {
+		final TranslationHandler translationHandler = this.cold.formatter.getTranslationHandler();
+		this.cold.formatter.translationRender(this.document, translationHandler, RenderPurpose.TRANSLATION_SPANS);
+		translationHandler.setTranslatedTexts(this.translatingTexts);
+		final String translatedSpans = this.cold.formatter.translationRender(this.document, translationHandler, RenderPurpose.TRANSLATED_SPANS);
+		return this.cold.postprocess(this.cold.formatter.translationRender(this.cold.parser.parse(translatedSpans), translationHandler, RenderPurpose.TRANSLATED));
+	}
+
+	@Benchmark
+	public String translate_memoryMiss() {
+		return this.cold.translate(this.text, "ja", "en");
+	}
+
+	@Benchmark
+	public String translate_memoryHit() {
+		return this.warm.translate(this.text, "ja", "en");
+	}
+
+	static String load(String entry) {
+		try (final InputStream stream = MarkdownTranslatorBenchmark.class.getResourceAsStream("/entries/%s.md".formatted(entry))) {
+			return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static class InMemoryTranslationMemory extends TranslationMemory {
+		private final Map<String, String> memory = new ConcurrentHashMap<>();
+
+		private final boolean memorize;
+
+		InMemoryTranslationMemory(TranslatorProps props, boolean memorize) {
+			super(new JdbcTemplate(), props);
+			this.memorize = memorize;
+		}
+
+		@Override
+		public Map<String, String> lookup(String source, String target, Collection<String> hashes) {
+			final Map<String, String> found = new ConcurrentHashMap<>();
+			hashes.forEach(hash -> {
+				final String translated = this.memory.get(hash);
+				if (translated != null) {
+					found.put(hash, translated);
+				}
+			});
+			return found;
+		}
+
+		@Override
+		public void store(String source, String target, Map<String, String> translations) {
+			if (this.memorize) {
+				this.memory.putAll(translations);
+			}
+		}
+	}
+}
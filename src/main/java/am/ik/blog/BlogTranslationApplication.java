@@ -1,13 +1,25 @@
 package am.ik.blog;
 
+import am.ik.blog.translation.AutoTranslationProps;
+import am.ik.blog.translation.TranslationCacheProps;
+import am.ik.blog.translation.TranslationStorageProps;
+import am.ik.blog.translation.bulk.BulkTranslationProps;
+import am.ik.blog.translation.feed.TranslationFeedProps;
+import am.ik.blog.translation.job.TranslationJobProps;
+import am.ik.blog.translation.search.TranslationSearchProps;
+import am.ik.blog.translation.streaming.StreamingTranslationProps;
+import am.ik.blog.translation.web.TranslationWebProps;
 import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.engine.TranslationEngineProps;
+import am.ik.blog.translator.quota.CharacterQuotaProps;
+import am.ik.blog.translator.source.EntrySourceProps;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({ TranslatorProps.class })
+@EnableConfigurationProperties({ TranslatorProps.class, AutoTranslationProps.class, TranslationJobProps.class, BulkTranslationProps.class, TranslationCacheProps.class, TranslationWebProps.class, TranslationEngineProps.class, TranslationStorageProps.class, CharacterQuotaProps.class, EntrySourceProps.class, StreamingTranslationProps.class, TranslationFeedProps.class, TranslationSearchProps.class })
 public class BlogTranslationApplication {
 
 	public static void main(String[] args) {
@@ -1,5 +1,12 @@
 package am.ik.blog.config;
 
+import am.ik.blog.translation.LatestTranslationCache;
+import am.ik.blog.translator.quota.CharacterQuota;
+import am.ik.blog.translator.quota.QuotaBucket;
+import am.ik.blog.translator.source.EntrySourceCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.micrometer.core.instrument.config.MeterFilter;
 
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
@@ -16,4 +23,29 @@ public class MicrometerConfig {
 					return uri != null && uri.startsWith("/actuator");
 				}));
 	}
-}
\ No newline at end of file
+
+	@Bean
+	public MeterBinder latestTranslationCacheMetrics(LatestTranslationCache latestTranslationCache) {
+		return registry -> CaffeineCacheMetrics.monitor(registry, latestTranslationCache.nativeCache(), "translation.latest");
+	}
+
+	@Bean
+	public MeterBinder entrySourceCacheMetrics(EntrySourceCache entrySourceCache) {
+		return registry -> CaffeineCacheMetrics.monitor(registry, entrySourceCache.nativeCache(), "translator.entry-source");
+	}
+
+	@Bean
+	public MeterBinder characterQuotaMetrics(CharacterQuota characterQuota) {
+		return registry -> characterQuota.buckets().forEach(bucket -> {
+			Gauge.builder("translator.quota.remaining", characterQuota, quota -> quota.remaining(bucket))
+					.tag("bucket", bucket.name())
+					.baseUnit("characters")
+					.description("The characters available in the quota of the Google Translation api")
+					.register(registry);
+			Gauge.builder("translator.quota.capacity", bucket, QuotaBucket::capacity)
+					.tag("bucket", bucket.name())
+					.baseUnit("characters")
+					.register(registry);
+		});
+	}
+}
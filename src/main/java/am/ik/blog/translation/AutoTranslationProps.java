@@ -0,0 +1,23 @@
+package am.ik.blog.translation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.auto")
+@ConstructorBinding
+public class AutoTranslationProps {
+	private final int maxLocks;
+
+	public AutoTranslationProps(@DefaultValue("2") int maxLocks) {
+		this.maxLocks = maxLocks;
+	}
+
+	/**
+	 * The maximum number of translations that hold the lock shared with the other nodes, which is also the number of
+	 * connections of {@link SessionLocks}. The other translations are only shared on this node.
+	 */
+	public int getMaxLocks() {
+		return maxLocks;
+	}
+}
@@ -0,0 +1,136 @@
+package am.ik.blog.translation;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.http.MalformedResponseException;
+import am.ik.blog.translator.http.UpstreamUnavailableException;
+import am.ik.blog.translator.source.EntrySource;
+import am.ik.blog.translator.source.EntrySourceClient;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Translates entries automatically and adds the translations. The requests for the same entry, language and source
+ * run as a single flight: concurrent requests on this node share the result of the first one, and the flights on the
+ * other nodes wait for it through an advisory lock. A flight that waited normally finds every block in the translation
+ * memory, so it does not call the engine again, and gets the translation added by the other node instead of a 400.
+ */
+@Service
+public class AutoTranslationService {
+	private final EntrySourceClient entrySourceClient;
+
+	private final EntryTranslator entryTranslator;
+
+	private final TranslationService translationService;
+
+	private final TranslationMapper translationMapper;
+
+	private final SessionLocks sessionLocks;
+
+	final ConcurrentMap<Flight, CompletableFuture<Translation>> flights = new ConcurrentHashMap<>();
+
+	private final Semaphore locks;
+
+	public AutoTranslationService(EntrySourceClient entrySourceClient, EntryTranslator entryTranslator, TranslationService translationService, TranslationMapper translationMapper, SessionLocks sessionLocks, AutoTranslationProps props) {
+		this.entrySourceClient = entrySourceClient;
+		this.entryTranslator = entryTranslator;
+		this.translationService = translationService;
+		this.translationMapper = translationMapper;
+		this.sessionLocks = sessionLocks;
+		this.locks = new Semaphore(props.getMaxLocks());
+	}
+
+	public Translation translate(Long entryId, String language) {
+		final Flight flight = new Flight(entryId, language, this.sourceHash(entryId));
+		final CompletableFuture<Translation> future = new CompletableFuture<>();
+		final CompletableFuture<Translation> inFlight = this.flights.putIfAbsent(flight, future);
+		if (inFlight != null) {
+			return join(inFlight);
+		}
+		try {
+			final Translation translation = this.fly(flight);
+			future.complete(translation);
+			return translation;
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.flights.remove(flight, future);
+		}
+	}
+
+	/**
+	 * The translations added by the other nodes are found by their creation time, so {@code since} is taken from the
+	 * clock of the database rather than the one of this node.
+	 */
+	Translation fly(Flight flight) {
+		// without a free connection for the lock the flight is only shared on this node
+		if (!this.locks.tryAcquire()) {
+			return this.translateAndAdd(flight, this.translationMapper.getCurrentTimestamp());
+		}
+		try {
+			return this.sessionLocks.withLock(flight.lockKey(), since -> this.translateAndAdd(flight, since));
+		}
+		finally {
+			this.locks.release();
+		}
+	}
+
+	Translation translateAndAdd(Flight flight, Instant since) {
+		final Translated translated = this.entryTranslator.translate(flight.entryId(), flight.language());
+		return this.translationService.addNewTranslation(translated, since);
+	}
+
+	/**
+	 * Reads the entry through the cache of the entry sources, which the translation reads again.
+	 */
+	String sourceHash(Long entryId) {
+		try {
+			final EntrySource entry = this.entrySourceClient.get(entryId);
+			return TranslationContentCodec.hash(entry.title() + "\n" + entry.content());
+		}
+		catch (RestClientResponseException e) {
+			throw new ResponseStatusException(HttpStatus.valueOf(e.getRawStatusCode()), e.getMessage(), e);
+		}
+		catch (UpstreamUnavailableException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+		}
+		catch (MalformedResponseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage(), e);
+		}
+	}
+
+	static Translation join(CompletableFuture<Translation> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	record Flight(Long entryId, String language, String sourceHash) {
+		String lockKey() {
+			return "translation/%d/%s/%s".formatted(this.entryId, this.language, this.sourceHash);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package am.ik.blog.translation;
+
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class LatestTranslationCache {
+	public static final String CHANNEL = "translation_changed";
+
+	private final TranslationMapper translationMapper;
+
+	private final Cache<Key, Optional<Translation>> cache;
+
+	public LatestTranslationCache(TranslationMapper translationMapper, TranslationCacheProps props) {
+		this.translationMapper = translationMapper;
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(props.getMaxWeight().toBytes())
+				.weigher(LatestTranslationCache::weigh)
+				.expireAfterWrite(props.getTtl())
+				.recordStats()
+				.build();
+	}
+
+	public Optional<Translation> get(Long entryId, String language) {
+		return this.cache.get(new Key(entryId, language), key -> this.translationMapper.getLatestTranslation(key.entryId(), key.language()));
+	}
+
+	/**
+	 * Returns the cached translation without loading it on a miss.
+	 */
+	public Optional<Translation> peek(Long entryId, String language) {
+		final Optional<Translation> cached = this.cache.getIfPresent(new Key(entryId, language));
+		return (cached == null) ? Optional.empty() : cached;
+	}
+
+	public void invalidate(Long entryId, String language) {
+		this.cache.invalidate(new Key(entryId, language));
+	}
+
+	/**
+	 * @param payload the payload of a notification on {@link #CHANNEL} in the form of {@code entryId:language}
+	 */
+	public void invalidate(String payload) {
+		final int separator = payload.indexOf(':');
+		if (separator > 0) {
+			this.invalidate(Long.valueOf(payload.substring(0, separator)), payload.substring(separator + 1));
+		}
+	}
+
+	public void invalidateAll() {
+		this.cache.invalidateAll();
+	}
+
+	public Cache<?, ?> nativeCache() {
+		return this.cache;
+	}
+
+	// approximate retained bytes (Strings are at most 2 bytes per char)
+	static int weigh(Key key, Optional<Translation> value) {
+		return value
+				.map(translation -> 128 + 2 * (length(translation.title()) + length(translation.content())))
+				.orElse(64);
+	}
+
+	static int length(String s) {
+		return (s == null) ? 0 : s.length();
+	}
+
+	record Key(Long entryId, String language) {
+	}
+}
@@ -0,0 +1,23 @@
+package am.ik.blog.translation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when the translation to add has the same title and content as the latest translation
+ */
+public class NoChangeException extends ResponseStatusException {
+	private final TranslationKey latest;
+
+	public NoChangeException(TranslationKey latest) {
+		super(HttpStatus.BAD_REQUEST, "There is no change from the latest state.");
+		this.latest = latest;
+	}
+
+	/**
+	 * @return the key of the latest translation that has the same content
+	 */
+	public TranslationKey getLatest() {
+		return latest;
+	}
+}
@@ -0,0 +1,68 @@
+package am.ik.blog.translation;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.function.Function;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Session-level advisory locks shared with the other nodes. A lock is held on a connection for the whole action, which
+ * can take minutes, so the connections come from a pool of their own with {@link AutoTranslationProps#getMaxLocks()}
+ * connections and the actions never run short of the pooled connections of the application.
+ */
+@Component
+public class SessionLocks implements DisposableBean {
+	private final HikariDataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public SessionLocks(DataSourceProperties dataSourceProperties, AutoTranslationProps props) {
+		this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		this.dataSource.setPoolName("session-locks");
+		this.dataSource.setMaximumPoolSize(Math.max(props.getMaxLocks(), 1));
+		this.dataSource.setMinimumIdle(0);
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+	}
+
+	/**
+	 * Runs the action while holding the lock on the key, so that the holders of the same key on any node run one at a
+	 * time. The action is given the time of the database when the lock was requested, which precedes the changes made by
+	 * the holders it waited for. The keys are hashed into the single bigint key space, which is separate from the locks
+	 * of {@link TranslationMapper#lock(java.util.List)}.
+	 */
+	public <T> T withLock(String key, Function<Instant, T> action) {
+		return this.jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+			final Instant requestedAt;
+			try (final PreparedStatement statement = connection.prepareStatement("SELECT clock_timestamp()"); final ResultSet rs = statement.executeQuery()) {
+				rs.next();
+				requestedAt = rs.getTimestamp(1).toInstant();
+			}
+			try (final PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_lock(hashtextextended(?, 0))")) {
+				statement.setString(1, key);
+				statement.execute();
+			}
+			try {
+				return action.apply(requestedAt);
+			}
+			finally {
+				try (final PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(hashtextextended(?, 0))")) {
+					statement.setString(1, key);
+					statement.execute();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void destroy() {
+		this.dataSource.close();
+	}
+}
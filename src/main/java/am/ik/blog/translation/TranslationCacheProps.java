@@ -0,0 +1,29 @@
+package am.ik.blog.translation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "translation.cache")
+@ConstructorBinding
+public class TranslationCacheProps {
+	private final DataSize maxWeight;
+
+	private final Duration ttl;
+
+	public TranslationCacheProps(@DefaultValue("64MB") DataSize maxWeight, @DefaultValue("1h") Duration ttl) {
+		this.maxWeight = maxWeight;
+		this.ttl = ttl;
+	}
+
+	public DataSize getMaxWeight() {
+		return maxWeight;
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+}
@@ -0,0 +1,94 @@
+package am.ik.blog.translation;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates {@link LatestTranslationCache} when any replica changes a translation. The notifications are sent by
+ * {@link TranslationMapper} in the same transaction as the change, so they are only delivered after commit.
+ * A dedicated connection outside the pool is used so that the listener does not hold one of the pooled connections.
+ */
+@Component
+public class TranslationChangeListener implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(TranslationChangeListener.class);
+
+	private final LatestTranslationCache latestTranslationCache;
+
+	private final DataSourceProperties dataSourceProperties;
+
+	private volatile boolean running = false;
+
+	private Thread thread;
+
+	public TranslationChangeListener(LatestTranslationCache latestTranslationCache, DataSourceProperties dataSourceProperties) {
+		this.latestTranslationCache = latestTranslationCache;
+		this.dataSourceProperties = dataSourceProperties;
+	}
+
+	@Override
+	public void start() {
+		this.running = true;
+		this.thread = new Thread(this::listen, "translation-change-listener");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void stop() {
+		this.running = false;
+		if (this.thread != null) {
+			this.thread.interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	void listen() {
+		while (this.running) {
+			try (final Connection connection = DriverManager.getConnection(this.dataSourceProperties.determineUrl(),
+					this.dataSourceProperties.determineUsername(), this.dataSourceProperties.determinePassword())) {
+				try (final Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + LatestTranslationCache.CHANNEL);
+				}
+				// notifications may have been missed while disconnected
+				this.latestTranslationCache.invalidateAll();
+				final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				while (this.running) {
+					final PGNotification[] notifications = pgConnection.getNotifications(1000);
+					if (notifications != null) {
+						for (PGNotification notification : notifications) {
+							this.latestTranslationCache.invalidate(notification.getParameter());
+						}
+					}
+				}
+			}
+			catch (SQLException e) {
+				if (!this.running) {
+					return;
+				}
+				log.warn("Failed to listen to {}. Retrying in 5 seconds.", LatestTranslationCache.CHANNEL, e);
+				try {
+					Thread.sleep(5000);
+				}
+				catch (InterruptedException ignored) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package am.ik.blog.translation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE;
+
+/**
+ * Encodes the content stored in {@code translation_content}. The content is addressed by the SHA-256 of its UTF-8 bytes
+ * and compressed in the LZ4 frame format so that it can be decompressed as a stream.
+ */
+final class TranslationContentCodec {
+	private TranslationContentCodec() {
+	}
+
+	static String hash(String content) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static byte[] compress(String content) {
+		final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+		try (final OutputStream stream = new LZ4FrameOutputStream(compressed, BLOCKSIZE.SIZE_64KB)) {
+			stream.write(bytes);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return compressed.toByteArray();
+	}
+
+	static String decompress(InputStream compressed) {
+		try (final InputStream stream = new LZ4FrameInputStream(compressed)) {
+			return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static Reader decompressingReader(InputStream compressed) throws IOException {
+		return new InputStreamReader(new LZ4FrameInputStream(compressed), StandardCharsets.UTF_8);
+	}
+}
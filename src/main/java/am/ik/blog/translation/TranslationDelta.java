@@ -0,0 +1,74 @@
+package am.ik.blog.translation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+
+/**
+ * Line based deltas between the contents of two revisions. A delta is a sequence of changes, each of which is a header
+ * line {@code <position>,<deleted lines>,<inserted lines>} followed by the inserted lines. Lines are split only on
+ * {@code \n} so that applying the delta restores the content exactly.
+ */
+final class TranslationDelta {
+	private TranslationDelta() {
+	}
+
+	/**
+	 * @return the delta to rebuild {@code content} from {@code base}
+	 */
+	static String diff(String base, String content) {
+		final Patch<String> patch = DiffUtils.diff(split(base), split(content));
+		final StringBuilder delta = new StringBuilder();
+		for (AbstractDelta<String> change : patch.getDeltas()) {
+			delta.append(change.getSource().getPosition()).append(',')
+					.append(change.getSource().size()).append(',')
+					.append(change.getTarget().size()).append('\n');
+			change.getTarget().getLines().forEach(line -> delta.append(line).append('\n'));
+		}
+		return delta.toString();
+	}
+
+	static String apply(String base, String delta) {
+		final List<String> source = split(base);
+		final List<String> target = new ArrayList<>(source.size());
+		int copied = 0;
+		int index = 0;
+		while (index < delta.length()) {
+			int eol = delta.indexOf('\n', index);
+			final String[] header = delta.substring(index, eol).split(",");
+			index = eol + 1;
+			final int position = Integer.parseInt(header[0]);
+			target.addAll(source.subList(copied, position));
+			for (int inserted = Integer.parseInt(header[2]); inserted > 0; inserted--) {
+				eol = delta.indexOf('\n', index);
+				target.add(delta.substring(index, eol));
+				index = eol + 1;
+			}
+			copied = position + Integer.parseInt(header[1]);
+		}
+		target.addAll(source.subList(copied, source.size()));
+		return String.join("\n", target);
+	}
+
+	/**
+	 * @return the changes from {@code original} to {@code revised} in the unified diff format
+	 */
+	static String unifiedDiff(Translation original, Translation revised) {
+		final List<String> originalLines = original.content().lines().toList();
+		final Patch<String> patch = DiffUtils.diff(originalLines, revised.content().lines().toList());
+		final List<String> diff = UnifiedDiffUtils.generateUnifiedDiff(fileName(original.translationKey()), fileName(revised.translationKey()), originalLines, patch, 3);
+		return diff.isEmpty() ? "" : String.join("\n", diff) + "\n";
+	}
+
+	private static String fileName(TranslationKey translationKey) {
+		return "%d/%s/%d".formatted(translationKey.entryId(), translationKey.language(), translationKey.revision());
+	}
+
+	private static List<String> split(String content) {
+		return List.of(content.split("\n", -1));
+	}
+}
@@ -0,0 +1,16 @@
+package am.ik.blog.translation;
+
+import java.util.Objects;
+
+/**
+ * A translation with the SHA-256 of its content instead of the content
+ */
+public record TranslationDigest(TranslationKey translationKey,
+								String title,
+								String contentHash) {
+
+	public boolean hasSameContent(String title, String content) {
+		return Objects.equals(this.title, title)
+				&& Objects.equals(this.contentHash, (content == null) ? null : TranslationContentCodec.hash(content));
+	}
+}
@@ -1,22 +1,66 @@
 package am.ik.blog.translation;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public class TranslationMapper {
+	static final int REVISIONS_FETCH_SIZE = 100;
+
+	/**
+	 * The number of rows written by one statement of {@link #insertAll(List)}, which keeps the bind parameters of a
+	 * statement well under the limit of PostgreSQL (32767)
+	 */
+	static final int INSERT_CHUNK_SIZE = 500;
+
+	/**
+	 * The search vector of the title and the content, whose parameters are the text search configuration, the title, the
+	 * configuration again and the content.
+	 */
+	static final String SEARCH_VECTOR = searchVector("CAST(? AS REGCONFIG)", "?", "?");
+
 	public final JdbcTemplate jdbcTemplate;
 
-	public TranslationMapper(JdbcTemplate jdbcTemplate) {
+	private final JdbcTemplate streamingJdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private final TranslationStorageProps props;
+
+	public TranslationMapper(JdbcTemplate jdbcTemplate, TranslationStorageProps props) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.props = props;
+		this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+		this.streamingJdbcTemplate.setFetchSize(REVISIONS_FETCH_SIZE);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 	}
 
 	private final RowMapper<Translation> translationRowMapper = (rs, i) -> {
@@ -27,29 +71,138 @@ public class TranslationMapper {
 		return new Translation(translationKey, title, content, createdAt);
 	};
 
+	private final RowMapper<Translation> translationWithContentRowMapper = (rs, i) -> {
+		final TranslationKey translationKey = new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision"));
+		final String title = rs.getString("title");
+		final InputStream compressedContent = rs.getBinaryStream("compressed_content");
+		// rows inserted before translation_content was introduced keep the content inline
+		final String content = (compressedContent != null) ? TranslationContentCodec.decompress(compressedContent) : rs.getString("content");
+		final Instant createdAt = rs.getTimestamp("created_at").toInstant();
+		return new Translation(translationKey, title, content, createdAt);
+	};
+
+	private final RowMapper<StoredRevision> storedRevisionRowMapper = (rs, i) -> {
+		final InputStream compressedContent = rs.getBinaryStream("compressed_content");
+		final String content = (compressedContent != null) ? TranslationContentCodec.decompress(compressedContent) : rs.getString("content");
+		return new StoredRevision(rs.getInt("revision"), rs.getString("title"), content, rs.getString("content_hash"), rs.getString("delta"), rs.getTimestamp("created_at").toInstant());
+	};
+
 	public List<String> getAvailableLanguage(Long entryId) {
 		return this.jdbcTemplate.queryForList("SELECT DISTINCT language FROM translation WHERE entry_id = ? ORDER BY language DESC", String.class, entryId);
 	}
 
 	public List<Translation> getAllRevisionsOfTranslation(Long entryId, String language) {
-		return this.jdbcTemplate.query("""
-						SELECT entry_id, language, revision, title, NULL AS content, created_at FROM translation WHERE entry_id = ? AND language = ? ORDER BY revision DESC 
-						""", this.translationRowMapper,
-				entryId, language);
+		final List<Translation> translations = new ArrayList<>();
+		this.getRevisionsOfTranslation(entryId, language, null, null, translations::add);
+		return translations;
+	}
+
+	/**
+	 * Streams the revisions without content in descending order. The rows are read from the covering index
+	 * {@code translation_revisions} and fetched {@value #REVISIONS_FETCH_SIZE} at a time, which requires a transaction.
+	 *
+	 * @param after returns the revisions older than this revision if not {@code null}
+	 * @param limit the maximum number of revisions if not {@code null}
+	 */
+	@Transactional(readOnly = true)
+	public void getRevisionsOfTranslation(Long entryId, String language, Integer after, Integer limit, Consumer<Translation> consumer) {
+		this.streamingJdbcTemplate.query("""
+						SELECT entry_id, language, revision, title, NULL AS content, created_at FROM translation WHERE entry_id = ? AND language = ? AND revision < ? ORDER BY revision DESC LIMIT ?
+						""", (RowCallbackHandler) rs -> consumer.accept(this.translationRowMapper.mapRow(rs, rs.getRow())),
+				entryId, language,
+				(after == null) ? Integer.MAX_VALUE : after,
+				(limit == null) ? Integer.MAX_VALUE : limit);
 	}
 
 	public Optional<Translation> getLatestTranslation(Long entryId, String language) {
 		try (final Stream<Translation> stream = this.jdbcTemplate.queryForStream("""
-						SELECT entry_id, language, revision, title, content, created_at FROM translation WHERE entry_id = ? AND language = ? ORDER BY revision DESC LIMIT 1
+						SELECT t.entry_id, t.language, t.revision, t.title, t.content, c.content AS compressed_content, t.created_at FROM translation AS t LEFT JOIN translation_content AS c ON c.hash = t.content_hash
+						WHERE t.entry_id = ? AND t.language = ? ORDER BY t.revision DESC LIMIT 1
+						""", this.translationWithContentRowMapper,
+				entryId, language)) {
+			return stream.findFirst();
+		}
+	}
+
+	/**
+	 * Returns the latest translations of the given entries in one query. Without content, the rows are read from the
+	 * covering index {@code translation_revisions}.
+	 */
+	public List<Translation> getLatestTranslations(Collection<Long> entryIds, String language, boolean withContent) {
+		if (entryIds.isEmpty()) {
+			return List.of();
+		}
+		final MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("entryIds", entryIds)
+				.addValue("language", language);
+		if (!withContent) {
+			return this.namedParameterJdbcTemplate.query("""
+					SELECT DISTINCT ON (entry_id) entry_id, language, revision, title, NULL AS content, created_at FROM translation
+					WHERE entry_id IN (:entryIds) AND language = :language ORDER BY entry_id, revision DESC
+					""", params, this.translationRowMapper);
+		}
+		return this.namedParameterJdbcTemplate.query("""
+				SELECT t.entry_id, t.language, t.revision, t.title, t.content, c.content AS compressed_content, t.created_at
+				FROM (SELECT DISTINCT ON (entry_id) * FROM translation WHERE entry_id IN (:entryIds) AND language = :language ORDER BY entry_id, revision DESC) AS t
+				LEFT JOIN translation_content AS c ON c.hash = t.content_hash
+				""", params, this.translationWithContentRowMapper);
+	}
+
+	/**
+	 * Streams the content of the latest translation to the given consumer without materializing it as a
+	 * {@link String}. The whole compressed blob is buffered in memory for the request (or the whole content of a revision
+	 * stored before compression) so that the connection is released before the consumer is called with the translation
+	 * without content, and a slow consumer does not hold it. See {@link TranslationStorageProps} for the size.
+	 *
+	 * @return whether the translation was found
+	 */
+	public boolean streamLatestContent(Long entryId, String language, ContentConsumer consumer) {
+		final List<StoredContent> found = this.jdbcTemplate.query("""
+						SELECT t.entry_id, t.language, t.revision, t.title, t.content, c.content AS compressed_content, t.created_at FROM translation AS t LEFT JOIN translation_content AS c ON c.hash = t.content_hash
+						WHERE t.entry_id = ? AND t.language = ? ORDER BY t.revision DESC LIMIT 1
+						""", (rs, i) -> new StoredContent(new Translation(new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision")), rs.getString("title"), null, rs.getTimestamp("created_at").toInstant()),
+						rs.getString("content"), rs.getBytes("compressed_content")),
+				entryId, language);
+		if (found.isEmpty()) {
+			return false;
+		}
+		final StoredContent stored = found.get(0);
+		try (final Reader content = (stored.compressedContent() != null) ? TranslationContentCodec.decompressingReader(new ByteArrayInputStream(stored.compressedContent()))
+				: new StringReader(Objects.requireNonNullElse(stored.content(), ""))) {
+			consumer.accept(stored.translation(), content);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return true;
+	}
+
+	public Optional<Translation> getLatestTranslationWithoutContent(Long entryId, String language) {
+		try (final Stream<Translation> stream = this.jdbcTemplate.queryForStream("""
+						SELECT entry_id, language, revision, title, NULL AS content, created_at FROM translation WHERE entry_id = ? AND language = ? ORDER BY revision DESC LIMIT 1
 						""", this.translationRowMapper,
 				entryId, language)) {
 			return stream.findFirst();
 		}
 	}
 
-	public Optional<Translation> getTranslation(TranslationKey translationKey) {
+	/**
+	 * Returns the latest translation with the hash of its content. The hash of inline content is computed by the
+	 * database.
+	 */
+	public Optional<TranslationDigest> getLatestTranslationDigest(Long entryId, String language) {
+		try (final Stream<TranslationDigest> stream = this.jdbcTemplate.queryForStream("""
+						SELECT entry_id, language, revision, title, COALESCE(content_hash, encode(sha256(convert_to(content, 'UTF8')), 'hex')) AS content_hash FROM translation
+						WHERE entry_id = ? AND language = ? ORDER BY revision DESC LIMIT 1
+						""", (rs, i) -> new TranslationDigest(new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision")), rs.getString("title"), rs.getString("content_hash")),
+				entryId, language)) {
+			return stream.findFirst();
+		}
+	}
+
+	public Optional<Translation> getTranslationWithoutContent(TranslationKey translationKey) {
 		try (final Stream<Translation> stream = this.jdbcTemplate.queryForStream("""
-						SELECT entry_id, language, revision, title, content, created_at FROM translation WHERE entry_id = ? AND language = ? AND revision = ?
+						SELECT entry_id, language, revision, title, NULL AS content, created_at FROM translation WHERE entry_id = ? AND language = ? AND revision = ?
 						""", this.translationRowMapper,
 				translationKey.entryId(),
 				translationKey.language(),
@@ -58,18 +211,331 @@ public class TranslationMapper {
 		}
 	}
 
+	/**
+	 * Returns the translation of the given revision. A revision stored as a delta is rebuilt from the revisions up to the
+	 * next snapshot, which are fetched in the same query.
+	 */
+	public Optional<Translation> getTranslation(TranslationKey translationKey) {
+		final List<StoredRevision> revisions = this.jdbcTemplate.query("""
+						SELECT t.revision, t.title, t.content, c.content AS compressed_content, t.content_hash, t.delta, t.created_at FROM translation AS t LEFT JOIN translation_content AS c ON c.hash = t.content_hash
+						WHERE t.entry_id = ? AND t.language = ? AND t.revision >= ?
+						  AND t.revision <= (SELECT MIN(revision) FROM translation WHERE entry_id = ? AND language = ? AND revision >= ? AND delta IS NULL)
+						ORDER BY t.revision
+						""", this.storedRevisionRowMapper,
+				translationKey.entryId(), translationKey.language(), translationKey.revision(),
+				translationKey.entryId(), translationKey.language(), translationKey.revision());
+		if (revisions.isEmpty() || revisions.get(0).revision() != translationKey.revision()) {
+			return Optional.empty();
+		}
+		String content = revisions.get(revisions.size() - 1).content();
+		for (int i = revisions.size() - 2; i >= 0; i--) {
+			content = TranslationDelta.apply(content, revisions.get(i).delta());
+		}
+		final StoredRevision revision = revisions.get(0);
+		return Optional.of(new Translation(translationKey, revision.title(), content, revision.createdAt()));
+	}
+
+	/**
+	 * Inserts the translation. The content is stored once per hash in {@code translation_content}, and the row only
+	 * references it. The previous revision is then replaced with the delta from this one unless it is a snapshot, so that
+	 * the latest revision always has the full content. Only the latest revision keeps the search vector.
+	 */
 	@Transactional
 	public int insert(Translation translation) {
 		final TranslationKey translationKey = translation.translationKey();
-		return this.jdbcTemplate.update("""
-				INSERT INTO translation(entry_id, language, revision, title, content, created_at) VALUES (?, ?, ?, ?, ?, ?)
-				""", translationKey.entryId(), translationKey.language(), translationKey.revision(), translation.title(), translation.content(), Date.from(translation.createdAt()));
+		final String contentHash = (translation.content() == null) ? null : this.insertContent(translation.content());
+		final String configuration = this.props.getTextSearchConfiguration(translationKey.language());
+		final int inserted = this.jdbcTemplate.update("""
+				INSERT INTO translation(entry_id, language, revision, title, content_hash, created_at, search_vector) VALUES (?, ?, ?, ?, ?, ?, %s)
+				""".formatted(SEARCH_VECTOR), translationKey.entryId(), translationKey.language(), translationKey.revision(), translation.title(), contentHash, Date.from(translation.createdAt()),
+				configuration, translation.title(), configuration, translation.content());
+		if (translation.content() != null) {
+			this.replacePreviousRevisionWithDelta(translationKey, translation.content());
+		}
+		this.unindexPreviousRevisions(List.of(translationKey));
+		this.notifyChange(translationKey);
+		return inserted;
 	}
 
+	/**
+	 * Inserts the translations with the revisions assigned by the database, which are the next ones of the latest
+	 * revisions. The revisions of the given translation keys are ignored, and the translations without creation time
+	 * are created at the current time of the database. The contents are written in one batch and the
+	 * rows in multi-row inserts of {@link #INSERT_CHUNK_SIZE} rows, and the writers of the same translations are
+	 * serialized with {@link #lock(List)}.
+	 *
+	 * @return the inserted translations with the assigned revisions in the given order
+	 */
+	@Transactional
+	public List<Translation> insertAll(List<Translation> translations) {
+		if (translations.isEmpty()) {
+			return List.of();
+		}
+		final List<TranslationKey> translationKeys = translations.stream().map(Translation::translationKey).toList();
+		this.lock(translationKeys);
+		final List<String> contentHashes = this.insertContents(translations.stream().map(Translation::content).toList());
+		final Map<TranslationKey, List<Integer>> revisions = new HashMap<>();
+		final Map<TranslationKey, Instant> createdAts = new HashMap<>();
+		for (int from = 0; from < translations.size(); from += INSERT_CHUNK_SIZE) {
+			final int to = Math.min(from + INSERT_CHUNK_SIZE, translations.size());
+			// numbers the translations of the same entry and language in the given order, following the rows of the
+			// previous chunks
+			final Map<TranslationKey, Integer> counts = new HashMap<>();
+			final List<Object> args = new ArrayList<>((to - from) * 8);
+			for (int i = from; i < to; i++) {
+				final Translation translation = translations.get(i);
+				final TranslationKey translationKey = translation.translationKey();
+				args.addAll(Arrays.asList(translationKey.entryId(), translationKey.language(), counts.merge(withoutRevision(translationKey), 1, Integer::sum),
+						translation.title(), contentHashes.get(i), (translation.createdAt() == null) ? null : Timestamp.from(translation.createdAt()),
+						this.props.getTextSearchConfiguration(translationKey.language()), translation.content()));
+			}
+			this.jdbcTemplate.query("""
+							INSERT INTO translation(entry_id, language, revision, title, content_hash, created_at, search_vector)
+							SELECT v.entry_id, v.language, COALESCE((SELECT MAX(t.revision) FROM translation AS t WHERE t.entry_id = v.entry_id AND t.language = v.language), 0) + v.ordinal, v.title, v.content_hash, COALESCE(v.created_at, clock_timestamp()),
+							       %s
+							FROM (VALUES %s) AS v(entry_id, language, ordinal, title, content_hash, created_at, configuration, content)
+							RETURNING entry_id, language, revision, created_at
+							""".formatted(searchVector("v.configuration", "v.title", "v.content"),
+							String.join(", ", Collections.nCopies(to - from, "(?::INT, ?::VARCHAR, ?::INT, ?::VARCHAR, ?::CHAR(64), ?::TIMESTAMPTZ, ?::REGCONFIG, ?::TEXT)"))),
+					(RowCallbackHandler) rs -> {
+						final TranslationKey translationKey = new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision"));
+						revisions.computeIfAbsent(withoutRevision(translationKey), k -> new ArrayList<>()).add(translationKey.revision());
+						createdAts.put(translationKey, rs.getTimestamp("created_at").toInstant());
+					}, args.toArray());
+		}
+		revisions.values().forEach(Collections::sort);
+		final List<Translation> inserted = new ArrayList<>(translations.size());
+		for (Translation translation : translations) {
+			final TranslationKey translationKey = translation.translationKey();
+			final Integer revision = revisions.get(withoutRevision(translationKey)).remove(0);
+			final TranslationKey insertedKey = new TranslationKey(translationKey.entryId(), translationKey.language(), revision);
+			if (translation.content() != null) {
+				this.replacePreviousRevisionWithDelta(insertedKey, translation.content());
+			}
+			inserted.add(new Translation(insertedKey, translation.title(), translation.content(), createdAts.get(insertedKey)));
+		}
+		this.unindexPreviousRevisions(translationKeys);
+		translationKeys.stream()
+				.map(TranslationMapper::withoutRevision)
+				.distinct()
+				.forEach(this::notifyChange);
+		return inserted;
+	}
+
+	/**
+	 * Blocks the other writers of the translations of the given entries and languages until the end of the current
+	 * transaction. The locks are taken in a fixed order to avoid deadlocks between writers of several translations.
+	 */
+	public void lock(List<TranslationKey> translationKeys) {
+		final List<TranslationKey> sorted = translationKeys.stream()
+				.map(TranslationMapper::withoutRevision)
+				.distinct()
+				.sorted(Comparator.comparing(TranslationKey::entryId).thenComparing(TranslationKey::language))
+				.toList();
+		for (int from = 0; from < sorted.size(); from += INSERT_CHUNK_SIZE) {
+			final List<TranslationKey> chunk = sorted.subList(from, Math.min(from + INSERT_CHUNK_SIZE, sorted.size()));
+			final List<Object> args = new ArrayList<>(chunk.size() * 2);
+			chunk.forEach(translationKey -> args.addAll(List.of(translationKey.entryId(), translationKey.language())));
+			this.jdbcTemplate.query("""
+							SELECT pg_advisory_xact_lock(k.entry_id, hashtext(k.language)) FROM (VALUES %s) AS k(entry_id, language)
+							""".formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?::INT, ?::TEXT)"))),
+					(RowCallbackHandler) rs -> {
+					}, args.toArray());
+		}
+	}
+
+	/**
+	 * @return the current time of the database, which the creation times of the translations are compared with
+	 */
+	public Instant getCurrentTimestamp() {
+		return this.jdbcTemplate.queryForObject("SELECT clock_timestamp()", Timestamp.class).toInstant();
+	}
+
+	/**
+	 * Removes the search vectors of the revisions older than the latest ones of the given entries and languages, so that
+	 * the search only finds the latest revisions.
+	 */
+	void unindexPreviousRevisions(List<TranslationKey> translationKeys) {
+		final List<TranslationKey> distinct = translationKeys.stream()
+				.map(TranslationMapper::withoutRevision)
+				.distinct()
+				.toList();
+		for (int from = 0; from < distinct.size(); from += INSERT_CHUNK_SIZE) {
+			final List<TranslationKey> chunk = distinct.subList(from, Math.min(from + INSERT_CHUNK_SIZE, distinct.size()));
+			final List<Object> args = new ArrayList<>(chunk.size() * 2);
+			chunk.forEach(translationKey -> args.addAll(List.of(translationKey.entryId(), translationKey.language())));
+			this.jdbcTemplate.update("""
+					UPDATE translation AS t SET search_vector = NULL FROM (VALUES %s) AS k(entry_id, language)
+					WHERE t.entry_id = k.entry_id AND t.language = k.language AND t.search_vector IS NOT NULL
+					  AND t.revision < (SELECT MAX(revision) FROM translation WHERE entry_id = k.entry_id AND language = k.language)
+					""".formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?::INT, ?::VARCHAR)"))), args.toArray());
+		}
+	}
+
+	/**
+	 * Returns the latest revisions without search vector, i.e. the ones inserted before the search was introduced or
+	 * the ones that became the latest as the newer revisions were deleted.
+	 */
+	public List<TranslationKey> getUnindexedLatestRevisions(int limit) {
+		return this.jdbcTemplate.query("""
+						SELECT entry_id, language, revision FROM (SELECT DISTINCT ON (entry_id, language) entry_id, language, revision, search_vector IS NULL AS unindexed FROM translation ORDER BY entry_id, language, revision DESC) AS t
+						WHERE unindexed LIMIT ?
+						""", (rs, i) -> new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision")),
+				limit);
+	}
+
+	/**
+	 * Builds the search vector of the given revision from its full content unless a newer revision has been inserted.
+	 *
+	 * @return whether the revision was indexed
+	 */
+	@Transactional
+	public boolean index(TranslationKey translationKey) {
+		this.lock(List.of(translationKey));
+		return this.getTranslation(translationKey)
+				.map(translation -> {
+					final String configuration = this.props.getTextSearchConfiguration(translationKey.language());
+					return this.jdbcTemplate.update("""
+									UPDATE translation SET search_vector = %s WHERE entry_id = ? AND language = ? AND revision = ?
+									  AND revision = (SELECT MAX(revision) FROM translation WHERE entry_id = ? AND language = ?)
+									""".formatted(SEARCH_VECTOR), configuration, translation.title(), configuration, translation.content(),
+							translationKey.entryId(), translationKey.language(), translationKey.revision(),
+							translationKey.entryId(), translationKey.language()) > 0;
+				})
+				.orElse(false);
+	}
+
+	/**
+	 * @return the hashes of the contents, or {@code null} for {@code null} contents
+	 */
+	List<String> insertContents(List<String> contents) {
+		final List<String> hashes = contents.stream().map(content -> (content == null) ? null : TranslationContentCodec.hash(content)).toList();
+		final Map<String, String> distinct = new LinkedHashMap<>();
+		for (int i = 0; i < contents.size(); i++) {
+			if (hashes.get(i) != null) {
+				distinct.putIfAbsent(hashes.get(i), contents.get(i));
+			}
+		}
+		this.jdbcTemplate.batchUpdate("""
+				INSERT INTO translation_content(hash, content) VALUES (?, ?) ON CONFLICT DO NOTHING
+				""", distinct.entrySet().stream()
+				.map(e -> new Object[] { e.getKey(), TranslationContentCodec.compress(e.getValue()) })
+				.toList());
+		return hashes;
+	}
+
+	String insertContent(String content) {
+		final String hash = TranslationContentCodec.hash(content);
+		this.jdbcTemplate.update("""
+				INSERT INTO translation_content(hash, content) VALUES (?, ?) ON CONFLICT DO NOTHING
+				""", hash, TranslationContentCodec.compress(content));
+		return hash;
+	}
+
+	/**
+	 * Deletes the content of the hash unless another revision still references it.
+	 */
+	void deleteUnreferencedContent(String contentHash) {
+		this.jdbcTemplate.update("""
+				DELETE FROM translation_content WHERE hash = ? AND NOT EXISTS (SELECT 1 FROM translation WHERE content_hash = ?)
+				""", contentHash, contentHash);
+	}
+
+	/**
+	 * Replaces the previous revision with the delta from the given content if the previous revision is not a multiple of
+	 * the snapshot interval and the delta is smaller than its content. The content of the previous revision is deleted
+	 * unless another revision references it.
+	 */
+	void replacePreviousRevisionWithDelta(TranslationKey translationKey, String content) {
+		try (final Stream<StoredRevision> stream = this.jdbcTemplate.queryForStream("""
+						SELECT t.revision, t.title, t.content, c.content AS compressed_content, t.content_hash, t.delta, t.created_at FROM translation AS t LEFT JOIN translation_content AS c ON c.hash = t.content_hash
+						WHERE t.entry_id = ? AND t.language = ? AND t.revision < ? ORDER BY t.revision DESC LIMIT 1
+						""", this.storedRevisionRowMapper,
+				translationKey.entryId(), translationKey.language(), translationKey.revision())) {
+			stream.findFirst()
+					.filter(previous -> previous.delta() == null && previous.content() != null)
+					.filter(previous -> previous.revision() % this.props.getSnapshotInterval() != 0)
+					.ifPresent(previous -> {
+						final String delta = TranslationDelta.diff(content, previous.content());
+						if (delta.length() < previous.content().length()) {
+							this.jdbcTemplate.update("""
+									UPDATE translation SET content = NULL, content_hash = NULL, delta = ? WHERE entry_id = ? AND language = ? AND revision = ?
+									""", delta, translationKey.entryId(), translationKey.language(), previous.revision());
+							if (previous.contentHash() != null) {
+								this.deleteUnreferencedContent(previous.contentHash());
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * Deletes the translation. The previous revision is restored to the full content first if it is a delta, since the
+	 * delta is based on the deleted revision, and is indexed for the search if it becomes the latest revision. The
+	 * content of the deleted revision is deleted unless another revision references it.
+	 */
 	@Transactional
 	public int delete(TranslationKey translationKey) {
-		return this.jdbcTemplate.update("""
-				DELETE FROM translation WHERE entry_id = ? AND language = ? AND revision = ?
-				""", translationKey.entryId(), translationKey.language(), translationKey.revision());
+		this.restorePreviousRevision(translationKey);
+		final List<Optional<String>> contentHashes = this.jdbcTemplate.query("""
+						DELETE FROM translation WHERE entry_id = ? AND language = ? AND revision = ? RETURNING content_hash
+						""", (rs, i) -> Optional.ofNullable(rs.getString("content_hash")),
+				translationKey.entryId(), translationKey.language(), translationKey.revision());
+		final int deleted = contentHashes.size();
+		contentHashes.forEach(contentHash -> contentHash.ifPresent(this::deleteUnreferencedContent));
+		if (deleted > 0) {
+			this.getLatestTranslationWithoutContent(translationKey.entryId(), translationKey.language())
+					.filter(latest -> latest.translationKey().revision() < translationKey.revision())
+					.ifPresent(latest -> this.index(latest.translationKey()));
+			this.notifyChange(translationKey);
+		}
+		return deleted;
+	}
+
+	void restorePreviousRevision(TranslationKey translationKey) {
+		try (final Stream<Integer> stream = this.jdbcTemplate.queryForStream("""
+						SELECT revision FROM translation WHERE entry_id = ? AND language = ? AND revision < ? AND delta IS NOT NULL
+						  AND revision = (SELECT MAX(revision) FROM translation WHERE entry_id = ? AND language = ? AND revision < ?)
+						""", (rs, i) -> rs.getInt("revision"),
+				translationKey.entryId(), translationKey.language(), translationKey.revision(),
+				translationKey.entryId(), translationKey.language(), translationKey.revision())) {
+			stream.findFirst()
+					.flatMap(revision -> this.getTranslation(new TranslationKey(translationKey.entryId(), translationKey.language(), revision)))
+					.ifPresent(previous -> {
+						final TranslationKey previousKey = previous.translationKey();
+						this.jdbcTemplate.update("""
+								UPDATE translation SET content_hash = ?, delta = NULL WHERE entry_id = ? AND language = ? AND revision = ?
+								""", this.insertContent(previous.content()), previousKey.entryId(), previousKey.language(), previousKey.revision());
+					});
+		}
+	}
+
+	/**
+	 * The search vector of the title and the content with the given sql expressions of the text search configuration,
+	 * the title and the content
+	 */
+	static String searchVector(String configuration, String title, String content) {
+		return "setweight(to_tsvector(%1$s, COALESCE(%2$s, '')), 'A') || setweight(to_tsvector(%1$s, COALESCE(%3$s, '')), 'B')".formatted(configuration, title, content);
+	}
+
+	static TranslationKey withoutRevision(TranslationKey translationKey) {
+		return new TranslationKey(translationKey.entryId(), translationKey.language(), null);
+	}
+
+	// delivered to the listeners on commit
+	void notifyChange(TranslationKey translationKey) {
+		this.jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", LatestTranslationCache.CHANNEL,
+				translationKey.entryId() + ":" + translationKey.language());
+	}
+
+	private record StoredContent(Translation translation, String content, byte[] compressedContent) {
+	}
+
+	private record StoredRevision(int revision, String title, String content, String contentHash, String delta, Instant createdAt) {
+	}
+
+	@FunctionalInterface
+	public interface ContentConsumer {
+		void accept(Translation translationWithoutContent, Reader content) throws IOException;
 	}
 }
@@ -0,0 +1,220 @@
+package am.ik.blog.translation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.TranslatedBlocks;
+import am.ik.blog.translator.memory.BlockMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class TranslationService {
+	private static final Logger log = LoggerFactory.getLogger(TranslationService.class);
+
+	private final TranslationMapper translationMapper;
+
+	private final LatestTranslationCache latestTranslationCache;
+
+	private final BlockMemory blockMemory;
+
+	public TranslationService(TranslationMapper translationMapper, LatestTranslationCache latestTranslationCache, BlockMemory blockMemory) {
+		this.translationMapper = translationMapper;
+		this.latestTranslationCache = latestTranslationCache;
+		this.blockMemory = blockMemory;
+	}
+
+	public Optional<Translation> getLatestTranslation(Long entryId, String language) {
+		return this.latestTranslationCache.get(entryId, language);
+	}
+
+	/**
+	 * Returns the latest translations of the entries in the order of the entries. The entries without translation are
+	 * skipped. The cached translations are used as is, and the others are read in one query.
+	 */
+	public List<Translation> getLatestTranslations(List<Long> entryIds, String language, boolean withContent) {
+		final Map<Long, Translation> found = new HashMap<>();
+		final List<Long> misses = new ArrayList<>();
+		for (Long entryId : entryIds) {
+			this.latestTranslationCache.peek(entryId, language)
+					.ifPresentOrElse(translation -> found.put(entryId, translation), () -> misses.add(entryId));
+		}
+		if (!misses.isEmpty()) {
+			this.translationMapper.getLatestTranslations(misses, language, withContent)
+					.forEach(translation -> found.put(translation.translationKey().entryId(), translation));
+		}
+		return entryIds.stream()
+				.distinct()
+				.map(found::get)
+				.filter(Objects::nonNull)
+				.map(translation -> (withContent || translation.content() == null) ? translation : new Translation(translation.translationKey(), translation.title(), null, translation.createdAt()))
+				.toList();
+	}
+
+	public Optional<Translation> getLatestTranslationWithoutContent(Long entryId, String language) {
+		return this.latestTranslationCache.peek(entryId, language)
+				.or(() -> this.translationMapper.getLatestTranslationWithoutContent(entryId, language));
+	}
+
+	/**
+	 * Adds the next revision of the translation. The revision is assigned by the database while the other writers of the
+	 * translation are blocked, so that concurrent writers neither pick the same revision nor add the same content twice.
+	 */
+	@Transactional
+	public Translation addNewTranslation(Long entryId, String language, String title, String content) {
+		return this.addNewTranslation(entryId, language, title, content, null);
+	}
+
+	/**
+	 * Adds the next revision of the translation like {@link #addNewTranslation(Long, String, String, String)}. If the
+	 * latest translation has the same content and was added at or after {@code since}, it is returned instead of
+	 * failing, as it has been added by a concurrent request for the same source.
+	 *
+	 * @throws NoChangeException if the latest translation has the same content otherwise
+	 */
+	@Transactional
+	public Translation addNewTranslation(Long entryId, String language, String title, String content, Instant since) {
+		final TranslationKey translationKey = new TranslationKey(entryId, language, null);
+		this.translationMapper.lock(List.of(translationKey));
+		final Optional<TranslationDigest> same = this.getSameContent(translationKey, title, content);
+		if (same.isPresent()) {
+			final Optional<Translation> concurrent = (since == null) ? Optional.empty() : this.translationMapper.getLatestTranslationWithoutContent(entryId, language)
+					.filter(latest -> !latest.createdAt().isBefore(since));
+			return concurrent.map(latest -> new Translation(latest.translationKey(), latest.title(), content, latest.createdAt()))
+					.orElseThrow(() -> new NoChangeException(same.get().translationKey()));
+		}
+		// created at the time of the database, which is compared with since
+		final Translation translation = this.translationMapper.insertAll(List.of(new Translation(translationKey, title, content, null))).get(0);
+		this.invalidateAfterCommit(entryId, language);
+		return translation;
+	}
+
+	/**
+	 * Adds the automatic translation like {@link #addNewTranslation(Long, String, String, String, Instant)}. The
+	 * translated blocks are memorized as the blocks of the stored revision once the transaction commits.
+	 */
+	@Transactional
+	public Translation addNewTranslation(Translated translated, Instant since) {
+		final Translation translation = this.addNewTranslation(translated.entryId(), translated.language(), translated.title(), translated.content(), since);
+		this.memorizeAfterCommit(translation.translationKey(), translated.blocks());
+		return translation;
+	}
+
+	/**
+	 * Adds the translations of an entry into several languages in one transaction and one batch. The translations that
+	 * have no change from the latest state are skipped. The translated blocks of the added translations are memorized
+	 * once the transaction commits.
+	 *
+	 * @return the added translations keyed by the language
+	 */
+	@Transactional
+	public Map<String, Translation> addNewTranslations(List<Translated> translatedList) {
+		final List<TranslationKey> translationKeys = translatedList.stream()
+				.map(translated -> new TranslationKey(translated.entryId(), translated.language(), null))
+				.toList();
+		this.translationMapper.lock(translationKeys);
+		final List<Translation> translations = new ArrayList<>();
+		final List<TranslatedBlocks> blocks = new ArrayList<>();
+		final Set<TranslationKey> seen = new HashSet<>();
+		for (int i = 0; i < translatedList.size(); i++) {
+			final Translated translated = translatedList.get(i);
+			if (seen.add(translationKeys.get(i)) && !this.hasSameContent(translationKeys.get(i), translated.title(), translated.content())) {
+				translations.add(new Translation(translationKeys.get(i), translated.title(), translated.content(), null));
+				blocks.add(translated.blocks());
+			}
+		}
+		final Map<String, Translation> added = new LinkedHashMap<>();
+		final List<Translation> inserted = this.translationMapper.insertAll(translations);
+		for (int i = 0; i < inserted.size(); i++) {
+			final Translation translation = inserted.get(i);
+			added.putIfAbsent(translation.translationKey().language(), translation);
+			this.invalidateAfterCommit(translation.translationKey().entryId(), translation.translationKey().language());
+			this.memorizeAfterCommit(translation.translationKey(), blocks.get(i));
+		}
+		return added;
+	}
+
+	boolean hasSameContent(TranslationKey translationKey, String title, String content) {
+		return this.getSameContent(translationKey, title, content).isPresent();
+	}
+
+	Optional<TranslationDigest> getSameContent(TranslationKey translationKey, String title, String content) {
+		return this.translationMapper.getLatestTranslationDigest(translationKey.entryId(), translationKey.language())
+				.filter(latest -> latest.hasSameContent(title, content));
+	}
+
+	/**
+	 * @return the changes between the two revisions in the unified diff format, or empty if either is not found
+	 */
+	public Optional<String> diff(TranslationKey from, TranslationKey to) {
+		return this.translationMapper.getTranslation(from)
+				.flatMap(original -> this.translationMapper.getTranslation(to)
+						.map(revised -> TranslationDelta.unifiedDiff(original, revised)));
+	}
+
+	public int deleteTranslation(TranslationKey translationKey) {
+		final int deleted = this.translationMapper.delete(translationKey);
+		this.invalidateAfterCommit(translationKey.entryId(), translationKey.language());
+		return deleted;
+	}
+
+	/**
+	 * Memorizes the blocks as the blocks of the revision once the transaction commits (or right away outside a
+	 * transaction), so that the blocks of a translation that was not stored are never reused. A failure only costs
+	 * translating all the blocks next time.
+	 */
+	void memorizeAfterCommit(TranslationKey translationKey, TranslatedBlocks blocks) {
+		if (blocks == null) {
+			return;
+		}
+		final Runnable memorize = () -> {
+			try {
+				this.blockMemory.store(translationKey.entryId(), translationKey.language(), translationKey.revision(), blocks.engine(), blocks.hashes(), blocks.translated());
+			}
+			catch (RuntimeException e) {
+				log.warn("Failed to memorize the blocks of {}", translationKey, e);
+			}
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			memorize.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				memorize.run();
+			}
+		});
+	}
+
+	/**
+	 * Invalidates the cached translation once the transaction commits (or right away outside a transaction). Otherwise a
+	 * concurrent reader could load the old translation into the cache again before the new one is visible.
+	 */
+	void invalidateAfterCommit(Long entryId, String language) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.latestTranslationCache.invalidate(entryId, language);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				latestTranslationCache.invalidate(entryId, language);
+			}
+		});
+	}
+}
@@ -0,0 +1,57 @@
+package am.ik.blog.translation;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of how the translations are stored.
+ * <p>
+ * The latest revision is stored whole as an LZ4 compressed blob. {@link TranslationMapper#streamLatestContent}
+ * buffers the whole blob in memory for each request, plus one 64 KB block of the decompressor. A blob takes
+ * {@code octet_length(content)} bytes in {@code translation_content}, usually a fraction of the content. No setting
+ * here bounds that memory.
+ */
+@ConfigurationProperties(prefix = "translation.storage")
+@ConstructorBinding
+public class TranslationStorageProps {
+	static final Map<String, String> DEFAULT_TEXT_SEARCH_CONFIGURATIONS = Map.ofEntries(
+			Map.entry("da", "danish"), Map.entry("de", "german"), Map.entry("en", "english"), Map.entry("es", "spanish"),
+			Map.entry("fi", "finnish"), Map.entry("fr", "french"), Map.entry("hu", "hungarian"), Map.entry("it", "italian"),
+			Map.entry("nl", "dutch"), Map.entry("no", "norwegian"), Map.entry("pt", "portuguese"), Map.entry("ro", "romanian"),
+			Map.entry("ru", "russian"), Map.entry("sv", "swedish"), Map.entry("tr", "turkish"));
+
+	/**
+	 * Revisions that are multiples of this interval keep their full content instead of a delta. 1 disables deltas.
+	 */
+	private final int snapshotInterval;
+
+	private final Map<String, String> textSearchConfigurations;
+
+	public TranslationStorageProps(@DefaultValue("10") int snapshotInterval, Map<String, String> textSearchConfigurations) {
+		this.snapshotInterval = snapshotInterval;
+		this.textSearchConfigurations = (textSearchConfigurations == null) ? Map.of() : textSearchConfigurations;
+	}
+
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	/**
+	 * The text search configurations by language, which override the built-in configurations of Postgres such as
+	 * {@code en=english}. Changing the configuration of a language requires the search vectors to be rebuilt.
+	 */
+	public Map<String, String> getTextSearchConfigurations() {
+		return textSearchConfigurations;
+	}
+
+	/**
+	 * @return the text search configuration of the language, or {@code simple} for the languages without stemming such
+	 * as {@code zh}
+	 */
+	public String getTextSearchConfiguration(String language) {
+		return this.textSearchConfigurations.getOrDefault(language, DEFAULT_TEXT_SEARCH_CONFIGURATIONS.getOrDefault(language, "simple"));
+	}
+}
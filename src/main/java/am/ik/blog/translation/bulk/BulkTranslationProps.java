@@ -0,0 +1,28 @@
+package am.ik.blog.translation.bulk;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.bulk")
+@ConstructorBinding
+public class BulkTranslationProps {
+	private final int concurrency;
+
+	private final Duration timeout;
+
+	public BulkTranslationProps(@DefaultValue("8") int concurrency, @DefaultValue("30m") Duration timeout) {
+		this.concurrency = concurrency;
+		this.timeout = timeout;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+}
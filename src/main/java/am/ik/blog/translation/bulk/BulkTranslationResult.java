@@ -0,0 +1,8 @@
+package am.ik.blog.translation.bulk;
+
+public record BulkTranslationResult(Long entryId,
+									String language,
+									int status,
+									Integer revision,
+									String error) {
+}
@@ -0,0 +1,86 @@
+package am.ik.blog.translation.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class BulkTranslationService implements DisposableBean {
+	private final EntryTranslator entryTranslator;
+
+	private final TranslationService translationService;
+
+	private final ExecutorService executorService;
+
+	public BulkTranslationService(EntryTranslator entryTranslator, TranslationService translationService, BulkTranslationProps props) {
+		this.entryTranslator = entryTranslator;
+		this.translationService = translationService;
+		this.executorService = Executors.newFixedThreadPool(props.getConcurrency(), new CustomizableThreadFactory("bulk-translation-"));
+	}
+
+	/**
+	 * Translates every pair of the given entries and languages and passes each result to the callback as soon as it finishes.
+	 * The entries are translated in parallel, each into all languages in one pass. Cancelling the returned future skips the
+	 * entries that have not started yet.
+	 */
+	public CompletableFuture<Void> translate(List<Long> entryIds, List<String> languages, Consumer<BulkTranslationResult> callback) {
+		final CompletableFuture<Void> completion = new CompletableFuture<>();
+		final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for (Long entryId : entryIds) {
+			tasks.add(CompletableFuture.runAsync(() -> {
+				if (!completion.isDone()) {
+					this.translate(entryId, languages).forEach(callback);
+				}
+			}, this.executorService));
+		}
+		CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+				.whenComplete((v, e) -> {
+					if (e == null) {
+						completion.complete(null);
+					}
+					else {
+						completion.completeExceptionally(e);
+					}
+				});
+		return completion;
+	}
+
+	List<BulkTranslationResult> translate(Long entryId, List<String> languages) {
+		try {
+			final List<Translated> translatedList = this.entryTranslator.translate(entryId, languages);
+			final Map<String, Translation> added = this.translationService.addNewTranslations(translatedList);
+			return languages.stream()
+					.map(language -> Optional.ofNullable(added.get(language))
+							.map(translation -> new BulkTranslationResult(entryId, language, HttpStatus.CREATED.value(), translation.translationKey().revision(), null))
+							.orElseGet(() -> new BulkTranslationResult(entryId, language, HttpStatus.BAD_REQUEST.value(), null, "There is no change from the latest state.")))
+					.toList();
+		}
+		catch (ResponseStatusException e) {
+			return languages.stream().map(language -> new BulkTranslationResult(entryId, language, e.getRawStatusCode(), null, e.getReason())).toList();
+		}
+		catch (RuntimeException e) {
+			return languages.stream().map(language -> new BulkTranslationResult(entryId, language, HttpStatus.INTERNAL_SERVER_ERROR.value(), null, e.getMessage())).toList();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdownNow();
+	}
+}
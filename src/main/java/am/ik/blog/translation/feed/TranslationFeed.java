@@ -0,0 +1,156 @@
+package am.ik.blog.translation.feed;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.job.TranslationJobMapper;
+import am.ik.blog.translator.source.EntrySourceClient;
+import am.ik.blog.translator.source.EntryUpdate;
+import am.ik.blog.translator.source.EntryUpdates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Polls the blog api for the entries updated since the watermark and queues translation jobs for the languages whose
+ * latest translation is older than the update, so that the entries are translated before the first reader asks. A
+ * language whose latest job was queued after the update is not queued again, since the job has read the update even if
+ * it stored no new revision or failed.
+ * <p>
+ * The jobs are queued only while fewer than {@code maxPendingJobs} jobs are pending or running, and the watermark moves
+ * only past the entries that have been queued, so a burst of updates is spread over several polls. The watermark does
+ * not move when more entries were updated than {@code maxPages} pages hold, as the older ones have not been read, while
+ * the entries read are still queued and are not queued again by the next polls. The updates are read without a transaction, and the jobs are queued and the watermark is moved in a short one that
+ * holds an advisory lock, so only one instance moves the watermark at a time.
+ */
+@Component
+@ConditionalOnProperty(name = "translation.feed.enabled", havingValue = "true")
+public class TranslationFeed {
+	static final String NAME = "blog-api";
+
+	private static final Logger log = LoggerFactory.getLogger(TranslationFeed.class);
+
+	private final EntrySourceClient entrySourceClient;
+
+	private final TranslationMapper translationMapper;
+
+	private final TranslationJobMapper translationJobMapper;
+
+	private final TranslationFeedMapper translationFeedMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final TranslationFeedProps props;
+
+	public TranslationFeed(EntrySourceClient entrySourceClient, TranslationMapper translationMapper, TranslationJobMapper translationJobMapper, TranslationFeedMapper translationFeedMapper,
+			TransactionTemplate transactionTemplate, TranslationFeedProps props) {
+		this.entrySourceClient = entrySourceClient;
+		this.translationMapper = translationMapper;
+		this.translationJobMapper = translationJobMapper;
+		this.translationFeedMapper = translationFeedMapper;
+		this.transactionTemplate = transactionTemplate;
+		this.props = props;
+	}
+
+	/**
+	 * @return the number of queued jobs
+	 */
+	@Scheduled(fixedDelayString = "${translation.feed.poll-interval:PT1M}")
+	public int poll() {
+		final Instant watermark = this.translationFeedMapper.getWatermark(NAME, Instant.now().minus(this.props.getInitialLookback()));
+		if (this.translationJobMapper.countUnfinished() >= this.props.getMaxPendingJobs()) {
+			return 0;
+		}
+		final EntryUpdates entryUpdates = this.entrySourceClient.getUpdatedEntries(watermark, this.props.getPageSize(), this.props.getMaxPages());
+		final List<EntryUpdate> updates = entryUpdates.updates();
+		if (updates.isEmpty()) {
+			return 0;
+		}
+		if (!entryUpdates.complete()) {
+			log.warn("More than {} entries were updated since {}. The watermark is kept until all of them are read, so increase 'translation.feed.max-pages'.",
+					updates.size(), watermark);
+		}
+		final Integer enqueued = this.transactionTemplate.execute(status -> this.enqueue(watermark, updates, entryUpdates.complete()));
+		return (enqueued == null) ? 0 : enqueued;
+	}
+
+	/**
+	 * Queues the jobs of the stale languages and moves the watermark past the queued entries unless another instance has
+	 * moved it since it was read or the updates were not read up to the watermark.
+	 */
+	int enqueue(Instant watermark, List<EntryUpdate> updates, boolean complete) {
+		if (!this.translationFeedMapper.tryLockWatermark(NAME, watermark)) {
+			return 0;
+		}
+		final int budget = this.props.getMaxPendingJobs() - this.translationJobMapper.countUnfinished();
+		if (budget <= 0) {
+			return 0;
+		}
+		final Map<EntryUpdate, List<String>> staleLanguages = this.staleLanguages(updates);
+		final Map<EntryUpdate, List<String>> selected = new LinkedHashMap<>();
+		Instant next = watermark;
+		int jobs = 0;
+		for (EntryUpdate update : updates) {
+			final List<String> languages = staleLanguages.get(update);
+			// the first entry is always taken so that the feed moves even with a small budget
+			if (!selected.isEmpty() && jobs + languages.size() > budget) {
+				break;
+			}
+			selected.put(update, languages);
+			next = update.updatedAt();
+			jobs += languages.size();
+		}
+		final List<TranslationKey> translationKeys = new ArrayList<>(jobs);
+		for (String language : this.props.getLanguages()) {
+			selected.forEach((update, languages) -> {
+				if (languages.contains(language)) {
+					translationKeys.add(new TranslationKey(update.entryId(), language, null));
+				}
+			});
+		}
+		final int enqueued = translationKeys.isEmpty() ? 0 : this.translationJobMapper.enqueueAll(translationKeys);
+		// the entries updated at the watermark are read again by the next poll, where the jobs queued now are found
+		if (complete) {
+			this.translationFeedMapper.updateWatermark(NAME, next);
+		}
+		if (enqueued > 0) {
+			log.info("Queued {} translation jobs for {} updated entries (watermark: {} -> {})", enqueued, selected.size(), watermark, next);
+		}
+		return enqueued;
+	}
+
+	/**
+	 * @return the languages, in the order of the props, whose latest translation is missing or older than the update and
+	 * whose latest job was queued before the update
+	 */
+	Map<EntryUpdate, List<String>> staleLanguages(List<EntryUpdate> updates) {
+		final List<Long> entryIds = updates.stream().map(EntryUpdate::entryId).distinct().toList();
+		final Map<String, Map<Long, Instant>> handledAt = new HashMap<>();
+		for (String language : this.props.getLanguages()) {
+			final Map<Long, Instant> latest = new HashMap<>(this.translationJobMapper.getLatestCreatedAt(entryIds, language));
+			this.translationMapper.getLatestTranslations(entryIds, language, false)
+					.forEach(translation -> latest.merge(translation.translationKey().entryId(), translation.createdAt(), (a, b) -> a.isAfter(b) ? a : b));
+			handledAt.put(language, latest);
+		}
+		final Map<EntryUpdate, List<String>> stale = new HashMap<>();
+		for (EntryUpdate update : updates) {
+			stale.put(update, this.props.getLanguages().stream()
+					.filter(language -> {
+						final Instant handled = handledAt.get(language).get(update.entryId());
+						return handled == null || handled.isBefore(update.updatedAt());
+					})
+					.toList());
+		}
+		return stale;
+	}
+}
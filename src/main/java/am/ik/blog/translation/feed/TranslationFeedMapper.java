@@ -0,0 +1,60 @@
+package am.ik.blog.translation.feed;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores how far the updates of a feed have been queued in {@code translation_feed}
+ */
+@Repository
+public class TranslationFeedMapper {
+	private final JdbcTemplate jdbcTemplate;
+
+	public TranslationFeedMapper(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Returns the watermark of the feed without locking it. The watermark starts at {@code initial}.
+	 */
+	@Transactional
+	public Instant getWatermark(String name, Instant initial) {
+		this.jdbcTemplate.update("""
+				INSERT INTO translation_feed(name, watermark) VALUES (?, ?) ON CONFLICT DO NOTHING
+				""", name, Timestamp.from(initial));
+		return this.jdbcTemplate.queryForObject("""
+				SELECT watermark FROM translation_feed WHERE name = ?
+				""", (rs, i) -> rs.getTimestamp("watermark").toInstant(), name);
+	}
+
+	/**
+	 * Takes the advisory lock of the feed until the end of the current transaction without waiting for it, so that only
+	 * one poller moves the watermark at a time.
+	 *
+	 * @return whether the lock was taken and the watermark is still {@code expected}, i.e. no other poller has moved it
+	 * since it was read
+	 */
+	public boolean tryLockWatermark(String name, Instant expected) {
+		final Boolean locked = this.jdbcTemplate.queryForObject("""
+				SELECT pg_try_advisory_xact_lock(hashtextextended('translation_feed:' || ?, 0))
+				""", Boolean.class, name);
+		if (!Boolean.TRUE.equals(locked)) {
+			return false;
+		}
+		final Integer count = this.jdbcTemplate.queryForObject("""
+				SELECT COUNT(*) FROM translation_feed WHERE name = ? AND watermark = ?
+				""", Integer.class, name, Timestamp.from(expected));
+		return count != null && count > 0;
+	}
+
+	@Transactional
+	public int updateWatermark(String name, Instant watermark) {
+		return this.jdbcTemplate.update("""
+				UPDATE translation_feed SET watermark = ?, updated_at = NOW() WHERE name = ?
+				""", Timestamp.from(watermark), name);
+	}
+}
@@ -0,0 +1,62 @@
+package am.ik.blog.translation.feed;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.feed")
+@ConstructorBinding
+public class TranslationFeedProps {
+	private final List<String> languages;
+
+	private final Duration initialLookback;
+
+	private final int maxPendingJobs;
+
+	private final int pageSize;
+
+	private final int maxPages;
+
+	public TranslationFeedProps(@DefaultValue("en") List<String> languages, @DefaultValue("1d") Duration initialLookback, @DefaultValue("20") int maxPendingJobs,
+			@DefaultValue("50") int pageSize, @DefaultValue("10") int maxPages) {
+		this.languages = languages;
+		this.initialLookback = initialLookback;
+		this.maxPendingJobs = maxPendingJobs;
+		this.pageSize = pageSize;
+		this.maxPages = maxPages;
+	}
+
+	/**
+	 * The languages to translate the updated entries into, the most read first. The jobs of the first language are
+	 * queued before those of the next one.
+	 */
+	public List<String> getLanguages() {
+		return languages;
+	}
+
+	/**
+	 * How far back the first poll looks for updated entries
+	 */
+	public Duration getInitialLookback() {
+		return initialLookback;
+	}
+
+	/**
+	 * The number of pending and running jobs above which no more jobs are queued, so that the updates are translated
+	 * over several polls rather than at once.
+	 */
+	public int getMaxPendingJobs() {
+		return maxPendingJobs;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public int getMaxPages() {
+		return maxPages;
+	}
+}
@@ -0,0 +1,15 @@
+package am.ik.blog.translation.job;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record TranslationJob(UUID jobId,
+							 Long entryId,
+							 String language,
+							 TranslationJobStatus status,
+							 int attempts,
+							 Integer revision,
+							 String error,
+							 Instant createdAt,
+							 Instant updatedAt) {
+}
@@ -0,0 +1,174 @@
+package am.ik.blog.translation.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import am.ik.blog.translation.TranslationKey;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class TranslationJobMapper {
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public TranslationJobMapper(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	private final RowMapper<TranslationJob> translationJobRowMapper = (rs, i) -> new TranslationJob(
+			rs.getObject("job_id", UUID.class),
+			rs.getLong("entry_id"),
+			rs.getString("language"),
+			TranslationJobStatus.valueOf(rs.getString("status")),
+			rs.getInt("attempts"),
+			rs.getObject("revision", Integer.class),
+			rs.getString("error"),
+			rs.getTimestamp("created_at").toInstant(),
+			rs.getTimestamp("updated_at").toInstant());
+
+	public Optional<TranslationJob> findById(UUID jobId) {
+		try (final Stream<TranslationJob> stream = this.jdbcTemplate.queryForStream("""
+				SELECT job_id, entry_id, language, status, attempts, revision, error, created_at, updated_at FROM translation_job WHERE job_id = ?
+				""", this.translationJobRowMapper, jobId)) {
+			return stream.findFirst();
+		}
+	}
+
+	@Transactional
+	public TranslationJob enqueue(Long entryId, String language) {
+		return this.jdbcTemplate.queryForObject("""
+				INSERT INTO translation_job(job_id, entry_id, language) VALUES (?, ?, ?)
+				RETURNING job_id, entry_id, language, status, attempts, revision, error, created_at, updated_at
+				""", this.translationJobRowMapper, UUID.randomUUID(), entryId, language);
+	}
+
+	/**
+	 * Enqueues the jobs in the given order, skipping the translations that already have a pending or running job.
+	 *
+	 * @return the number of enqueued jobs
+	 */
+	@Transactional
+	public int enqueueAll(List<TranslationKey> translationKeys) {
+		// clock_timestamp() keeps the order within the transaction, which NOW() does not
+		final int[] updated = this.jdbcTemplate.batchUpdate("""
+				INSERT INTO translation_job(job_id, entry_id, language, created_at)
+				SELECT ?, ?, ?, clock_timestamp()
+				WHERE NOT EXISTS (SELECT 1 FROM translation_job WHERE entry_id = ? AND language = ? AND status IN ('PENDING', 'RUNNING'))
+				""", translationKeys.stream()
+				.map(key -> new Object[] { UUID.randomUUID(), key.entryId(), key.language(), key.entryId(), key.language() })
+				.toList());
+		return Arrays.stream(updated).sum();
+	}
+
+	/**
+	 * Returns when the latest job of each of the given entries in the language was queued, whatever its status. A job
+	 * queued after an entry was updated has read the update, even if it stored no new revision or failed.
+	 */
+	public Map<Long, Instant> getLatestCreatedAt(Collection<Long> entryIds, String language) {
+		if (entryIds.isEmpty()) {
+			return Map.of();
+		}
+		final Map<Long, Instant> createdAt = new HashMap<>();
+		this.namedParameterJdbcTemplate.query("""
+						SELECT entry_id, MAX(created_at) AS created_at FROM translation_job WHERE entry_id IN (:entryIds) AND language = :language GROUP BY entry_id
+						""", new MapSqlParameterSource()
+						.addValue("entryIds", entryIds)
+						.addValue("language", language),
+				(RowCallbackHandler) rs -> createdAt.put(rs.getLong("entry_id"), rs.getTimestamp("created_at").toInstant()));
+		return createdAt;
+	}
+
+	public int countUnfinished() {
+		return this.jdbcTemplate.queryForObject("""
+				SELECT COUNT(*) FROM translation_job WHERE status IN ('PENDING', 'RUNNING')
+				""", Integer.class);
+	}
+
+	/**
+	 * Claims pending jobs that are available (and running jobs without heartbeat for {@code staleTimeout}) so that no
+	 * other worker picks them. The times are compared with the clock of the database, which all workers share.
+	 */
+	@Transactional
+	public List<TranslationJob> claim(int limit, Duration staleTimeout) {
+		return this.jdbcTemplate.query("""
+				UPDATE translation_job SET status = 'RUNNING', attempts = attempts + 1, updated_at = NOW()
+				WHERE job_id IN (SELECT job_id FROM translation_job
+				                 WHERE (status = 'PENDING' AND available_at <= NOW()) OR (status = 'RUNNING' AND updated_at < NOW() - ? * INTERVAL '1 millisecond')
+				                 ORDER BY created_at
+				                 LIMIT ? FOR UPDATE SKIP LOCKED)
+				RETURNING job_id, entry_id, language, status, attempts, revision, error, created_at, updated_at
+				""", this.translationJobRowMapper, staleTimeout.toMillis(), limit);
+	}
+
+	/**
+	 * Finishes the claimed job unless it has been claimed again as stale since, like {@link #retry} and {@link #fail}
+	 *
+	 * @return 0 if the job is no longer running the attempt of {@code job}
+	 */
+	@Transactional
+	public int succeed(TranslationJob job, int revision) {
+		return this.jdbcTemplate.update("""
+				UPDATE translation_job SET status = 'SUCCEEDED', revision = ?, error = NULL, updated_at = NOW() WHERE job_id = ? AND status = 'RUNNING' AND attempts = ?
+				""", revision, job.jobId(), job.attempts());
+	}
+
+	/**
+	 * Puts the claimed job back to pending, to be claimed again after {@code backoff} by the clock of the database
+	 */
+	@Transactional
+	public int retry(TranslationJob job, String error, Duration backoff) {
+		return this.jdbcTemplate.update("""
+				UPDATE translation_job SET status = 'PENDING', error = ?, available_at = NOW() + ? * INTERVAL '1 millisecond', updated_at = NOW() WHERE job_id = ? AND status = 'RUNNING' AND attempts = ?
+				""", error, backoff.toMillis(), job.jobId(), job.attempts());
+	}
+
+	/**
+	 * Tells the other workers that the running jobs are still running, so that they are not claimed as stale
+	 */
+	public int heartbeat(Collection<UUID> jobIds) {
+		if (jobIds.isEmpty()) {
+			return 0;
+		}
+		return this.namedParameterJdbcTemplate.update("""
+				UPDATE translation_job SET updated_at = NOW() WHERE job_id IN (:jobIds) AND status = 'RUNNING'
+				""", new MapSqlParameterSource("jobIds", jobIds));
+	}
+
+	@Transactional
+	public int fail(TranslationJob job, String error) {
+		return this.jdbcTemplate.update("""
+				UPDATE translation_job SET status = 'FAILED', error = ?, updated_at = NOW() WHERE job_id = ? AND status = 'RUNNING' AND attempts = ?
+				""", error, job.jobId(), job.attempts());
+	}
+
+	/**
+	 * Deletes up to {@code limit} of the jobs that finished more than {@code retention} ago
+	 *
+	 * @return the number of deleted jobs
+	 */
+	@Transactional
+	public int purgeFinished(Duration retention, int limit) {
+		return this.jdbcTemplate.update("""
+				DELETE FROM translation_job WHERE job_id IN (SELECT job_id FROM translation_job
+				                                             WHERE status IN ('SUCCEEDED', 'FAILED') AND updated_at < NOW() - ? * INTERVAL '1 millisecond'
+				                                             LIMIT ?)
+				""", retention.toMillis(), limit);
+	}
+}
@@ -0,0 +1,61 @@
+package am.ik.blog.translation.job;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.job")
+@ConstructorBinding
+public class TranslationJobProps {
+	private final int concurrency;
+
+	private final int maxAttempts;
+
+	private final Duration staleTimeout;
+
+	private final Duration retryBackoff;
+
+	private final Duration retention;
+
+	public TranslationJobProps(@DefaultValue("2") int concurrency, @DefaultValue("3") int maxAttempts, @DefaultValue("10m") Duration staleTimeout,
+			@DefaultValue("1m") Duration retryBackoff, @DefaultValue("7d") Duration retention) {
+		this.concurrency = concurrency;
+		this.maxAttempts = maxAttempts;
+		this.staleTimeout = staleTimeout;
+		this.retryBackoff = retryBackoff;
+		this.retention = retention;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * How long a running job may go without a heartbeat before another worker claims it again. The heartbeat is sent
+	 * every {@code translation.job.heartbeat-interval} (1 minute by default), which must be shorter than this.
+	 */
+	public Duration getStaleTimeout() {
+		return staleTimeout;
+	}
+
+	/**
+	 * The delay before the first retry of a job that failed transiently, which doubles with every attempt
+	 */
+	public Duration getRetryBackoff() {
+		return retryBackoff;
+	}
+
+	/**
+	 * How long the succeeded and failed jobs are kept. They are purged every {@code translation.job.purge-interval} (1
+	 * hour by default).
+	 */
+	public Duration getRetention() {
+		return retention;
+	}
+}
@@ -0,0 +1,5 @@
+package am.ik.blog.translation.job;
+
+public enum TranslationJobStatus {
+	PENDING, RUNNING, SUCCEEDED, FAILED
+}
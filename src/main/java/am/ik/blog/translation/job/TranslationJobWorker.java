@@ -0,0 +1,158 @@
+package am.ik.blog.translation.job;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import am.ik.blog.translation.AutoTranslationService;
+import am.ik.blog.translation.NoChangeException;
+import am.ik.blog.translation.Translation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+@ConditionalOnProperty(name = "translation.job.enabled", havingValue = "true", matchIfMissing = true)
+public class TranslationJobWorker implements DisposableBean {
+	private static final Logger log = LoggerFactory.getLogger(TranslationJobWorker.class);
+
+	static final int PURGE_BATCH_SIZE = 1000;
+
+	private final TranslationJobMapper translationJobMapper;
+
+	private final AutoTranslationService autoTranslationService;
+
+	private final TranslationJobProps props;
+
+	private final ExecutorService executorService;
+
+	private final Semaphore permits;
+
+	private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+	public TranslationJobWorker(TranslationJobMapper translationJobMapper, AutoTranslationService autoTranslationService, TranslationJobProps props) {
+		this.translationJobMapper = translationJobMapper;
+		this.autoTranslationService = autoTranslationService;
+		this.props = props;
+		this.executorService = Executors.newFixedThreadPool(props.getConcurrency(), new CustomizableThreadFactory("translation-job-"));
+		this.permits = new Semaphore(props.getConcurrency());
+	}
+
+	@Scheduled(fixedDelayString = "${translation.job.poll-interval:PT1S}")
+	public void poll() {
+		final int available = this.permits.availablePermits();
+		if (available == 0) {
+			return;
+		}
+		final List<TranslationJob> jobs = this.translationJobMapper.claim(available, this.props.getStaleTimeout());
+		for (TranslationJob job : jobs) {
+			this.permits.acquireUninterruptibly();
+			this.running.add(job.jobId());
+			this.executorService.execute(() -> {
+				try {
+					this.run(job);
+				}
+				finally {
+					this.running.remove(job.jobId());
+					this.permits.release();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Keeps the running jobs from being claimed as stale while a long translation is in progress
+	 */
+	@Scheduled(fixedDelayString = "${translation.job.heartbeat-interval:PT1M}")
+	public void heartbeat() {
+		this.translationJobMapper.heartbeat(List.copyOf(this.running));
+	}
+
+	/**
+	 * Deletes the finished jobs older than the retention, a batch of {@value #PURGE_BATCH_SIZE} at a time
+	 */
+	@Scheduled(fixedDelayString = "${translation.job.purge-interval:PT1H}")
+	public void purge() {
+		int purged = 0;
+		int deleted;
+		do {
+			deleted = this.translationJobMapper.purgeFinished(this.props.getRetention(), PURGE_BATCH_SIZE);
+			purged += deleted;
+		}
+		while (deleted == PURGE_BATCH_SIZE);
+		if (purged > 0) {
+			log.info("Purged {} finished translation jobs older than {}", purged, this.props.getRetention());
+		}
+	}
+
+	void run(TranslationJob job) {
+		if (job.attempts() > this.props.getMaxAttempts()) {
+			this.warnIfReclaimed(job, this.translationJobMapper.fail(job, "Gave up after %d attempts.".formatted(this.props.getMaxAttempts())));
+			return;
+		}
+		try {
+			final Translation translation = this.autoTranslationService.translate(job.entryId(), job.language());
+			this.warnIfReclaimed(job, this.translationJobMapper.succeed(job, translation.translationKey().revision()));
+		}
+		catch (NoChangeException e) {
+			// e.g. only the tags of the entry were updated
+			log.info("The translation job ({}) found no change from the latest revision {}", job.jobId(), e.getLatest().revision());
+			this.warnIfReclaimed(job, this.translationJobMapper.succeed(job, e.getLatest().revision()));
+		}
+		catch (RuntimeException e) {
+			if (!isRetryable(e) || job.attempts() >= this.props.getMaxAttempts()) {
+				log.warn("Failed to run the translation job ({})", job.jobId(), e);
+				this.warnIfReclaimed(job, this.translationJobMapper.fail(job, e.getMessage()));
+				return;
+			}
+			final Duration backoff = this.props.getRetryBackoff().multipliedBy(1L << Math.min(job.attempts() - 1, 16));
+			log.warn("Failed to run the translation job ({}) at attempt {}. Retry in {}", job.jobId(), job.attempts(), backoff, e);
+			this.warnIfReclaimed(job, this.translationJobMapper.retry(job, e.getMessage(), backoff));
+		}
+	}
+
+	/**
+	 * The job is claimed again as stale when no heartbeat was seen for the stale timeout, e.g. after a long GC pause. The
+	 * newer attempt owns the job then, so this attempt leaves its status as it is.
+	 */
+	void warnIfReclaimed(TranslationJob job, int updated) {
+		if (updated == 0) {
+			log.warn("The translation job ({}) was claimed again after attempt {}, so its status is left to the newer attempt", job.jobId(), job.attempts());
+		}
+	}
+
+	/**
+	 * Client errors (except for too many requests) fail the same way however many times the job is retried.
+	 */
+	static boolean isRetryable(RuntimeException e) {
+		final int status;
+		if (e instanceof ResponseStatusException responseStatusException) {
+			status = responseStatusException.getRawStatusCode();
+		}
+		else if (e instanceof RestClientResponseException restClientResponseException) {
+			status = restClientResponseException.getRawStatusCode();
+		}
+		else {
+			return true;
+		}
+		return status == HttpStatus.TOO_MANY_REQUESTS.value() || !HttpStatus.Series.CLIENT_ERROR.equals(HttpStatus.Series.resolve(status));
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdown();
+	}
+}
@@ -0,0 +1,37 @@
+package am.ik.blog.translation.search;
+
+import java.math.BigDecimal;
+
+/**
+ * The position after the last hit of a page, i.e. its rank and entry id, as the hits are ordered by rank and then by
+ * entry id. The rank is formatted as the bits of the {@code real} value, so that the hits of the same rank as the last
+ * one are neither repeated nor skipped on the next page.
+ */
+public record SearchCursor(float rank, long entryId) {
+
+	public static SearchCursor of(TranslationHit hit) {
+		return new SearchCursor(hit.rank(), hit.translationKey().entryId());
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public static SearchCursor parse(String cursor) {
+		final int separator = cursor.indexOf(':');
+		if (separator < 0) {
+			throw new IllegalArgumentException("Malformed cursor: " + cursor);
+		}
+		return new SearchCursor(Float.intBitsToFloat(Integer.parseUnsignedInt(cursor.substring(0, separator), 16)), Long.parseLong(cursor.substring(separator + 1)));
+	}
+
+	public String format() {
+		return Integer.toHexString(Float.floatToRawIntBits(this.rank)) + ":" + this.entryId;
+	}
+
+	/**
+	 * @return the exact decimal value of the rank, which is cast to the same {@code real} value
+	 */
+	String exactRank() {
+		return new BigDecimal(this.rank).toPlainString();
+	}
+}
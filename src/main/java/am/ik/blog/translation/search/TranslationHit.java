@@ -0,0 +1,16 @@
+package am.ik.blog.translation.search;
+
+import java.time.Instant;
+
+import am.ik.blog.translation.TranslationKey;
+
+/**
+ * A latest translation matching the query. The title and the snippet of the content highlight the matched words with
+ * {@code <b>} tags.
+ */
+public record TranslationHit(TranslationKey translationKey,
+							 String title,
+							 String snippet,
+							 float rank,
+							 Instant createdAt) {
+}
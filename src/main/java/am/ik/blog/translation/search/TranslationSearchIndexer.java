@@ -0,0 +1,67 @@
+package am.ik.blog.translation.search;
+
+import java.util.List;
+
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the search vectors of the latest translations that do not have one, i.e. the translations inserted before the
+ * search was introduced. The vectors cannot be built in the database as the content is compressed. The translations
+ * inserted (or restored by deleting the newer revisions) since then are indexed as they are written, so the indexer
+ * stops looking up the table once a run finds nothing to index.
+ */
+@Component
+public class TranslationSearchIndexer {
+	private static final Logger log = LoggerFactory.getLogger(TranslationSearchIndexer.class);
+
+	private final TranslationMapper translationMapper;
+
+	private final TranslationSearchProps props;
+
+	private volatile boolean backfilled = false;
+
+	public TranslationSearchIndexer(TranslationMapper translationMapper, TranslationSearchProps props) {
+		this.translationMapper = translationMapper;
+		this.props = props;
+	}
+
+	/**
+	 * @return the number of indexed translations
+	 */
+	@Scheduled(initialDelayString = "${translation.search.index-initial-delay:PT10S}", fixedDelayString = "${translation.search.index-interval:PT10M}")
+	public int index() {
+		if (this.backfilled) {
+			return 0;
+		}
+		int indexed = 0;
+		while (true) {
+			final List<TranslationKey> translationKeys = this.translationMapper.getUnindexedLatestRevisions(this.props.getIndexBatchSize());
+			int batch = 0;
+			for (TranslationKey translationKey : translationKeys) {
+				if (this.translationMapper.index(translationKey)) {
+					batch++;
+				}
+			}
+			indexed += batch;
+			if (translationKeys.isEmpty()) {
+				this.backfilled = true;
+				log.info("All the latest translations are indexed for the search");
+				break;
+			}
+			// the rest is left to the next run if some translations were not indexed, e.g. due to concurrent changes
+			if (translationKeys.size() < this.props.getIndexBatchSize() || batch < translationKeys.size()) {
+				break;
+			}
+		}
+		if (indexed > 0) {
+			log.info("Indexed {} translations for the search", indexed);
+		}
+		return indexed;
+	}
+}
@@ -0,0 +1,92 @@
+package am.ik.blog.translation.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationStorageProps;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class TranslationSearchMapper {
+	static final String TITLE_HEADLINE_OPTIONS = "HighlightAll=true";
+
+	static final String SNIPPET_HEADLINE_OPTIONS = "MaxFragments=2, MaxWords=30, MinWords=10, FragmentDelimiter=\" ... \"";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TranslationMapper translationMapper;
+
+	private final TranslationStorageProps props;
+
+	public TranslationSearchMapper(JdbcTemplate jdbcTemplate, TranslationMapper translationMapper, TranslationStorageProps props) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.translationMapper = translationMapper;
+		this.props = props;
+	}
+
+	/**
+	 * Searches the latest translations in the language with the query in the web search syntax, e.g.
+	 * {@code "spring boot" -kotlin}. The hits are ordered by rank and then by entry id, and the page after the cursor is
+	 * found without reading the hits of the previous pages from the table. The title is matched with a higher weight than
+	 * the content.
+	 *
+	 * @param after returns the hits after this cursor if not {@code null}
+	 */
+	public List<TranslationHit> search(String language, String query, SearchCursor after, int limit) {
+		final String configuration = this.props.getTextSearchConfiguration(language);
+		final List<Object> args = new ArrayList<>(List.of(configuration, configuration, query, configuration, query, language));
+		if (after != null) {
+			args.addAll(List.of(after.exactRank(), after.exactRank(), after.entryId()));
+		}
+		args.add(limit);
+		final List<TranslationHit> hits = this.jdbcTemplate.query("""
+						SELECT t.entry_id, t.language, t.revision, ts_headline(CAST(? AS REGCONFIG), t.title, websearch_to_tsquery(CAST(? AS REGCONFIG), ?), '%s') AS title, t.rank, t.created_at
+						FROM (SELECT * FROM (SELECT s.entry_id, s.language, s.revision, s.title, s.created_at, ts_rank(s.search_vector, q.query) AS rank
+						                     FROM translation AS s, websearch_to_tsquery(CAST(? AS REGCONFIG), ?) AS q(query) WHERE s.language = ? AND s.search_vector @@ q.query) AS m
+						      %s ORDER BY m.rank DESC, m.entry_id LIMIT ?) AS t
+						ORDER BY t.rank DESC, t.entry_id
+						""".formatted(TITLE_HEADLINE_OPTIONS, (after == null) ? "" : "WHERE m.rank < CAST(? AS REAL) OR (m.rank = CAST(? AS REAL) AND m.entry_id > ?)"),
+				(rs, i) -> new TranslationHit(new TranslationKey(rs.getLong("entry_id"), rs.getString("language"), rs.getInt("revision")),
+						rs.getString("title"), null, rs.getFloat("rank"), rs.getTimestamp("created_at").toInstant()),
+				args.toArray());
+		if (hits.isEmpty()) {
+			return hits;
+		}
+		final List<String> snippets = this.snippets(language, query, hits);
+		final List<TranslationHit> withSnippets = new ArrayList<>(hits.size());
+		for (int i = 0; i < hits.size(); i++) {
+			final TranslationHit hit = hits.get(i);
+			withSnippets.add(new TranslationHit(hit.translationKey(), hit.title(), snippets.get(i), hit.rank(), hit.createdAt()));
+		}
+		return withSnippets;
+	}
+
+	/**
+	 * Highlights the matched words in the contents of the hits. The contents are compressed in the table, so they are
+	 * read and sent back to the database for the hits of the page only.
+	 */
+	List<String> snippets(String language, String query, List<TranslationHit> hits) {
+		final Map<Long, String> contents = this.translationMapper.getLatestTranslations(hits.stream().map(hit -> hit.translationKey().entryId()).toList(), language, true).stream()
+				.filter(translation -> translation.content() != null)
+				.collect(Collectors.toMap(translation -> translation.translationKey().entryId(), Translation::content));
+		final String configuration = this.props.getTextSearchConfiguration(language);
+		final List<Object> args = new ArrayList<>(List.of(configuration, configuration, query));
+		for (int i = 0; i < hits.size(); i++) {
+			args.addAll(List.of(i, contents.getOrDefault(hits.get(i).translationKey().entryId(), "")));
+		}
+		return this.jdbcTemplate.query("""
+						SELECT ts_headline(CAST(? AS REGCONFIG), v.content, websearch_to_tsquery(CAST(? AS REGCONFIG), ?), '%s') AS snippet
+						FROM (VALUES %s) AS v(ordinal, content) ORDER BY v.ordinal
+						""".formatted(SNIPPET_HEADLINE_OPTIONS, String.join(", ", Collections.nCopies(hits.size(), "(?::INT, ?::TEXT)"))),
+				(rs, i) -> rs.getString("snippet"),
+				args.toArray());
+	}
+}
@@ -0,0 +1,22 @@
+package am.ik.blog.translation.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.search")
+@ConstructorBinding
+public class TranslationSearchProps {
+	private final int indexBatchSize;
+
+	public TranslationSearchProps(@DefaultValue("100") int indexBatchSize) {
+		this.indexBatchSize = indexBatchSize;
+	}
+
+	/**
+	 * The number of unindexed translations looked up at a time by {@link TranslationSearchIndexer}
+	 */
+	public int getIndexBatchSize() {
+		return indexBatchSize;
+	}
+}
@@ -0,0 +1,10 @@
+package am.ik.blog.translation.search;
+
+import java.util.List;
+
+/**
+ * @param next the cursor of the next page, or {@code null} if this is the last page
+ */
+public record TranslationSearchResult(List<TranslationHit> hits,
+									  String next) {
+}
@@ -0,0 +1,28 @@
+package am.ik.blog.translation.streaming;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.streaming")
+@ConstructorBinding
+public class StreamingTranslationProps {
+	private final int concurrency;
+
+	private final Duration timeout;
+
+	public StreamingTranslationProps(@DefaultValue("8") int concurrency, @DefaultValue("10m") Duration timeout) {
+		this.concurrency = concurrency;
+		this.timeout = timeout;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+}
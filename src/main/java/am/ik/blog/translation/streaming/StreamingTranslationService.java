@@ -0,0 +1,46 @@
+package am.ik.blog.translation.streaming;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.TranslationProgress;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class StreamingTranslationService implements DisposableBean {
+	private final EntryTranslator entryTranslator;
+
+	private final TranslationService translationService;
+
+	private final ExecutorService executorService;
+
+	public StreamingTranslationService(EntryTranslator entryTranslator, TranslationService translationService, StreamingTranslationProps props) {
+		this.entryTranslator = entryTranslator;
+		this.translationService = translationService;
+		this.executorService = Executors.newFixedThreadPool(props.getConcurrency(), new CustomizableThreadFactory("streaming-translation-"));
+	}
+
+	/**
+	 * Translates the entry and adds the translation in the background, reporting the stages to the progress. The
+	 * translation is added even if the caller stops listening, so that a retry finds it instead of paying for it again.
+	 */
+	public CompletableFuture<Translation> translate(Long entryId, String language, TranslationProgress progress) {
+		return CompletableFuture.supplyAsync(() -> {
+			final Translated translated = this.entryTranslator.translate(entryId, language, progress);
+			return this.translationService.addNewTranslation(translated, null);
+		}, this.executorService);
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdownNow();
+	}
+}
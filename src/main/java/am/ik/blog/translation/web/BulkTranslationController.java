@@ -0,0 +1,76 @@
+package am.ik.blog.translation.web;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import am.ik.blog.translation.bulk.BulkTranslationProps;
+import am.ik.blog.translation.bulk.BulkTranslationService;
+import am.ik.yavi.core.ConstraintViolation;
+import am.ik.yavi.core.ConstraintViolationsException;
+import am.ik.yavi.core.ViolationDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+@RestController
+public class BulkTranslationController {
+	private final BulkTranslationService bulkTranslationService;
+
+	private final BulkTranslationProps props;
+
+	private final ObjectMapper objectMapper;
+
+	public BulkTranslationController(BulkTranslationService bulkTranslationService, BulkTranslationProps props, ObjectMapper objectMapper) {
+		this.bulkTranslationService = bulkTranslationService;
+		this.props = props;
+		this.objectMapper = objectMapper;
+	}
+
+	@PostMapping(path = "translations/bulk")
+	public ResponseEntity<ResponseBodyEmitter> postBulkTranslation(@RequestBody BulkTranslationRequest request) {
+		request.validate().throwIfInvalid(ConstraintViolationsException::new);
+		final ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.props.getTimeout().toMillis());
+		final CompletableFuture<Void> completion = this.bulkTranslationService.translate(request.entryIds(), request.languages(), result -> {
+			try {
+				final String line = this.objectMapper.writeValueAsString(result) + "\n";
+				emitter.send(line.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_NDJSON);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		completion.whenComplete((v, e) -> {
+			if (e == null) {
+				emitter.complete();
+			}
+			else {
+				emitter.completeWithError(e);
+			}
+		});
+		emitter.onTimeout(() -> completion.cancel(false));
+		emitter.onError(e -> completion.cancel(false));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+	}
+
+	@ExceptionHandler(ConstraintViolationsException.class)
+	public ResponseEntity<?> handleConstraintViolationsException(ConstraintViolationsException e) {
+		final List<ViolationDetail> details = e.violations().stream().map(ConstraintViolation::detail).collect(Collectors.toList());
+		final HttpStatus httpStatus = HttpStatus.BAD_REQUEST;
+		return ResponseEntity.badRequest().body(Map.of(
+				"error", httpStatus.getReasonPhrase(),
+				"status", httpStatus.value(),
+				"details", details));
+	}
+}
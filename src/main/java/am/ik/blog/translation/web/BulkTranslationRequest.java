@@ -0,0 +1,19 @@
+package am.ik.blog.translation.web;
+
+import java.util.List;
+
+import am.ik.yavi.builder.ValidatorBuilder;
+import am.ik.yavi.core.ConstraintViolations;
+import am.ik.yavi.core.Validator;
+
+public record BulkTranslationRequest(List<Long> entryIds,
+									 List<String> languages) {
+	static Validator<BulkTranslationRequest> validator = ValidatorBuilder.<BulkTranslationRequest>of()
+			.constraint(BulkTranslationRequest::entryIds, "entryIds", c -> c.notEmpty())
+			.constraint(BulkTranslationRequest::languages, "languages", c -> c.notEmpty())
+			.build();
+
+	public ConstraintViolations validate() {
+		return validator.validate(this);
+	}
+}
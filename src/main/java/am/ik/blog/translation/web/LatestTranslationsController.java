@@ -0,0 +1,52 @@
+package am.ik.blog.translation.web;
+
+import java.util.List;
+import java.util.Set;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationService;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+public class LatestTranslationsController {
+	static final int MAX_ENTRY_IDS = 100;
+
+	static final Set<String> FIELDS = Set.of("title", "content");
+
+	private final TranslationService translationService;
+
+	private final TranslationWebProps props;
+
+	public LatestTranslationsController(TranslationService translationService, TranslationWebProps props) {
+		this.translationService = translationService;
+		this.props = props;
+	}
+
+	/**
+	 * Returns the latest translations of the entries in the order of {@code entryIds}, e.g. for listing pages. The entries
+	 * without translation are skipped. {@code fields=title} omits the content.
+	 */
+	@GetMapping(path = "translations/latest")
+	public ResponseEntity<List<Translation>> getLatestTranslations(@RequestParam(name = "entryIds") List<Long> entryIds, @RequestParam(name = "language", defaultValue = "en") String language,
+			@RequestParam(name = "fields", required = false) List<String> fields) {
+		if (entryIds.isEmpty() || entryIds.size() > MAX_ENTRY_IDS) {
+			throw new ResponseStatusException(BAD_REQUEST, "The number of 'entryIds' must be between 1 and %d.".formatted(MAX_ENTRY_IDS));
+		}
+		if (fields != null && !FIELDS.containsAll(fields)) {
+			throw new ResponseStatusException(BAD_REQUEST, "'fields' must be some of %s.".formatted(String.join(", ", FIELDS.stream().sorted().toList())));
+		}
+		final boolean withContent = fields == null || fields.contains("content");
+		final List<Translation> translations = this.translationService.getLatestTranslations(entryIds, language, withContent);
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CACHE_CONTROL, this.props.getCacheControl())
+				.body(translations);
+	}
+}
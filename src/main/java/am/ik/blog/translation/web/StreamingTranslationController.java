@@ -0,0 +1,91 @@
+package am.ik.blog.translation.web;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.streaming.StreamingTranslationProps;
+import am.ik.blog.translation.streaming.StreamingTranslationService;
+import am.ik.blog.translator.TranslatedChunk;
+import am.ik.blog.translator.TranslationProgress;
+import am.ik.blog.translator.source.EntrySource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The variant of {@code POST /translations/{entryId}/auto} for {@code Accept: text/event-stream}. It reports the stages
+ * of the translation as the events {@code fetched}, {@code segmented}, {@code chunk} (the translated markdown of the
+ * blocks finished so far) and finally {@code persisted} or {@code error}.
+ */
+@RestController
+public class StreamingTranslationController {
+	private static final Logger log = LoggerFactory.getLogger(StreamingTranslationController.class);
+
+	private final StreamingTranslationService streamingTranslationService;
+
+	private final StreamingTranslationProps props;
+
+	public StreamingTranslationController(StreamingTranslationService streamingTranslationService, StreamingTranslationProps props) {
+		this.streamingTranslationService = streamingTranslationService;
+		this.props = props;
+	}
+
+	@PostMapping(path = "translations/{entryId}/auto", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter postTranslationAutomatically(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language) {
+		final SseEmitter emitter = new SseEmitter(this.props.getTimeout().toMillis());
+		final TranslationProgress progress = new TranslationProgress() {
+			@Override
+			public void entryFetched(EntrySource entry) {
+				send(emitter, "fetched", Map.of("entryId", entry.entryId(), "title", entry.title()));
+			}
+
+			@Override
+			public void segmentsExtracted(int blocks, int translatingBlocks, int chunks) {
+				send(emitter, "segmented", Map.of("blocks", blocks, "translatingBlocks", translatingBlocks, "chunks", chunks));
+			}
+
+			@Override
+			public void chunkTranslated(TranslatedChunk chunk) {
+				send(emitter, "chunk", chunk);
+			}
+		};
+		this.streamingTranslationService.translate(entryId, language, progress).whenComplete((translation, e) -> {
+			if (e == null) {
+				// the content has been sent in the chunks
+				send(emitter, "persisted", new Translation(translation.translationKey(), translation.title(), null, translation.createdAt()));
+			}
+			else {
+				final Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+				final HttpStatus status = (cause instanceof ResponseStatusException ex) ? ex.getStatus() : HttpStatus.INTERNAL_SERVER_ERROR;
+				final String message = (cause instanceof ResponseStatusException ex) ? ex.getReason() : cause.getMessage();
+				send(emitter, "error", Map.of(
+						"error", status.getReasonPhrase(),
+						"status", status.value(),
+						"message", Objects.requireNonNullElse(message, "")));
+			}
+			emitter.complete();
+		});
+		return emitter;
+	}
+
+	static void send(SseEmitter emitter, String name, Object data) {
+		try {
+			emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+		}
+		catch (IOException | IllegalStateException e) {
+			// the client has gone or timed out, the translation goes on
+			log.debug("Failed to send the event '{}'", name, e);
+		}
+	}
+}
@@ -1,22 +1,34 @@
 package am.ik.blog.translation.web;
 
+import java.io.IOException;
 import java.net.URI;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletResponse;
+
+import am.ik.blog.translation.AutoTranslationService;
 import am.ik.blog.translation.Translation;
 import am.ik.blog.translation.TranslationKey;
 import am.ik.blog.translation.TranslationMapper;
-import am.ik.blog.translator.EntryTranslator;
-import am.ik.blog.translator.Translated;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translation.job.TranslationJob;
+import am.ik.blog.translation.job.TranslationJobMapper;
 import am.ik.yavi.core.ConstraintViolation;
 import am.ik.yavi.core.ConstraintViolations;
 import am.ik.yavi.core.ViolationDetail;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,34 +38,85 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RestController
 @RequestMapping(path = "translations/{entryId}")
 public class TranslationController {
+	static final int MAX_REVISIONS_LIMIT = 1000;
+
 	private final TranslationMapper translationMapper;
 
-	private final EntryTranslator entryTranslator;
+	private final TranslationService translationService;
+
+	private final TranslationJobMapper translationJobMapper;
+
+	private final AutoTranslationService autoTranslationService;
 
-	public TranslationController(TranslationMapper translationMapper, EntryTranslator entryTranslator) {
+	private final TranslationWebProps props;
+
+	private final ObjectMapper objectMapper;
+
+	public TranslationController(TranslationMapper translationMapper, TranslationService translationService, TranslationJobMapper translationJobMapper, AutoTranslationService autoTranslationService, TranslationWebProps props, ObjectMapper objectMapper) {
 		this.translationMapper = translationMapper;
-		this.entryTranslator = entryTranslator;
+		this.translationService = translationService;
+		this.translationJobMapper = translationJobMapper;
+		this.autoTranslationService = autoTranslationService;
+		this.props = props;
+		this.objectMapper = objectMapper;
 	}
 
+	/**
+	 * Returns the revisions in descending order. Pass the last revision of the response as {@code after} to get the
+	 * next page.
+	 * <p>
+	 * The revisions are read {@value #MAX_REVISIONS_LIMIT} at a time and each page is written after the connection is
+	 * released, so that a slow client does not hold it. If a page fails after the response is committed, the array is
+	 * left unclosed and the connection is aborted instead of completing a truncated array.
+	 */
 	@GetMapping(path = "")
-	public ResponseEntity<List<Translation>> getAllRevisionsOfTranslation(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language) {
-		return ResponseEntity.ok(this.translationMapper.getAllRevisionsOfTranslation(entryId, language));
+	public void getAllRevisionsOfTranslation(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language,
+			@RequestParam(name = "after", required = false) Integer after, @RequestParam(name = "limit", required = false) Integer limit, HttpServletResponse response) throws IOException {
+		if (limit != null && (limit < 1 || limit > MAX_REVISIONS_LIMIT)) {
+			throw new ResponseStatusException(BAD_REQUEST, "'limit' must be between 1 and %d.".formatted(MAX_REVISIONS_LIMIT));
+		}
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		try (final JsonGenerator generator = this.objectMapper.createGenerator(response.getOutputStream())) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+			generator.writeStartArray();
+			Integer cursor = after;
+			int remaining = (limit == null) ? Integer.MAX_VALUE : limit;
+			while (remaining > 0) {
+				final int pageSize = Math.min(remaining, MAX_REVISIONS_LIMIT);
+				final List<Translation> page = new ArrayList<>(pageSize);
+				this.translationMapper.getRevisionsOfTranslation(entryId, language, cursor, pageSize, page::add);
+				for (Translation translation : page) {
+					generator.writeObject(translation);
+				}
+				if (page.size() < pageSize) {
+					break;
+				}
+				cursor = page.get(page.size() - 1).translationKey().revision();
+				remaining -= page.size();
+			}
+			generator.writeEndArray();
+		}
 	}
 
 	@GetMapping(path = "latest")
-	public ResponseEntity<Translation> getLatestTranslation(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language) {
-		final Translation translation = this.translationMapper.getLatestTranslation(entryId, language)
+	public ResponseEntity<Translation> getLatestTranslation(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language, WebRequest request, HttpServletResponse response) {
+		if (this.isNotModified(request, response, () -> this.translationService.getLatestTranslationWithoutContent(entryId, language))) {
+			return null;
+		}
+		final Translation translation = this.translationService.getLatestTranslation(entryId, language)
 				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "The requested translation is not found."));
-		return ResponseEntity.ok(translation);
+		return this.conditionalOk(translation);
 	}
 
 	@GetMapping(path = "languages")
@@ -62,19 +125,48 @@ public class TranslationController {
 		return ResponseEntity.ok(availableLanguage);
 	}
 
+	@GetMapping(path = "latest/content", produces = { "text/markdown", MediaType.TEXT_PLAIN_VALUE })
+	public void getLatestTranslationContent(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language, WebRequest request, HttpServletResponse response) throws IOException {
+		if (this.isNotModified(request, response, () -> this.translationService.getLatestTranslationWithoutContent(entryId, language))) {
+			return;
+		}
+		final boolean found = this.translationMapper.streamLatestContent(entryId, language, (translation, content) -> {
+			response.setContentType("text/markdown;charset=UTF-8");
+			response.setHeader(HttpHeaders.ETAG, etag(translation));
+			response.setDateHeader(HttpHeaders.LAST_MODIFIED, translation.createdAt().toEpochMilli());
+			response.setHeader(HttpHeaders.CACHE_CONTROL, this.props.getCacheControl());
+			content.transferTo(response.getWriter());
+		});
+		if (!found) {
+			throw new ResponseStatusException(NOT_FOUND, "The requested translation is not found.");
+		}
+	}
+
 	@GetMapping(path = "revisions/{revision}")
-	public ResponseEntity<Translation> getTranslation(@PathVariable("entryId") Long entryId, @PathVariable("revision") Integer revision, @RequestParam(name = "language", defaultValue = "en") String language) {
+	public ResponseEntity<Translation> getTranslation(@PathVariable("entryId") Long entryId, @PathVariable("revision") Integer revision, @RequestParam(name = "language", defaultValue = "en") String language, WebRequest request, HttpServletResponse response) {
 		final TranslationKey translationKey = new TranslationKey(entryId, language, revision);
+		if (this.isNotModified(request, response, () -> this.translationMapper.getTranslationWithoutContent(translationKey))) {
+			return null;
+		}
 		final Translation translation = this.translationMapper.getTranslation(translationKey)
 				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "The requested translation is not found."));
-		return ResponseEntity.ok(translation);
+		return this.conditionalOk(translation);
+	}
+
+	@GetMapping(path = "diff", produces = { "text/x-diff", MediaType.TEXT_PLAIN_VALUE })
+	public ResponseEntity<String> diffTranslation(@PathVariable("entryId") Long entryId, @RequestParam("from") Integer from, @RequestParam("to") Integer to, @RequestParam(name = "language", defaultValue = "en") String language) {
+		final String diff = this.translationService.diff(new TranslationKey(entryId, language, from), new TranslationKey(entryId, language, to))
+				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "The requested translation is not found."));
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType("text/x-diff;charset=UTF-8"))
+				.body(diff);
 	}
 
 	@PostMapping(path = "")
 	public ResponseEntity<?> postTranslation(@PathVariable("entryId") Long entryId, @RequestBody TranslationCreateRequest request) {
 		final ConstraintViolations violations = request.validate();
 		if (violations.isValid()) {
-			final Translation translation = this.addNewTranslation(entryId, request.language(), request.title(), request.content());
+			final Translation translation = this.translationService.addNewTranslation(entryId, request.language(), request.title(), request.content());
 			return ResponseEntity.status(CREATED).body(translation);
 		}
 		else {
@@ -88,9 +180,14 @@ public class TranslationController {
 	}
 
 	@PostMapping(path = "auto")
-	public ResponseEntity<?> postTranslationAutomatically(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language, UriComponentsBuilder builder) {
-		final Translated translated = this.entryTranslator.translate(entryId, language);
-		final Translation translation = this.addNewTranslation(translated.entryId(), translated.language(), translated.title(), translated.content());
+	public ResponseEntity<?> postTranslationAutomatically(@PathVariable("entryId") Long entryId, @RequestParam(name = "language", defaultValue = "en") String language, @RequestParam(name = "async", defaultValue = "false") boolean async, UriComponentsBuilder builder) {
+		if (async) {
+			final TranslationJob job = this.translationJobMapper.enqueue(entryId, language);
+			final URI location = builder.replacePath("translations/{entryId}/jobs/{jobId}")
+					.build(job.entryId(), job.jobId());
+			return ResponseEntity.accepted().location(location).body(job);
+		}
+		final Translation translation = this.autoTranslationService.translate(entryId, language);
 		final TranslationKey translationKey = translation.translationKey();
 		final URI location = builder.replacePath("translations/{entryId}/revisions/{revision}")
 				.queryParam("language", translationKey.language())
@@ -98,25 +195,49 @@ public class TranslationController {
 		return ResponseEntity.created(location).body(translation);
 	}
 
+	@GetMapping(path = "jobs/{jobId}")
+	public ResponseEntity<TranslationJob> getTranslationJob(@PathVariable("entryId") Long entryId, @PathVariable("jobId") UUID jobId) {
+		final TranslationJob job = this.translationJobMapper.findById(jobId)
+				.filter(x -> Objects.equals(x.entryId(), entryId))
+				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "The requested job is not found."));
+		return ResponseEntity.ok(job);
+	}
+
 	@DeleteMapping(path = "revisions/{revision}")
 	public ResponseEntity<?> deleteTranslation(@PathVariable("entryId") Long entryId, @PathVariable("revision") Integer revision, @RequestParam(name = "language", defaultValue = "en") String language) {
 		final TranslationKey translationKey = new TranslationKey(entryId, language, revision);
-		this.translationMapper.delete(translationKey);
+		this.translationService.deleteTranslation(translationKey);
 		return ResponseEntity.noContent().build();
 	}
 
-	Translation addNewTranslation(Long entryId, String language, String title, String content) {
-		final Integer nextRevision = this.translationMapper.getLatestTranslation(entryId, language)
-				.map(x -> {
-					if (Objects.equals(x.title(), title) && Objects.equals(x.content(), content)) {
-						throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "There is no change from the latest state.");
-					}
-					return x.translationKey().nextRevision();
-				})
-				.orElse(1);
-		final TranslationKey translationKey = new TranslationKey(entryId, language, nextRevision);
-		final Translation translation = new Translation(translationKey, title, content, Instant.now());
-		this.translationMapper.insert(translation);
-		return translation;
+	/**
+	 * Evaluates the conditional request headers against the translation without its content, so that a 304 response
+	 * never reads the content column.
+	 */
+	boolean isNotModified(WebRequest request, HttpServletResponse response, Supplier<Optional<Translation>> translationWithoutContent) {
+		if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+			return false;
+		}
+		final boolean notModified = translationWithoutContent.get()
+				.map(translation -> request.checkNotModified(etag(translation), translation.createdAt().toEpochMilli()))
+				.orElse(false);
+		if (notModified) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, this.props.getCacheControl());
+		}
+		return notModified;
+	}
+
+	ResponseEntity<Translation> conditionalOk(Translation translation) {
+		return ResponseEntity.ok()
+				.eTag(etag(translation))
+				.lastModified(translation.createdAt())
+				.header(HttpHeaders.CACHE_CONTROL, this.props.getCacheControl())
+				.body(translation);
+	}
+
+	// the revision number can be reused after the latest revision is deleted, so created_at is part of the tag
+	static String etag(Translation translation) {
+		final TranslationKey translationKey = translation.translationKey();
+		return "\"%d-%s-%d-%d\"".formatted(translationKey.entryId(), translationKey.language(), translationKey.revision(), translation.createdAt().toEpochMilli());
 	}
 }
@@ -0,0 +1,58 @@
+package am.ik.blog.translation.web;
+
+import java.util.List;
+
+import am.ik.blog.translation.search.SearchCursor;
+import am.ik.blog.translation.search.TranslationHit;
+import am.ik.blog.translation.search.TranslationSearchMapper;
+import am.ik.blog.translation.search.TranslationSearchResult;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+public class TranslationSearchController {
+	static final int MAX_SEARCH_LIMIT = 100;
+
+	private final TranslationSearchMapper translationSearchMapper;
+
+	private final TranslationWebProps props;
+
+	public TranslationSearchController(TranslationSearchMapper translationSearchMapper, TranslationWebProps props) {
+		this.translationSearchMapper = translationSearchMapper;
+		this.props = props;
+	}
+
+	/**
+	 * Searches the latest translations in the language, the best match first. Pass {@code next} of the response as
+	 * {@code after} to get the next page.
+	 */
+	@GetMapping(path = "translations/search")
+	public ResponseEntity<TranslationSearchResult> search(@RequestParam(name = "q") String query, @RequestParam(name = "language", defaultValue = "en") String language,
+			@RequestParam(name = "after", required = false) String after, @RequestParam(name = "limit", defaultValue = "20") int limit) {
+		if (query.isBlank()) {
+			throw new ResponseStatusException(BAD_REQUEST, "'q' must not be blank.");
+		}
+		if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+			throw new ResponseStatusException(BAD_REQUEST, "'limit' must be between 1 and %d.".formatted(MAX_SEARCH_LIMIT));
+		}
+		final SearchCursor cursor;
+		try {
+			cursor = (after == null) ? null : SearchCursor.parse(after);
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(BAD_REQUEST, "'after' must be 'next' of the previous page.", e);
+		}
+		final List<TranslationHit> hits = this.translationSearchMapper.search(language, query, cursor, limit);
+		final String next = (hits.size() < limit) ? null : SearchCursor.of(hits.get(hits.size() - 1)).format();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CACHE_CONTROL, this.props.getCacheControl())
+				.body(new TranslationSearchResult(hits, next));
+	}
+}
@@ -0,0 +1,19 @@
+package am.ik.blog.translation.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translation.web")
+@ConstructorBinding
+public class TranslationWebProps {
+	private final String cacheControl;
+
+	public TranslationWebProps(@DefaultValue("no-cache") String cacheControl) {
+		this.cacheControl = cacheControl;
+	}
+
+	public String getCacheControl() {
+		return cacheControl;
+	}
+}
@@ -1,5 +1,25 @@
 package am.ik.blog.translator;
 
+import java.util.List;
+
 public interface EntryTranslator {
 	Translated translate(Long entryId, String language);
+
+	/**
+	 * Translates the entry reporting the stages to the progress. Implementations that do not report progress just
+	 * translate the entry.
+	 */
+	default Translated translate(Long entryId, String language, TranslationProgress progress) {
+		return this.translate(entryId, language);
+	}
+
+	/**
+	 * Translates the entry into each of the languages. Implementations may fetch and prepare the entry once for all
+	 * languages.
+	 *
+	 * @return the translations in the order of the languages
+	 */
+	default List<Translated> translate(Long entryId, List<String> languages) {
+		return languages.stream().map(language -> this.translate(entryId, language)).toList();
+	}
 }
@@ -1,48 +1,253 @@
 package am.ik.blog.translator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import am.ik.blog.translator.engine.TranslationEngineRouter;
+import am.ik.blog.translator.http.MalformedResponseException;
+import am.ik.blog.translator.http.UpstreamUnavailableException;
+import am.ik.blog.translator.memory.BlockMemory;
+import am.ik.blog.translator.source.EntrySource;
+import am.ik.blog.translator.source.EntrySourceClient;
+import am.ik.blog.translator.text.MarkdownBlocks;
 import am.ik.blog.translator.text.TextTranslator;
-import com.fasterxml.jackson.databind.JsonNode;
+import am.ik.blog.translator.text.TranslatedText;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientResponseException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Component
 public class EntryTranslatorImpl implements EntryTranslator {
-	private final RestTemplate restTemplate;
+	private final EntrySourceClient entrySourceClient;
 
 	private final TextTranslator textTranslator;
 
+	private final BlockMemory blockMemory;
+
+	private final TranslationEngineRouter translationEngineRouter;
+
 	private final TranslatorProps props;
 
-	public EntryTranslatorImpl(RestTemplateBuilder restTemplateBuilder, TextTranslator textTranslator, TranslatorProps props) {
-		this.restTemplate = restTemplateBuilder
-				.build();
+	public EntryTranslatorImpl(EntrySourceClient entrySourceClient, TextTranslator textTranslator, BlockMemory blockMemory, TranslationEngineRouter translationEngineRouter, TranslatorProps props) {
+		this.entrySourceClient = entrySourceClient;
 		this.textTranslator = textTranslator;
+		this.blockMemory = blockMemory;
+		this.translationEngineRouter = translationEngineRouter;
 		this.props = props;
 	}
 
 	@Override
 	public Translated translate(Long entryId, String language) {
+		return this.translate(entryId, List.of(language), TranslationProgress.NONE).get(0);
+	}
+
+	@Override
+	public Translated translate(Long entryId, String language, TranslationProgress progress) {
+		return this.translate(entryId, List.of(language), progress).get(0);
+	}
+
+	@Override
+	public List<Translated> translate(Long entryId, List<String> languages) {
+		return this.translate(entryId, languages, TranslationProgress.NONE);
+	}
+
+	List<Translated> translate(Long entryId, List<String> languages, TranslationProgress progress) {
 		try {
-			final JsonNode entry = this.restTemplate.getForObject("%s/entries/{entryId}".formatted(this.props.getBlogApiUrl()), JsonNode.class, entryId);
-			final String title = entry.get("frontMatter").get("title").asText();
-			final String content = entry.get("content").asText();
-			final String translatedTitle = this.textTranslator.translate(title, "ja", language).trim();
-			final String translatedContent = this.textTranslator.translate("""
+			final EntrySource entry = this.entrySourceClient.get(entryId);
+			progress.entryFetched(entry);
+			final String source = """
 					> ⚠️ **注意**: この記事は自動的に翻訳されました。 <br>最終的には編集される可能性がありますが、現時点では誤った情報が含まれている可能性があることに注意してください。		
 					
 					<br>
 					
 					"""
-					+ content, "ja", language);
-			return new Translated(entryId, language, translatedTitle, translatedContent);
+					+ entry.content();
+			final Map<String, List<String>> translatedTitles = this.textTranslator.translateAll(List.of(entry.title()), "ja", languages);
+			final Map<String, TranslatedContent> translatedContents = this.props.isIncremental() ? this.translateIncrementally(entryId, source, languages, progress) : this.translateAll(source, languages, progress);
+			return languages.stream()
+					.map(language -> new Translated(entryId, language, translatedTitles.get(language).get(0).trim(), translatedContents.get(language).content(), translatedContents.get(language).blocks()))
+					.toList();
 		}
 		catch (RestClientResponseException e) {
 			throw new ResponseStatusException(HttpStatus.valueOf(e.getRawStatusCode()), e.getMessage(), e);
 		}
+		catch (UpstreamUnavailableException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+		}
+		catch (MalformedResponseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Translates the whole content without reusing any memorized blocks. When the progress is reported, the content is
+	 * split into blocks that are sent in chunks of as many characters as the engine translates concurrently, and the
+	 * leading blocks that are translated in every chunk are reported as they finish. Otherwise the content is sent at
+	 * once.
+	 */
+	Map<String, TranslatedContent> translateAll(String content, List<String> languages, TranslationProgress progress) {
+		final Map<String, TranslatedContent> translated = new HashMap<>();
+		if (progress == TranslationProgress.NONE) {
+			this.textTranslator.translateAll(List.of(content), "ja", languages)
+					.forEach((language, texts) -> translated.put(language, new TranslatedContent(texts.get(0), null)));
+			return translated;
+		}
+		final List<String> blocks = MarkdownBlocks.split(content);
+		final List<String> hashes = blocks.stream().map(BlockMemory::hash).toList();
+		final Map<String, String> distinctBlocks = new LinkedHashMap<>();
+		for (int i = 0; i < blocks.size(); i++) {
+			distinctBlocks.putIfAbsent(hashes.get(i), blocks.get(i));
+		}
+		final List<Map<String, String>> chunks = this.partition(distinctBlocks);
+		progress.segmentsExtracted(blocks.size(), distinctBlocks.size(), chunks.size());
+		final List<String> distinctLanguages = languages.stream().distinct().toList();
+		final Map<String, Map<String, String>> translations = new HashMap<>();
+		final Map<String, Integer> reported = new HashMap<>();
+		distinctLanguages.forEach(language -> {
+			translations.put(language, new HashMap<>());
+			reported.put(language, 0);
+		});
+		for (Map<String, String> chunk : chunks) {
+			final Map<String, List<String>> translatedChunk = this.textTranslator.translateAll(new ArrayList<>(chunk.values()), "ja", distinctLanguages);
+			for (String language : distinctLanguages) {
+				final Map<String, String> translatedBlocks = translations.get(language);
+				final List<String> texts = translatedChunk.get(language);
+				int i = 0;
+				for (String hash : chunk.keySet()) {
+					translatedBlocks.put(hash, texts.get(i++));
+				}
+				reported.put(language, this.reportCompleted(language, hashes, translatedBlocks, reported.get(language), progress));
+			}
+		}
+		distinctLanguages.forEach(language -> translated.put(language,
+				new TranslatedContent(MarkdownBlocks.join(hashes.stream().map(translations.get(language)::get).toList()), null)));
+		return translated;
+	}
+
+	Map<String, TranslatedContent> translateIncrementally(Long entryId, String content, List<String> languages) {
+		return this.translateIncrementally(entryId, content, languages, TranslationProgress.NONE);
+	}
+
+	/**
+	 * Translates only the blocks that have changed since the latest revision of the translation, if it was translated
+	 * automatically with the same engine. The other blocks are reused from that revision. The blocks missing in any of
+	 * the languages are translated into all languages that miss some blocks in one pass. The blocks are returned to be
+	 * memorized once the translation is stored, except the blocks translated by a fallback engine whose results cannot
+	 * be memorized, so that they are translated again next time.
+	 * <p>
+	 * When the progress is reported, the missing blocks are sent in chunks of as many characters as the engine
+	 * translates concurrently, and the leading blocks that are translated in every chunk are reported as they finish.
+	 * Otherwise they are sent at once so that the engine batches are as large as possible.
+	 */
+	Map<String, TranslatedContent> translateIncrementally(Long entryId, String content, List<String> languages, TranslationProgress progress) {
+		final List<String> blocks = MarkdownBlocks.split(content);
+		final List<String> hashes = blocks.stream().map(BlockMemory::hash).toList();
+		final Map<String, String> engines = new LinkedHashMap<>();
+		final Map<String, Map<String, String>> translations = new HashMap<>();
+		final Map<String, Set<String>> unmemorizable = new HashMap<>();
+		final Map<String, String> misses = new LinkedHashMap<>();
+		final List<String> missingLanguages = new ArrayList<>();
+		for (String language : languages) {
+			if (engines.containsKey(language)) {
+				continue;
+			}
+			final String engine = this.translationEngineRouter.route(language).name();
+			final Map<String, String> memorized = new HashMap<>(this.blockMemory.lookup(entryId, language, engine));
+			engines.put(language, engine);
+			translations.put(language, memorized);
+			unmemorizable.put(language, new HashSet<>());
+			boolean missing = false;
+			for (int i = 0; i < blocks.size(); i++) {
+				if (!memorized.containsKey(hashes.get(i))) {
+					misses.putIfAbsent(hashes.get(i), blocks.get(i));
+					missing = true;
+				}
+			}
+			if (missing) {
+				missingLanguages.add(language);
+			}
+		}
+		final List<Map<String, String>> chunks = (progress == TranslationProgress.NONE && !misses.isEmpty()) ? List.of(misses) : this.partition(misses);
+		progress.segmentsExtracted(blocks.size(), misses.size(), chunks.size());
+		final Map<String, Integer> reported = new HashMap<>();
+		engines.keySet().forEach(language -> reported.put(language, this.reportCompleted(language, hashes, translations.get(language), 0, progress)));
+		for (Map<String, String> chunk : chunks) {
+			final Map<String, List<TranslatedText>> translated = this.textTranslator.translateAllTracked(new ArrayList<>(chunk.values()), "ja", missingLanguages);
+			for (String language : missingLanguages) {
+				final Map<String, String> memorized = translations.get(language);
+				final List<TranslatedText> translatedBlocks = translated.get(language);
+				int i = 0;
+				for (String hash : chunk.keySet()) {
+					final TranslatedText translatedBlock = translatedBlocks.get(i++);
+					if (memorized.putIfAbsent(hash, translatedBlock.text()) == null && !translatedBlock.memorizable()) {
+						unmemorizable.get(language).add(hash);
+					}
+				}
+				reported.put(language, this.reportCompleted(language, hashes, memorized, reported.get(language), progress));
+			}
+		}
+		final Map<String, TranslatedContent> translated = new HashMap<>();
+		engines.forEach((language, engine) -> {
+			final List<String> translatedBlocks = hashes.stream().map(translations.get(language)::get).toList();
+			final List<String> memorizableHashes = new ArrayList<>(hashes.size());
+			final List<String> memorizableBlocks = new ArrayList<>(hashes.size());
+			for (int i = 0; i < hashes.size(); i++) {
+				if (!unmemorizable.get(language).contains(hashes.get(i))) {
+					memorizableHashes.add(hashes.get(i));
+					memorizableBlocks.add(translatedBlocks.get(i));
+				}
+			}
+			translated.put(language, new TranslatedContent(MarkdownBlocks.join(translatedBlocks), new TranslatedBlocks(engine, memorizableHashes, memorizableBlocks)));
+		});
+		return translated;
+	}
+
+	List<Map<String, String>> partition(Map<String, String> blocks) {
+		final int maxCharacters = this.props.getGoogleApiBatchMaxCharacters() * this.props.getGoogleApiParallelism();
+		final List<Map<String, String>> chunks = new ArrayList<>();
+		Map<String, String> chunk = new LinkedHashMap<>();
+		int characters = 0;
+		for (Map.Entry<String, String> block : blocks.entrySet()) {
+			if (!chunk.isEmpty() && characters + block.getValue().length() > maxCharacters) {
+				chunks.add(chunk);
+				chunk = new LinkedHashMap<>();
+				characters = 0;
+			}
+			chunk.put(block.getKey(), block.getValue());
+			characters += block.getValue().length();
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	/**
+	 * Reports the blocks from {@code start} that are followed only by translated blocks up to the first missing one.
+	 *
+	 * @return the index of the first block not reported yet
+	 */
+	int reportCompleted(String language, List<String> hashes, Map<String, String> translations, int start, TranslationProgress progress) {
+		int end = start;
+		while (end < hashes.size() && translations.containsKey(hashes.get(end))) {
+			end++;
+		}
+		if (end > start && progress != TranslationProgress.NONE) {
+			final List<String> translatedBlocks = hashes.subList(start, end).stream().map(translations::get).toList();
+			// join ends with a line break, another one separates this chunk from the next one
+			final String content = MarkdownBlocks.join(translatedBlocks) + ((end < hashes.size()) ? "\n" : "");
+			progress.chunkTranslated(new TranslatedChunk(language, start, end, hashes.size(), content));
+		}
+		return end;
+	}
+
+	record TranslatedContent(String content, TranslatedBlocks blocks) {
 	}
 }
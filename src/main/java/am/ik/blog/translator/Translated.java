@@ -1,7 +1,15 @@
 package am.ik.blog.translator;
 
+/**
+ * @param blocks the blocks to memorize once the translation is stored, or {@code null} if it was not translated
+ * incrementally
+ */
 public record Translated(Long entryId,
 						 String language,
 						 String title,
-						 String content) {
+						 String content,
+						 TranslatedBlocks blocks) {
+	public Translated(Long entryId, String language, String title, String content) {
+		this(entryId, language, title, content, null);
+	}
 }
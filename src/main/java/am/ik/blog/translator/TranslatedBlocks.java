@@ -0,0 +1,12 @@
+package am.ik.blog.translator;
+
+import java.util.List;
+
+/**
+ * The hashes of the blocks of the source translated incrementally and their translations by the engine, which are
+ * memorized once the translation is stored as a revision. The blocks that cannot be memorized are left out.
+ */
+public record TranslatedBlocks(String engine,
+							   List<String> hashes,
+							   List<String> translated) {
+}
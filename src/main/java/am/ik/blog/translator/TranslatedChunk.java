@@ -0,0 +1,12 @@
+package am.ik.blog.translator;
+
+/**
+ * The translated blocks {@code [start, end)} of the content in a language. Concatenating the contents of the chunks of
+ * a language in the order they are reported gives the translated content.
+ */
+public record TranslatedChunk(String language,
+							  int start,
+							  int end,
+							  int blocks,
+							  String content) {
+}
@@ -0,0 +1,26 @@
+package am.ik.blog.translator;
+
+import am.ik.blog.translator.source.EntrySource;
+
+/**
+ * Receives the stages of the translation of an entry as they happen. The callbacks are invoked on the translating
+ * thread.
+ */
+public interface TranslationProgress {
+	TranslationProgress NONE = new TranslationProgress() {
+	};
+
+	default void entryFetched(EntrySource entry) {
+	}
+
+	/**
+	 * @param blocks the number of blocks of the content
+	 * @param translatingBlocks the number of blocks sent to the engine, the others are reused from the last translation
+	 * @param chunks the number of chunks the translating blocks are sent in
+	 */
+	default void segmentsExtracted(int blocks, int translatingBlocks, int chunks) {
+	}
+
+	default void chunkTranslated(TranslatedChunk chunk) {
+	}
+}
@@ -1,7 +1,10 @@
 package am.ik.blog.translator;
 
+import am.ik.blog.translator.http.UpstreamProps;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "translator")
 @ConstructorBinding
@@ -12,10 +15,40 @@ public class TranslatorProps {
 
 	private final String googleApiKey;
 
-	public TranslatorProps(String blogApiUrl, String googleApiUrl, String googleApiKey) {
+	private final int memoryCacheSize;
+
+	private final int blogApiConcurrency;
+
+	private final int googleApiConcurrency;
+
+	private final int googleApiBatchMaxSegments;
+
+	private final int googleApiBatchMaxCharacters;
+
+	private final int googleApiParallelism;
+
+	private final boolean incremental;
+
+	private final UpstreamProps blogApi;
+
+	private final UpstreamProps googleApi;
+
+	public TranslatorProps(String blogApiUrl, String googleApiUrl, String googleApiKey, @DefaultValue("10000") int memoryCacheSize,
+			@DefaultValue("4") int blogApiConcurrency, @DefaultValue("4") int googleApiConcurrency,
+			@DefaultValue("128") int googleApiBatchMaxSegments, @DefaultValue("5000") int googleApiBatchMaxCharacters, @DefaultValue("4") int googleApiParallelism,
+			@DefaultValue("false") boolean incremental, @DefaultValue UpstreamProps blogApi, @DefaultValue UpstreamProps googleApi) {
 		this.blogApiUrl = blogApiUrl;
 		this.googleApiUrl = googleApiUrl;
 		this.googleApiKey = googleApiKey;
+		this.memoryCacheSize = memoryCacheSize;
+		this.blogApiConcurrency = blogApiConcurrency;
+		this.googleApiConcurrency = googleApiConcurrency;
+		this.googleApiBatchMaxSegments = googleApiBatchMaxSegments;
+		this.googleApiBatchMaxCharacters = googleApiBatchMaxCharacters;
+		this.googleApiParallelism = googleApiParallelism;
+		this.incremental = incremental;
+		this.blogApi = blogApi;
+		this.googleApi = googleApi;
 	}
 
 	public String getBlogApiUrl() {
@@ -29,4 +62,51 @@ public class TranslatorProps {
 	public String getGoogleApiKey() {
 		return googleApiKey;
 	}
+
+	public int getMemoryCacheSize() {
+		return memoryCacheSize;
+	}
+
+	public int getBlogApiConcurrency() {
+		return blogApiConcurrency;
+	}
+
+	public int getGoogleApiConcurrency() {
+		return googleApiConcurrency;
+	}
+
+	public int getGoogleApiBatchMaxSegments() {
+		return googleApiBatchMaxSegments;
+	}
+
+	public int getGoogleApiBatchMaxCharacters() {
+		return googleApiBatchMaxCharacters;
+	}
+
+	public int getGoogleApiParallelism() {
+		return googleApiParallelism;
+	}
+
+	/**
+	 * Whether automatic translations split the source into markdown blocks and translate only the blocks that have
+	 * changed since the latest revision. Each block is translated as a separate document.
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Settings of the http client for the blog api. The concurrency is limited by {@code blogApiConcurrency}.
+	 */
+	public UpstreamProps getBlogApi() {
+		return blogApi;
+	}
+
+	/**
+	 * Settings of the http client for the Google Translation api. The concurrency is limited by
+	 * {@code googleApiConcurrency}.
+	 */
+	public UpstreamProps getGoogleApi() {
+		return googleApi;
+	}
 }
@@ -0,0 +1,69 @@
+package am.ik.blog.translator.engine;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.http.MalformedResponseException;
+import am.ik.blog.translator.http.UpstreamClient;
+import am.ik.blog.translator.quota.CharacterQuota;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Component
+public class GoogleTranslationEngine implements TranslationEngine {
+	private final UpstreamClient googleApiClient;
+
+	private final CharacterQuota characterQuota;
+
+	private final TranslatorProps props;
+
+	public GoogleTranslationEngine(RestTemplateBuilder restTemplateBuilder, CharacterQuota characterQuota, TranslatorProps props) {
+		this.googleApiClient = new UpstreamClient("google-api", restTemplateBuilder, props.getGoogleApi(), props.getGoogleApiConcurrency());
+		this.characterQuota = characterQuota;
+		this.props = props;
+	}
+
+	@Override
+	public String name() {
+		return "google";
+	}
+
+	@Override
+	public List<String> translate(List<String> htmls, String source, String target) {
+		final URI uri = UriComponentsBuilder.fromHttpUrl(this.props.getGoogleApiUrl() + "/language/translate/v2")
+				.queryParam("key", this.props.getGoogleApiKey())
+				.build()
+				.encode()
+				.toUri();
+		final Map<Object, Object> requestBody = Map.of(
+				"q", htmls,
+				"source", source,
+				"target", target,
+				"format", "html"
+		);
+		// Google counts the characters of the html including the markup, and every retried attempt sends them again
+		final long characters = htmls.stream().mapToLong(String::length).sum();
+		final JsonNode response = this.googleApiClient.execute(() -> this.characterQuota.acquire(characters),
+				restTemplate -> restTemplate.postForObject(uri, requestBody, JsonNode.class));
+		// the translations are matched with the htmls by their index, so a short or long answer must not be used at all
+		final JsonNode translations = (response == null) ? null : response.at("/data/translations");
+		if (translations == null || !translations.isArray() || translations.size() != htmls.size()) {
+			throw new MalformedResponseException("google-api answered %d translations for %d texts.".formatted((translations == null) ? 0 : translations.size(), htmls.size()));
+		}
+		final List<String> translated = new ArrayList<>(htmls.size());
+		for (JsonNode translation : translations) {
+			final JsonNode translatedText = translation.get("translatedText");
+			if (translatedText == null || !translatedText.isTextual()) {
+				throw new MalformedResponseException("google-api answered a translation without translatedText.");
+			}
+			translated.add(translatedText.asText());
+		}
+		return translated;
+	}
+}
@@ -0,0 +1,66 @@
+package am.ik.blog.translator.engine;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * A deterministic engine that works without network. Lowercase latin letters outside of tags, entities and code are
+ * replaced with accented ones so that untranslated text stands out, e.g. {@code Hello} becomes {@code Héļļó}. Uppercase
+ * letters are kept as is so that the markers such as {@code ZZZZBR} survive.
+ */
+@Component
+public class PseudoTranslationEngine implements TranslationEngine {
+	private static final String ACCENTED = "áƀçðéƒĝĥíĵķļɱñóþǫŕšţúṽŵẋýž";
+
+	@Override
+	public String name() {
+		return "pseudo";
+	}
+
+	@Override
+	public List<String> translate(List<String> htmls, String source, String target) {
+		return htmls.stream().map(PseudoTranslationEngine::pseudoLocalize).toList();
+	}
+
+	@Override
+	public boolean isMemorizable() {
+		return false;
+	}
+
+	static String pseudoLocalize(String html) {
+		final StringBuilder builder = new StringBuilder(html.length());
+		int codeDepth = 0;
+		int i = 0;
+		while (i < html.length()) {
+			final char c = html.charAt(i);
+			if (c == '<') {
+				final int end = html.indexOf('>', i);
+				final String tag = html.substring(i, (end < 0) ? html.length() : end + 1);
+				if (tag.startsWith("<code") || tag.startsWith("<pre")) {
+					codeDepth++;
+				}
+				else if (tag.startsWith("</code") || tag.startsWith("</pre")) {
+					codeDepth = Math.max(0, codeDepth - 1);
+				}
+				builder.append(tag);
+				i += tag.length();
+			}
+			else if (c == '&') {
+				final int end = html.indexOf(';', i);
+				final int length = (end < 0 || end - i > 10) ? 1 : end - i + 1;
+				builder.append(html, i, i + length);
+				i += length;
+			}
+			else {
+				builder.append((codeDepth == 0) ? accent(c) : c);
+				i++;
+			}
+		}
+		return builder.toString();
+	}
+
+	static char accent(char c) {
+		return (c >= 'a' && c <= 'z') ? ACCENTED.charAt(c - 'a') : c;
+	}
+}
@@ -0,0 +1,19 @@
+package am.ik.blog.translator.engine;
+
+import java.util.List;
+
+/**
+ * Translates a batch of html fragments. The results must be returned in the same order as the given fragments.
+ */
+public interface TranslationEngine {
+	String name();
+
+	List<String> translate(List<String> htmls, String source, String target);
+
+	/**
+	 * Whether the results can be stored in the translation memory
+	 */
+	default boolean isMemorizable() {
+		return true;
+	}
+}
@@ -0,0 +1,38 @@
+package am.ik.blog.translator.engine;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translator.engine")
+@ConstructorBinding
+public class TranslationEngineProps {
+	private final String primary;
+
+	private final Map<String, String> routes;
+
+	private final String fallback;
+
+	public TranslationEngineProps(@DefaultValue("google") String primary, Map<String, String> routes, String fallback) {
+		this.primary = primary;
+		this.routes = (routes == null) ? Map.of() : Map.copyOf(routes);
+		this.fallback = fallback;
+	}
+
+	public String getPrimary() {
+		return primary;
+	}
+
+	/**
+	 * Engine names keyed by the target language
+	 */
+	public Map<String, String> getRoutes() {
+		return routes;
+	}
+
+	public String getFallback() {
+		return fallback;
+	}
+}
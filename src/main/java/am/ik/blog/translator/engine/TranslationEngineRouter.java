@@ -0,0 +1,72 @@
+package am.ik.blog.translator.engine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import am.ik.blog.translator.quota.QuotaExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Routes a batch to the engine configured for the target language, and retries it with the fallback engine when the
+ * engine times out or responds with 5xx. An exhausted quota is not retried with the fallback engine.
+ */
+@Component
+public class TranslationEngineRouter {
+	private static final Logger log = LoggerFactory.getLogger(TranslationEngineRouter.class);
+
+	private final Map<String, TranslationEngine> engines;
+
+	private final TranslationEngineProps props;
+
+	public TranslationEngineRouter(List<TranslationEngine> engines, TranslationEngineProps props) {
+		this.engines = engines.stream().collect(Collectors.toUnmodifiableMap(TranslationEngine::name, Function.identity()));
+		this.props = props;
+		this.engine(props.getPrimary());
+		props.getRoutes().values().forEach(this::engine);
+		if (StringUtils.hasText(props.getFallback())) {
+			this.engine(props.getFallback());
+		}
+	}
+
+	public Routed translate(List<String> htmls, String source, String target) {
+		final TranslationEngine engine = this.route(target);
+		try {
+			return new Routed(engine.translate(htmls, source, target), engine);
+		}
+		catch (QuotaExceededException e) {
+			// another engine would hide that the quota is exhausted
+			throw e;
+		}
+		catch (ResourceAccessException | HttpServerErrorException e) {
+			if (!StringUtils.hasText(this.props.getFallback()) || engine.name().equals(this.props.getFallback())) {
+				throw e;
+			}
+			final TranslationEngine fallback = this.engine(this.props.getFallback());
+			log.warn("Engine '{}' failed to translate {} segments ({} -> {}). Falling back to '{}'.", engine.name(), htmls.size(), source, target, fallback.name(), e);
+			return new Routed(fallback.translate(htmls, source, target), fallback);
+		}
+	}
+
+	public TranslationEngine route(String target) {
+		return this.engine(this.props.getRoutes().getOrDefault(target, this.props.getPrimary()));
+	}
+
+	TranslationEngine engine(String name) {
+		final TranslationEngine engine = this.engines.get(name);
+		if (engine == null) {
+			throw new IllegalStateException("Unknown translation engine '%s'. Available engines are %s.".formatted(name, this.engines.keySet()));
+		}
+		return engine;
+	}
+
+	public record Routed(List<String> translated, TranslationEngine engine) {
+	}
+}
@@ -0,0 +1,17 @@
+package am.ik.blog.translator.http;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when the upstream answered with a body that cannot be read, which fails the same way however many times the
+ * call is retried. It is neither retried nor counted by the circuit breaker.
+ */
+public class MalformedResponseException extends RestClientException {
+	public MalformedResponseException(String msg) {
+		super(msg);
+	}
+
+	public MalformedResponseException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
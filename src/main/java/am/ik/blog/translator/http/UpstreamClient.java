@@ -0,0 +1,119 @@
+package am.ik.blog.translator.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * A {@link RestTemplate} for an upstream api with its own connection pool, timeouts, retries, circuit breaker and
+ * concurrency limit, so that a slow or failing upstream does not affect the others.
+ * <p>
+ * Calls are retried with a jittered exponential backoff on I/O errors, 429 and 5xx. The same errors are counted by the
+ * circuit breaker, while other 4xx and {@link MalformedResponseException}s are not. A permit of the concurrency limit is
+ * held only during each attempt.
+ */
+public class UpstreamClient {
+	private static final Logger log = LoggerFactory.getLogger(UpstreamClient.class);
+
+	private final String name;
+
+	private final RestTemplate restTemplate;
+
+	private final Retry retry;
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final Bulkhead bulkhead;
+
+	public UpstreamClient(String name, RestTemplateBuilder restTemplateBuilder, UpstreamProps props, int maxConcurrentCalls) {
+		this.name = name;
+		// keep-alive connections are pooled per upstream and HTTP/2 is negotiated over TLS when the upstream supports it
+		final OkHttpClient httpClient = new OkHttpClient.Builder()
+				.connectionPool(new ConnectionPool(props.getMaxIdleConnections(), props.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+				.connectTimeout(props.getConnectTimeout())
+				.readTimeout(props.getReadTimeout())
+				.build();
+		this.restTemplate = restTemplateBuilder
+				.requestFactory(() -> new OkHttp3ClientHttpRequestFactory(httpClient))
+				.build();
+		this.retry = Retry.of(name, RetryConfig.custom()
+				.maxAttempts(props.getMaxAttempts())
+				.intervalFunction(IntervalFunction.ofExponentialRandomBackoff(props.getRetryBackoff(), 2.0, 0.5))
+				.retryOnException(UpstreamClient::isUpstreamFailure)
+				.build());
+		this.circuitBreaker = CircuitBreaker.of(name, CircuitBreakerConfig.custom()
+				.failureRateThreshold(props.getFailureRateThreshold())
+				.slidingWindowSize(props.getSlidingWindowSize())
+				.minimumNumberOfCalls(props.getSlidingWindowSize())
+				.waitDurationInOpenState(props.getOpenStateDuration())
+				.recordException(UpstreamClient::isUpstreamFailure)
+				.ignoreException(MalformedResponseException.class::isInstance)
+				.build());
+		this.bulkhead = Bulkhead.of(name, BulkheadConfig.custom()
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.maxWaitDuration(props.getBulkheadMaxWait())
+				.build());
+		this.retry.getEventPublisher().onRetry(event -> log.info("Retry calling {} ({}): {}", name, event.getNumberOfRetryAttempts(), event.getLastThrowable().toString()));
+		this.circuitBreaker.getEventPublisher().onStateTransition(event -> log.warn("Circuit breaker for {}: {}", name, event.getStateTransition()));
+	}
+
+	public <T> T execute(Function<RestTemplate, T> call) {
+		return this.execute(() -> {
+		}, call);
+	}
+
+	/**
+	 * Calls the upstream with an action run before each attempt, e.g. to charge a quota for every request actually sent.
+	 * The action runs outside of the circuit breaker and the concurrency limit, and its exceptions are not retried unless
+	 * they are upstream failures.
+	 */
+	public <T> T execute(Runnable beforeEachAttempt, Function<RestTemplate, T> call) {
+		final Supplier<T> attempt = CircuitBreaker.decorateSupplier(this.circuitBreaker,
+				Bulkhead.decorateSupplier(this.bulkhead, () -> call.apply(this.restTemplate)));
+		final Supplier<T> decorated = Retry.decorateSupplier(this.retry, () -> {
+			beforeEachAttempt.run();
+			return attempt.get();
+		});
+		try {
+			return decorated.get();
+		}
+		catch (CallNotPermittedException e) {
+			throw new UpstreamUnavailableException("%s is unavailable because the circuit breaker is open.".formatted(this.name), e);
+		}
+		catch (BulkheadFullException e) {
+			throw new UpstreamUnavailableException("%s is unavailable because of too many concurrent calls.".formatted(this.name), e);
+		}
+	}
+
+	public CircuitBreaker.State getState() {
+		return this.circuitBreaker.getState();
+	}
+
+	static boolean isUpstreamFailure(Throwable e) {
+		return (e instanceof ResourceAccessException && !(e instanceof UpstreamUnavailableException))
+				|| e instanceof HttpServerErrorException
+				|| (e instanceof HttpClientErrorException clientError && clientError.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS);
+	}
+}
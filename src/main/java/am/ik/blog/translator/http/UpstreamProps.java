@@ -0,0 +1,99 @@
+package am.ik.blog.translator.http;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the http client for an upstream api
+ */
+public class UpstreamProps {
+	private final Duration connectTimeout;
+
+	private final Duration readTimeout;
+
+	private final int maxIdleConnections;
+
+	private final Duration keepAlive;
+
+	private final int maxAttempts;
+
+	private final Duration retryBackoff;
+
+	private final float failureRateThreshold;
+
+	private final int slidingWindowSize;
+
+	private final Duration openStateDuration;
+
+	private final Duration bulkheadMaxWait;
+
+	public UpstreamProps(@DefaultValue("5s") Duration connectTimeout, @DefaultValue("30s") Duration readTimeout,
+			@DefaultValue("8") int maxIdleConnections, @DefaultValue("5m") Duration keepAlive,
+			@DefaultValue("3") int maxAttempts, @DefaultValue("500ms") Duration retryBackoff,
+			@DefaultValue("50") float failureRateThreshold, @DefaultValue("20") int slidingWindowSize, @DefaultValue("30s") Duration openStateDuration,
+			@DefaultValue("30s") Duration bulkheadMaxWait) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.maxIdleConnections = maxIdleConnections;
+		this.keepAlive = keepAlive;
+		this.maxAttempts = maxAttempts;
+		this.retryBackoff = retryBackoff;
+		this.failureRateThreshold = failureRateThreshold;
+		this.slidingWindowSize = slidingWindowSize;
+		this.openStateDuration = openStateDuration;
+		this.bulkheadMaxWait = bulkheadMaxWait;
+	}
+
+	public Duration getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public Duration getReadTimeout() {
+		return readTimeout;
+	}
+
+	public int getMaxIdleConnections() {
+		return maxIdleConnections;
+	}
+
+	public Duration getKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * The maximum number of attempts including the first call
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * The initial wait before a retry, which is doubled on every retry and randomized by 50%
+	 */
+	public Duration getRetryBackoff() {
+		return retryBackoff;
+	}
+
+	/**
+	 * The failure rate in percentage of the last {@code slidingWindowSize} calls to open the circuit breaker
+	 */
+	public float getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	public int getSlidingWindowSize() {
+		return slidingWindowSize;
+	}
+
+	public Duration getOpenStateDuration() {
+		return openStateDuration;
+	}
+
+	/**
+	 * How long a call waits for a permit when the concurrency limit is reached
+	 */
+	public Duration getBulkheadMaxWait() {
+		return bulkheadMaxWait;
+	}
+}
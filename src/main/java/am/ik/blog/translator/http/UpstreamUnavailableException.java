@@ -0,0 +1,13 @@
+package am.ik.blog.translator.http;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Thrown without calling the upstream when its circuit breaker is open or its concurrency limit is reached
+ */
+public class UpstreamUnavailableException extends ResourceAccessException {
+	public UpstreamUnavailableException(String msg, Throwable cause) {
+		super(msg);
+		initCause(cause);
+	}
+}
@@ -0,0 +1,67 @@
+package am.ik.blog.translator.memory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Remembers the blocks of the source of the automatic translation stored as the latest revision of each entry and their
+ * translations, so that the next translation only needs to translate the blocks that have changed since that revision.
+ */
+@Repository
+public class BlockMemory {
+	private final JdbcTemplate jdbcTemplate;
+
+	public BlockMemory(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public static String hash(String block) {
+		return Segment.sha256(block);
+	}
+
+	/**
+	 * @return the translations of the blocks by their hashes that were translated with the given engine, or empty if they
+	 * are not the blocks of the latest revision, e.g. as the translation was edited since then
+	 */
+	public Map<String, String> lookup(Long entryId, String language, String engine) {
+		final Map<String, String> found = new HashMap<>();
+		this.jdbcTemplate.query("""
+				SELECT b.hash, b.translated FROM translation_block AS b WHERE b.entry_id = ? AND b.language = ? AND b.engine = ?
+				  AND b.revision = (SELECT MAX(t.revision) FROM translation AS t WHERE t.entry_id = b.entry_id AND t.language = b.language)
+				""", rs -> {
+			found.put(rs.getString("hash"), rs.getString("translated"));
+		}, entryId, language, engine);
+		return found;
+	}
+
+	/**
+	 * Replaces the blocks of the entry with the given hashes of the blocks and their translations, which are stored as
+	 * the given revision. The blocks of a newer revision are kept. It runs in a transaction of its own as it is called
+	 * once the transaction storing the revision has committed.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void store(Long entryId, String language, int revision, String engine, List<String> hashes, List<String> translated) {
+		// serializes the writers of the blocks of the same entry and language
+		this.jdbcTemplate.queryForRowSet("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))", "translation_block/%d/%s".formatted(entryId, language));
+		final Integer newer = this.jdbcTemplate.queryForObject("""
+				SELECT COUNT(*) FROM translation_block WHERE entry_id = ? AND language = ? AND revision > ?
+				""", Integer.class, entryId, language, revision);
+		if (newer != null && newer > 0) {
+			return;
+		}
+		this.jdbcTemplate.update("DELETE FROM translation_block WHERE entry_id = ? AND language = ?", entryId, language);
+		final List<Object[]> batchArgs = IntStream.range(0, hashes.size())
+				.mapToObj(i -> new Object[] { entryId, language, i, hashes.get(i), engine, translated.get(i), revision })
+				.toList();
+		this.jdbcTemplate.batchUpdate("""
+				INSERT INTO translation_block(entry_id, language, position, hash, engine, translated, revision) VALUES (?, ?, ?, ?, ?, ?, ?)
+				""", batchArgs);
+	}
+}
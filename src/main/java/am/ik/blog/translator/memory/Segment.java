@@ -0,0 +1,62 @@
+package am.ik.blog.translator.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A translating span of a document normalized so that the same text can be memorized regardless of its position.
+ * Flexmark numbers the placeholders ({@code _1_}, {@code _2_}, ...) across the whole document, so they are renumbered
+ * from 1 within the segment and restored after translation.
+ */
+public record Segment(String text, String hash, List<String> placeholders) {
+	private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("_(\\d+)_");
+
+	public static Segment of(String span) {
+		final List<String> placeholders = new ArrayList<>();
+		final Matcher matcher = PLACEHOLDER_PATTERN.matcher(span.strip());
+		final StringBuilder text = new StringBuilder();
+		while (matcher.find()) {
+			final String placeholder = matcher.group();
+			int index = placeholders.indexOf(placeholder);
+			if (index < 0) {
+				placeholders.add(placeholder);
+				index = placeholders.size() - 1;
+			}
+			matcher.appendReplacement(text, "_" + (index + 1) + "_");
+		}
+		matcher.appendTail(text);
+		return new Segment(text.toString(), sha256(text.toString()), List.copyOf(placeholders));
+	}
+
+	public boolean isBlank() {
+		return this.text.isBlank();
+	}
+
+	public String restore(String translated) {
+		final Matcher matcher = PLACEHOLDER_PATTERN.matcher(translated);
+		final StringBuilder restored = new StringBuilder();
+		while (matcher.find()) {
+			final int index = Integer.parseInt(matcher.group(1)) - 1;
+			final String placeholder = (index < this.placeholders.size()) ? this.placeholders.get(index) : matcher.group();
+			matcher.appendReplacement(restored, Matcher.quoteReplacement(placeholder));
+		}
+		matcher.appendTail(restored);
+		return restored.toString();
+	}
+
+	static String sha256(String text) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
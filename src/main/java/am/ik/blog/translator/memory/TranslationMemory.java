@@ -0,0 +1,77 @@
+package am.ik.blog.translator.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translator.TranslatorProps;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class TranslationMemory {
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private final Cache<Key, String> cache;
+
+	public TranslationMemory(JdbcTemplate jdbcTemplate, TranslatorProps props) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(props.getMemoryCacheSize())
+				.build();
+	}
+
+	public Map<String, String> lookup(String source, String target, Collection<String> hashes) {
+		final Map<String, String> found = new HashMap<>();
+		final List<String> misses = new ArrayList<>();
+		for (String hash : hashes) {
+			final String translated = this.cache.getIfPresent(new Key(source, target, hash));
+			if (translated != null) {
+				found.put(hash, translated);
+			}
+			else {
+				misses.add(hash);
+			}
+		}
+		if (!misses.isEmpty()) {
+			final MapSqlParameterSource params = new MapSqlParameterSource()
+					.addValue("source", source)
+					.addValue("target", target)
+					.addValue("hashes", misses);
+			this.namedParameterJdbcTemplate.query("""
+					SELECT hash, translated FROM translation_memory WHERE source = :source AND target = :target AND hash IN (:hashes)
+					""", params, rs -> {
+				final String hash = rs.getString("hash");
+				final String translated = rs.getString("translated");
+				this.cache.put(new Key(source, target, hash), translated);
+				found.put(hash, translated);
+			});
+		}
+		return found;
+	}
+
+	@Transactional
+	public void store(String source, String target, Map<String, String> translations) {
+		final List<Object[]> batchArgs = translations.entrySet().stream()
+				.map(e -> new Object[] { source, target, e.getKey(), e.getValue() })
+				.toList();
+		this.jdbcTemplate.batchUpdate("""
+				INSERT INTO translation_memory(source, target, hash, translated) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING
+				""", batchArgs);
+		translations.forEach((hash, translated) -> this.cache.put(new Key(source, target, hash), translated));
+	}
+
+	record Key(String source, String target, String hash) {
+	}
+}
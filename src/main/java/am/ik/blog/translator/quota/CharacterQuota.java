@@ -0,0 +1,98 @@
+package am.ik.blog.translator.quota;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import am.ik.blog.translator.quota.CharacterQuotaMapper.Remaining;
+import am.ik.blog.translator.quota.CharacterQuotaProps.Policy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Governs the characters sent to the Google Translation api with the buckets per minute and per day, which are shared
+ * by all instances through the database.
+ */
+@Component
+public class CharacterQuota {
+	private static final Logger log = LoggerFactory.getLogger(CharacterQuota.class);
+
+	static final Duration REMAINING_MAX_AGE = Duration.ofMinutes(1);
+
+	private final CharacterQuotaMapper characterQuotaMapper;
+
+	private final CharacterQuotaProps props;
+
+	private final List<QuotaBucket> buckets;
+
+	private final ConcurrentMap<String, Observed> observed = new ConcurrentHashMap<>();
+
+	public CharacterQuota(CharacterQuotaMapper characterQuotaMapper, CharacterQuotaProps props) {
+		this.characterQuotaMapper = characterQuotaMapper;
+		this.props = props;
+		final List<QuotaBucket> buckets = new ArrayList<>();
+		if (props.getCharactersPerMinute() > 0) {
+			buckets.add(new QuotaBucket.Refilling("google-api:minute", props.getCharactersPerMinute(), Duration.ofMinutes(1)));
+		}
+		if (props.getCharactersPerDay() > 0) {
+			buckets.add(new QuotaBucket.Daily("google-api:day", props.getCharactersPerDay(), props.getDailyResetZone()));
+		}
+		this.buckets = List.copyOf(buckets);
+	}
+
+	/**
+	 * Takes the characters from the quota. Depending on the policy, waits until they are available or throws
+	 * {@link QuotaExceededException}.
+	 */
+	public void acquire(long characters) {
+		if (this.buckets.isEmpty()) {
+			return;
+		}
+		for (QuotaBucket bucket : this.buckets) {
+			if (characters > bucket.capacity()) {
+				throw new QuotaExceededException("%d characters exceed the capacity of %s.".formatted(characters, bucket.name()));
+			}
+		}
+		final long deadline = System.nanoTime() + this.props.getMaxWait().toNanos();
+		while (true) {
+			final Duration wait = this.characterQuotaMapper.consume(this.buckets, characters);
+			if (wait.isZero()) {
+				return;
+			}
+			if (this.props.getPolicy() == Policy.SHED || System.nanoTime() + wait.toNanos() > deadline) {
+				throw new QuotaExceededException("The quota of the Google Translation api is exhausted. Retry after %d seconds.".formatted(Math.max(1, wait.toSeconds())));
+			}
+			log.info("Wait {} for {} characters of the quota", wait, characters);
+			try {
+				Thread.sleep(Math.max(1, wait.toMillis()));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new QuotaExceededException("Interrupted while waiting for the quota.");
+			}
+		}
+	}
+
+	public List<QuotaBucket> buckets() {
+		return this.buckets;
+	}
+
+	/**
+	 * Computes the characters available now from the state read last, which is read again from the database once it is
+	 * older than {@link #REMAINING_MAX_AGE}. The characters consumed since then are not included.
+	 */
+	public double remaining(QuotaBucket bucket) {
+		final long now = System.nanoTime();
+		final Observed observed = this.observed.compute(bucket.name(), (name, last) -> (last != null && now - last.observedAt() < REMAINING_MAX_AGE.toNanos()) ? last
+				: new Observed(this.characterQuotaMapper.remaining(bucket), now));
+		final Remaining remaining = observed.remaining();
+		return bucket.refill(remaining.characters(), remaining.at(), remaining.at().plusNanos(now - observed.observedAt()));
+	}
+
+	private record Observed(Remaining remaining, long observedAt) {
+	}
+}
@@ -0,0 +1,100 @@
+package am.ik.blog.translator.quota;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores the state of the quota buckets in {@code translation_quota} so that they are shared by all instances
+ */
+@Repository
+public class CharacterQuotaMapper {
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public CharacterQuotaMapper(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	private final RowMapper<State> stateRowMapper = (rs, i) -> new State(rs.getString("name"), rs.getDouble("tokens"),
+			rs.getTimestamp("updated_at").toInstant(), rs.getTimestamp("now").toInstant());
+
+	/**
+	 * Takes the characters from all the buckets, or from none of them if any bucket is short.
+	 *
+	 * @return {@link Duration#ZERO} if taken, otherwise how long to wait until all the buckets have the characters
+	 */
+	@Transactional
+	public Duration consume(List<QuotaBucket> buckets, long characters) {
+		final List<String> names = buckets.stream().map(QuotaBucket::name).toList();
+		List<State> states = this.lock(names);
+		if (states.size() < buckets.size()) {
+			this.jdbcTemplate.batchUpdate("""
+					INSERT INTO translation_quota(name, tokens) VALUES (?, ?) ON CONFLICT DO NOTHING
+					""", buckets.stream().map(bucket -> new Object[] { bucket.name(), bucket.capacity() }).toList());
+			states = this.lock(names);
+		}
+		final Map<String, QuotaBucket> bucketsByName = buckets.stream().collect(Collectors.toMap(QuotaBucket::name, Function.identity()));
+		final List<Object[]> batchArgs = new ArrayList<>(states.size());
+		Duration wait = Duration.ZERO;
+		for (State state : states) {
+			final QuotaBucket bucket = bucketsByName.get(state.name());
+			final double tokens = bucket.refill(state.tokens(), state.updatedAt(), state.now());
+			if (tokens < characters) {
+				final Duration waitFor = bucket.waitFor(tokens, characters, state.now());
+				wait = (waitFor.compareTo(wait) > 0) ? waitFor : wait;
+			}
+			batchArgs.add(new Object[] { tokens - characters, Timestamp.from(state.now()), state.name() });
+		}
+		if (!wait.isZero()) {
+			return wait;
+		}
+		this.jdbcTemplate.batchUpdate("""
+				UPDATE translation_quota SET tokens = ?, updated_at = ? WHERE name = ?
+				""", batchArgs);
+		return Duration.ZERO;
+	}
+
+	/**
+	 * @return the characters available now and the time of the database
+	 */
+	public Remaining remaining(QuotaBucket bucket) {
+		return this.jdbcTemplate.query("""
+						SELECT name, tokens, updated_at, NOW() AS now FROM translation_quota WHERE name = ?
+						""", this.stateRowMapper, bucket.name())
+				.stream()
+				.findFirst()
+				.map(state -> new Remaining(bucket.refill(state.tokens(), state.updatedAt(), state.now()), state.now()))
+				.orElseGet(() -> new Remaining(bucket.capacity(), this.jdbcTemplate.queryForObject("SELECT NOW()", Timestamp.class).toInstant()));
+	}
+
+	// locked in the order of the names to avoid deadlocks
+	private List<State> lock(List<String> names) {
+		return this.namedParameterJdbcTemplate.query("""
+				SELECT name, tokens, updated_at, NOW() AS now FROM translation_quota WHERE name IN (:names) ORDER BY name FOR UPDATE
+				""", new MapSqlParameterSource("names", names), this.stateRowMapper);
+	}
+
+	private record State(String name, double tokens, Instant updatedAt, Instant now) {
+	}
+
+	/**
+	 * The characters available at the given time of the database
+	 */
+	public record Remaining(double characters, Instant at) {
+	}
+}
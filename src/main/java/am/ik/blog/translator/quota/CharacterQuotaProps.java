@@ -0,0 +1,74 @@
+package am.ik.blog.translator.quota;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "translator.quota")
+@ConstructorBinding
+public class CharacterQuotaProps {
+	private final long charactersPerMinute;
+
+	private final long charactersPerDay;
+
+	private final ZoneId dailyResetZone;
+
+	private final Policy policy;
+
+	private final Duration maxWait;
+
+	public CharacterQuotaProps(@DefaultValue("0") long charactersPerMinute, @DefaultValue("0") long charactersPerDay,
+			@DefaultValue("America/Los_Angeles") ZoneId dailyResetZone, @DefaultValue("QUEUE") Policy policy, @DefaultValue("30s") Duration maxWait) {
+		this.charactersPerMinute = charactersPerMinute;
+		this.charactersPerDay = charactersPerDay;
+		this.dailyResetZone = dailyResetZone;
+		this.policy = policy;
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * The characters sent to the Google Translation api per minute shared by all instances. 0 means unlimited.
+	 */
+	public long getCharactersPerMinute() {
+		return charactersPerMinute;
+	}
+
+	/**
+	 * The characters sent to the Google Translation api per day shared by all instances. 0 means unlimited.
+	 */
+	public long getCharactersPerDay() {
+		return charactersPerDay;
+	}
+
+	/**
+	 * The time zone of the midnight when the daily quota is reset
+	 */
+	public ZoneId getDailyResetZone() {
+		return dailyResetZone;
+	}
+
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * How long a request waits for the quota with {@link Policy#QUEUE}
+	 */
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	public enum Policy {
+		/**
+		 * Waits until the quota is available for up to {@code maxWait}
+		 */
+		QUEUE,
+		/**
+		 * Rejects the request immediately
+		 */
+		SHED
+	}
+}
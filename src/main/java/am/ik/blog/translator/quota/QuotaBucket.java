@@ -0,0 +1,56 @@
+package am.ik.blog.translator.quota;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * A bucket of characters. The state of a bucket is the number of tokens at the time of the last update, and the
+ * tokens available now are computed from it with the clock of the database so that all instances agree.
+ */
+public sealed interface QuotaBucket {
+	String name();
+
+	long capacity();
+
+	double refill(double tokens, Instant updatedAt, Instant now);
+
+	/**
+	 * @return how long to wait until the given characters are available
+	 */
+	Duration waitFor(double tokens, long characters, Instant now);
+
+	/**
+	 * A token bucket refilled continuously at {@code capacity} per {@code period}
+	 */
+	record Refilling(String name, long capacity, Duration period) implements QuotaBucket {
+		@Override
+		public double refill(double tokens, Instant updatedAt, Instant now) {
+			final double elapsed = Math.max(0, Duration.between(updatedAt, now).toNanos());
+			return Math.min(this.capacity, tokens + elapsed * this.capacity / this.period.toNanos());
+		}
+
+		@Override
+		public Duration waitFor(double tokens, long characters, Instant now) {
+			return Duration.ofNanos((long) Math.ceil((characters - tokens) * this.period.toNanos() / this.capacity));
+		}
+	}
+
+	/**
+	 * A bucket filled up at midnight in the given time zone. A continuously refilled bucket could spend twice its
+	 * capacity within a calendar day.
+	 */
+	record Daily(String name, long capacity, ZoneId zone) implements QuotaBucket {
+		@Override
+		public double refill(double tokens, Instant updatedAt, Instant now) {
+			return LocalDate.ofInstant(now, this.zone).isAfter(LocalDate.ofInstant(updatedAt, this.zone)) ? this.capacity : tokens;
+		}
+
+		@Override
+		public Duration waitFor(double tokens, long characters, Instant now) {
+			final Instant midnight = LocalDate.ofInstant(now, this.zone).plusDays(1).atStartOfDay(this.zone).toInstant();
+			return Duration.between(now, midnight);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package am.ik.blog.translator.quota;
+
+import am.ik.blog.translator.http.UpstreamUnavailableException;
+
+public class QuotaExceededException extends UpstreamUnavailableException {
+	public QuotaExceededException(String msg) {
+		super(msg, null);
+	}
+}
@@ -0,0 +1,7 @@
+package am.ik.blog.translator.source;
+
+/**
+ * The part of an entry of the blog api that is translated.
+ */
+public record EntrySource(Long entryId, String title, String content) {
+}
@@ -0,0 +1,46 @@
+package am.ik.blog.translator.source;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Entries fetched from the blog api with the validators to revalidate them.
+ */
+@Component
+public class EntrySourceCache {
+	private final Cache<Long, Cached> cache;
+
+	public EntrySourceCache(EntrySourceProps props) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(props.getMaxWeight().toBytes())
+				.weigher(EntrySourceCache::weigh)
+				.expireAfterWrite(props.getTtl())
+				.recordStats()
+				.build();
+	}
+
+	Cached get(Long entryId) {
+		return this.cache.getIfPresent(entryId);
+	}
+
+	void put(Long entryId, Cached cached) {
+		this.cache.put(entryId, cached);
+	}
+
+	public Cache<?, ?> nativeCache() {
+		return this.cache;
+	}
+
+	// approximate retained bytes (Strings are at most 2 bytes per char)
+	static int weigh(Long entryId, Cached cached) {
+		return 128 + 2 * (cached.source().title().length() + cached.source().content().length());
+	}
+
+	/**
+	 * @param validatedAt {@link System#nanoTime()} when the entry was fetched or revalidated last
+	 */
+	record Cached(EntrySource source, String etag, String lastModified, long validatedAt) {
+	}
+}
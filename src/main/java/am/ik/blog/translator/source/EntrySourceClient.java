@@ -0,0 +1,106 @@
+package am.ik.blog.translator.source;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.http.UpstreamClient;
+import am.ik.blog.translator.source.EntrySourceCache.Cached;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches entries from the blog api and keeps them with their {@code ETag} and {@code Last-Modified}, so that
+ * translating the same entry into several languages or again later revalidates it with a conditional request instead
+ * of downloading it each time. Within {@link EntrySourceProps#getMaxAge()} the cached entry is used as is.
+ */
+@Component
+public class EntrySourceClient {
+	private final UpstreamClient blogApiClient;
+
+	private final TranslatorProps props;
+
+	private final long maxAgeNanos;
+
+	private final EntrySourceCache cache;
+
+	public EntrySourceClient(RestTemplateBuilder restTemplateBuilder, EntrySourceCache cache, TranslatorProps props, EntrySourceProps entrySourceProps) {
+		this.blogApiClient = new UpstreamClient("blog-api", restTemplateBuilder, props.getBlogApi(), props.getBlogApiConcurrency());
+		this.props = props;
+		this.maxAgeNanos = entrySourceProps.getMaxAge().toNanos();
+		this.cache = cache;
+	}
+
+	public EntrySource get(Long entryId) {
+		final Cached cached = this.cache.get(entryId);
+		if (cached != null && System.nanoTime() - cached.validatedAt() < this.maxAgeNanos) {
+			return cached.source();
+		}
+		final Cached fetched = this.fetch(entryId, cached);
+		this.cache.put(entryId, fetched);
+		return fetched.source();
+	}
+
+	/**
+	 * Lists the entries updated at or after {@code since} in the order of the update. The blog api lists the entries in
+	 * the reverse order of the update, so the pages are read until an older entry is found or {@code maxPages} pages
+	 * have been read. In the latter case, the result is the most recently updated entries and is not complete.
+	 */
+	public EntryUpdates getUpdatedEntries(Instant since, int pageSize, int maxPages) {
+		final List<EntryUpdate> updates = new ArrayList<>();
+		boolean complete = false;
+		for (int page = 0; page < maxPages && !complete; page++) {
+			final int p = page;
+			final JsonNode body = this.blogApiClient.execute(restTemplate -> restTemplate.getForObject("%s/entries?excludeContent=true&page={page}&size={size}".formatted(this.props.getBlogApiUrl()),
+					JsonNode.class, p, pageSize));
+			final JsonNode entries = (body == null) ? null : body.get("content");
+			if (entries == null || entries.isEmpty()) {
+				complete = true;
+				break;
+			}
+			for (JsonNode entry : entries) {
+				final JsonNode updated = entry.at("/updated/date");
+				final Instant updatedAt = OffsetDateTime.parse((updated.isTextual() ? updated : entry.at("/created/date")).asText()).toInstant();
+				if (updatedAt.isBefore(since)) {
+					complete = true;
+					break;
+				}
+				updates.add(new EntryUpdate(entry.get("entryId").asLong(), updatedAt));
+			}
+			if (entries.size() < pageSize) {
+				complete = true;
+			}
+		}
+		Collections.reverse(updates);
+		return new EntryUpdates(updates, complete);
+	}
+
+	Cached fetch(Long entryId, Cached cached) {
+		return this.blogApiClient.execute(restTemplate -> restTemplate.execute("%s/entries/{entryId}".formatted(this.props.getBlogApiUrl()), HttpMethod.GET,
+				request -> {
+					if (cached != null && cached.etag() != null) {
+						request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+					}
+					if (cached != null && cached.lastModified() != null) {
+						request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+					}
+				},
+				response -> {
+					final HttpHeaders headers = response.getHeaders();
+					if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+						return new Cached(cached.source(), Objects.requireNonNullElse(headers.getETag(), cached.etag()),
+								Objects.requireNonNullElse(headers.getFirst(HttpHeaders.LAST_MODIFIED), cached.lastModified()), System.nanoTime());
+					}
+					return new Cached(EntrySourceParser.parse(entryId, response.getBody()), headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), System.nanoTime());
+				}, entryId));
+	}
+}
@@ -0,0 +1,60 @@
+package am.ik.blog.translator.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import am.ik.blog.translator.http.MalformedResponseException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Pulls {@code frontMatter.title} and {@code content} out of an entry of the blog api without building a tree of the
+ * whole entry. The other fields are skipped. A body that is not a valid entry fails with a
+ * {@link MalformedResponseException} rather than an {@link IOException}, which would be retried as an I/O error.
+ */
+final class EntrySourceParser {
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private EntrySourceParser() {
+	}
+
+	static EntrySource parse(Long entryId, InputStream body) throws IOException {
+		String title = null;
+		String content = null;
+		try (JsonParser parser = jsonFactory.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new MalformedResponseException("The entry (entryId=%d) is not a json object.".formatted(entryId));
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				final JsonToken value = parser.nextToken();
+				if ("content".equals(field) && value == JsonToken.VALUE_STRING) {
+					content = parser.getText();
+				}
+				else if ("frontMatter".equals(field) && value == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						final String frontMatterField = parser.getCurrentName();
+						if (parser.nextToken() == JsonToken.VALUE_STRING && "title".equals(frontMatterField)) {
+							title = parser.getText();
+						}
+						else {
+							parser.skipChildren();
+						}
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+		catch (JsonProcessingException e) {
+			throw new MalformedResponseException("The entry (entryId=%d) is not a valid json: %s".formatted(entryId, e.getOriginalMessage()), e);
+		}
+		if (title == null || content == null) {
+			throw new MalformedResponseException("The entry (entryId=%d) does not have a title or content.".formatted(entryId));
+		}
+		return new EntrySource(entryId, title, content);
+	}
+}
@@ -0,0 +1,42 @@
+package am.ik.blog.translator.source;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "translator.entry-source")
+@ConstructorBinding
+public class EntrySourceProps {
+	private final DataSize maxWeight;
+
+	private final Duration maxAge;
+
+	private final Duration ttl;
+
+	public EntrySourceProps(@DefaultValue("16MB") DataSize maxWeight, @DefaultValue("10s") Duration maxAge, @DefaultValue("1h") Duration ttl) {
+		this.maxWeight = maxWeight;
+		this.maxAge = maxAge;
+		this.ttl = ttl;
+	}
+
+	public DataSize getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * How long a cached entry is used without revalidating it against the blog api. 0 revalidates on every use.
+	 */
+	public Duration getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * How long a cached entry is kept for conditional requests after it was last fetched or revalidated.
+	 */
+	public Duration getTtl() {
+		return ttl;
+	}
+}
@@ -0,0 +1,9 @@
+package am.ik.blog.translator.source;
+
+import java.time.Instant;
+
+/**
+ * An entry of the blog api and when it was last updated.
+ */
+public record EntryUpdate(Long entryId, Instant updatedAt) {
+}
@@ -0,0 +1,13 @@
+package am.ik.blog.translator.source;
+
+import java.util.List;
+
+/**
+ * The entries updated since a point in time in the order of the update.
+ *
+ * @param complete whether all the entries updated since then were read, i.e. the read did not stop at the maximum
+ * number of pages before reaching an older entry
+ */
+public record EntryUpdates(List<EntryUpdate> updates,
+						   boolean complete) {
+}
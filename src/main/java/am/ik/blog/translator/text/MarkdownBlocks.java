@@ -0,0 +1,128 @@
+package am.ik.blog.translator.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits markdown into blocks that can be translated as separate documents. The text is split at blank lines outside
+ * of fenced code blocks, HTML elements and HTML comments, except before indented lines and before list items following
+ * a list, which continue the previous block. A text with link reference definitions is not split, as a reference and
+ * its definition in separate blocks would not be resolved.
+ */
+public final class MarkdownBlocks {
+	private static final Pattern LIST_ITEM_PATTERN = Pattern.compile("^([-*+]|\\d+[.)]) .*");
+
+	private static final Pattern FENCE_PATTERN = Pattern.compile("^ {0,3}(`{3,}|~{3,}).*");
+
+	private static final Pattern LINK_DEFINITION_PATTERN = Pattern.compile("^ {0,3}\\[[^\\]]+]:", Pattern.MULTILINE);
+
+	private static final Pattern HTML_START_PATTERN = Pattern.compile("^ {0,3}<([A-Za-z][A-Za-z0-9-]*)(?=[\\s/>]|$)");
+
+	private static final Set<String> VOID_ELEMENTS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr");
+
+	private MarkdownBlocks() {
+	}
+
+	public static List<String> split(String text) {
+		final boolean linked = LINK_DEFINITION_PATTERN.matcher(text).find();
+		final List<String> blocks = new ArrayList<>();
+		final StringBuilder block = new StringBuilder();
+		String fence = null;
+		// the open and close tags of the HTML element that the current block is in
+		Pattern html = null;
+		int htmlDepth = 0;
+		boolean comment = false;
+		boolean blank = false;
+		for (String line : text.split("\n", -1)) {
+			if (fence == null && line.isBlank()) {
+				blank = true;
+				continue;
+			}
+			if (blank && fence == null && html == null && !comment && !linked && !block.isEmpty() && !isContinuation(line, block)) {
+				blocks.add(block.toString());
+				block.setLength(0);
+			}
+			else if (blank && !block.isEmpty()) {
+				block.append("\n\n");
+			}
+			else if (!block.isEmpty()) {
+				block.append('\n');
+			}
+			blank = false;
+			block.append(line);
+			if (fence == null) {
+				if (comment) {
+					comment = !line.contains("-->");
+				}
+				else if (html == null) {
+					final Matcher matcher = HTML_START_PATTERN.matcher(line);
+					if (line.stripLeading().startsWith("<!--")) {
+						comment = !line.contains("-->");
+					}
+					else if (matcher.lookingAt() && !VOID_ELEMENTS.contains(matcher.group(1).toLowerCase(Locale.ROOT))) {
+						html = Pattern.compile("<(/?)" + Pattern.quote(matcher.group(1)) + "(?:\\s[^>]*?)?(/?)>", Pattern.CASE_INSENSITIVE);
+						htmlDepth = 0;
+					}
+				}
+				if (html != null) {
+					htmlDepth += depth(html, line);
+					if (htmlDepth <= 0) {
+						html = null;
+					}
+				}
+			}
+			final Matcher matcher = FENCE_PATTERN.matcher(line);
+			if (fence == null && matcher.matches()) {
+				fence = matcher.group(1);
+			}
+			else if (fence != null && line.strip().startsWith(fence) && line.strip().replace(fence.substring(0, 1), "").isEmpty()) {
+				fence = null;
+			}
+		}
+		if (!block.isEmpty()) {
+			blocks.add(block.toString());
+		}
+		return blocks;
+	}
+
+	private static boolean isContinuation(String line, CharSequence block) {
+		return Character.isWhitespace(line.charAt(0))
+				|| (LIST_ITEM_PATTERN.matcher(line).matches() && LIST_ITEM_PATTERN.matcher(block).lookingAt());
+	}
+
+	/**
+	 * @return the number of the open tags minus the number of the close tags in the line, not counting self-closing
+	 * tags
+	 */
+	private static int depth(Pattern html, String line) {
+		int depth = 0;
+		final Matcher matcher = html.matcher(line);
+		while (matcher.find()) {
+			if (!matcher.group(1).isEmpty()) {
+				depth--;
+			}
+			else if (matcher.group(2).isEmpty()) {
+				depth++;
+			}
+		}
+		return depth;
+	}
+
+	/**
+	 * Joins the blocks with a blank line. The result ends with a line break.
+	 */
+	public static String join(List<String> blocks) {
+		final StringBuilder text = new StringBuilder();
+		for (String block : blocks) {
+			if (!text.isEmpty()) {
+				text.append("\n\n");
+			}
+			text.append(block.replaceAll("^\n+|\n+$", ""));
+		}
+		return text.append('\n').toString();
+	}
+}
@@ -0,0 +1,296 @@
+package am.ik.blog.translator.text;
+
+/**
+ * Rewrites the markdown before and after translation in a single scan.
+ * <p>
+ * {@link #protect(String)} turns bare urls into links, hides {@code <!-- toc -->}, {@code <br>} and {@code <img} behind
+ * {@code ZZZZ} markers and collapses links to host-only urls such as {@code [http://localhost](http://localhost)} back to
+ * the url. It produces the same output as the former chain of replacements:
+ * <pre>
+ * .replace("[http", "[Http") ... .replace(": http", ": Http")    // hide urls that must not be linked
+ * .replaceAll(URL_PATTERN, "[$1]($1)")                           // link bare urls
+ * .replace("[Http", "[http") ... .replace(": Http", ": http")    // unhide
+ * .replace("&lt;!-- toc --&gt;", "ZZZZTOC") ... .replace("&lt;img", "ZZZZIMG")
+ * .replaceAll("\\[(https?://[a-zA-Z0-9]+)\\]\\(https?://[a-zA-Z0-9]+\\)", "$1")
+ * </pre>
+ * including its quirks, e.g. the unhiding also lowercases {@code Http} written in the original text, and the hiding rule
+ * for {@code curl} only applies to the last {@code http} in a run of {@code [-a-zA-Z0-9 ]} following {@code curl}. The
+ * golden files under {@code src/test/resources/golden/markdown} are generated with the former implementation.
+ */
+final class MarkdownRewriter {
+	private static final String TOC = "<!-- toc -->";
+
+	private static final String BR = "<br>";
+
+	private static final String IMG = "<img";
+
+	private static final String TOC_MARKER = "ZZZZTOC";
+
+	private static final String BR_MARKER = "ZZZZBR";
+
+	private static final String IMG_MARKER = "ZZZZIMG";
+
+	private final String text;
+
+	private final StringBuilder out;
+
+	private int runStart = -1;
+
+	private int runEnd = -1;
+
+	private int runFirstCurl = -1;
+
+	private int runLastLowerHttp = -1;
+
+	private MarkdownRewriter(String text) {
+		this.text = text;
+		this.out = new StringBuilder(text.length() + (text.length() >> 3));
+	}
+
+	static String protect(String text) {
+		return new MarkdownRewriter(text).protect();
+	}
+
+	static String restore(String text) {
+		int marker = text.indexOf("ZZZZ");
+		if (marker < 0) {
+			return text;
+		}
+		final StringBuilder builder = new StringBuilder(text.length() + 32);
+		int last = 0;
+		while (marker >= 0) {
+			if (text.startsWith(TOC_MARKER, marker)) {
+				builder.append(text, last, marker).append(System.lineSeparator()).append(TOC);
+				last = marker + TOC_MARKER.length();
+			}
+			else if (text.startsWith(BR_MARKER, marker)) {
+				builder.append(text, last, marker).append(BR);
+				last = marker + BR_MARKER.length();
+			}
+			else if (text.startsWith(IMG_MARKER, marker)) {
+				builder.append(text, last, marker).append(IMG);
+				last = marker + IMG_MARKER.length();
+			}
+			marker = text.indexOf("ZZZZ", Math.max(last, marker + 1));
+		}
+		return builder.append(text, last, text.length()).toString();
+	}
+
+	private String protect() {
+		final int length = this.text.length();
+		// the links inserted around urls split the runs that the unhiding of curl arguments looks at
+		int regionStart = 0;
+		int i = 0;
+		while (i < length) {
+			final char c = this.text.charAt(i);
+			if (c == '<') {
+				if (this.text.startsWith(TOC, i)) {
+					this.out.append(TOC_MARKER);
+					i += TOC.length();
+					continue;
+				}
+				if (this.text.startsWith(BR, i)) {
+					this.out.append(BR_MARKER);
+					i += BR.length();
+					continue;
+				}
+				if (this.text.startsWith(IMG, i)) {
+					this.out.append(IMG_MARKER);
+					i += IMG.length();
+					continue;
+				}
+			}
+			else if (c == 'h' && this.isHttp(i) && !this.isHidden(i)) {
+				final int end = this.urlEnd(i);
+				if (end > 0) {
+					this.appendLink(i, end);
+					this.collapse();
+					regionStart = end;
+					i = end;
+					continue;
+				}
+			}
+			else if ((c == 'H' && this.isHttp(i)) || (c == 'h' && this.isHttp(i) /* hidden */)) {
+				final char prev = (this.out.length() > 0) ? this.out.charAt(this.out.length() - 1) : 0;
+				final boolean unhidden = prev == '[' || prev == '(' || prev == '"'
+						|| this.isLastCurlArgument(i, regionStart, length)
+						|| (prev == ' ' && this.out.length() > 1 && this.out.charAt(this.out.length() - 2) == ':');
+				this.out.append(unhidden ? 'h' : 'H');
+				i++;
+				continue;
+			}
+			this.out.append(c);
+			if (c == ')') {
+				this.collapse();
+			}
+			i++;
+		}
+		return this.out.toString();
+	}
+
+	private boolean isHttp(int i) {
+		return this.text.startsWith("ttp", i + 1);
+	}
+
+	/**
+	 * Whether the {@code http} at the given index is hidden from linking, i.e. follows {@code [}, {@code (}, {@code "},
+	 * {@code ": "} or is the last {@code http} of a curl command line.
+	 */
+	private boolean isHidden(int i) {
+		if (i > 0) {
+			final char prev = this.text.charAt(i - 1);
+			if (prev == '[' || prev == '(' || prev == '"') {
+				return true;
+			}
+			if (prev == ' ' && i > 1 && this.text.charAt(i - 2) == ':') {
+				return true;
+			}
+		}
+		return this.isHiddenCurlArgument(i);
+	}
+
+	private boolean isHiddenCurlArgument(int i) {
+		this.scanRun(i);
+		return this.runLastLowerHttp == i && this.runFirstCurl >= 0 && this.runFirstCurl + 5 <= i;
+	}
+
+	/**
+	 * Whether the upper case {@code Http} at the given index is the last one after {@code curl} within the run, which
+	 * is bounded by the links inserted around urls.
+	 */
+	private boolean isLastCurlArgument(int i, int regionStart, int regionEnd) {
+		this.scanRun(i);
+		final int start = Math.max(this.runStart, regionStart);
+		final int end = Math.min(this.runEnd, regionEnd);
+		final int curl = this.text.indexOf("curl", start);
+		if (curl < 0 || curl + 5 > i) {
+			return false;
+		}
+		for (int j = i + 1; j + 4 <= end; j++) {
+			if (this.isHttp(j) && (this.text.charAt(j) == 'H' || (this.text.charAt(j) == 'h' && this.isHiddenCurlArgument(j)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Caches the run of {@code [-a-zA-Z0-9 ]} containing the given index
+	 */
+	private void scanRun(int i) {
+		if (this.runStart <= i && i < this.runEnd) {
+			return;
+		}
+		int start = i;
+		while (start > 0 && isRunChar(this.text.charAt(start - 1))) {
+			start--;
+		}
+		int end = i;
+		while (end < this.text.length() && isRunChar(this.text.charAt(end))) {
+			end++;
+		}
+		final String run = this.text.substring(start, end);
+		final int curl = run.indexOf("curl");
+		final int http = run.lastIndexOf("http");
+		this.runStart = start;
+		this.runEnd = end;
+		this.runFirstCurl = (curl < 0) ? -1 : start + curl;
+		this.runLastLowerHttp = (http < 0) ? -1 : start + http;
+	}
+
+	/**
+	 * @return the end index of the url starting at the given index, or -1 if it is not a url
+	 */
+	private int urlEnd(int i) {
+		int j = i + 4;
+		if (j < this.text.length() && this.text.charAt(j) == 's') {
+			j++;
+		}
+		if (!this.text.startsWith("://", j)) {
+			return -1;
+		}
+		j += 3;
+		int end = j;
+		while (end < this.text.length() && isUrlChar(this.text.charAt(end))) {
+			end++;
+		}
+		while (end > j && !isUrlLastChar(this.text.charAt(end - 1))) {
+			end--;
+		}
+		return (end > j) ? end : -1;
+	}
+
+	private void appendLink(int start, int end) {
+		final int url = this.out.length() + 1;
+		this.out.append('[');
+		for (int i = start; i < end; i++) {
+			final char c = this.text.charAt(i);
+			if (i > start && (c == 'h' || c == 'H') && this.isHttp(i)) {
+				final boolean upper = c == 'H' || this.isHiddenCurlArgument(i);
+				this.out.append((upper && !this.isLastCurlArgument(i, start, end)) ? 'H' : 'h');
+			}
+			else {
+				this.out.append(c);
+			}
+		}
+		final int urlEnd = this.out.length();
+		this.out.append("](").append(this.out, url, urlEnd).append(')');
+	}
+
+	/**
+	 * Replaces {@code [http://host](http://host)} at the end of the output with {@code http://host}
+	 */
+	private void collapse() {
+		final int end = this.out.length() - 1;
+		final int secondUrl = this.hostOnlyUrlStart(end);
+		if (secondUrl < 2 || this.out.charAt(secondUrl - 1) != '(' || this.out.charAt(secondUrl - 2) != ']') {
+			return;
+		}
+		final int firstUrl = this.hostOnlyUrlStart(secondUrl - 2);
+		if (firstUrl < 1 || this.out.charAt(firstUrl - 1) != '[') {
+			return;
+		}
+		final String url = this.out.substring(firstUrl, secondUrl - 2);
+		this.out.setLength(firstUrl - 1);
+		this.out.append(url);
+	}
+
+	/**
+	 * @return the start index of {@code https?://[a-zA-Z0-9]+} ending right before the given index, or -1
+	 */
+	private int hostOnlyUrlStart(int end) {
+		int start = end;
+		while (start > 0 && isAlphanumeric(this.out.charAt(start - 1))) {
+			start--;
+		}
+		if (start == end || start < 7 || !"://".contentEquals(this.out.subSequence(start - 3, start))) {
+			return -1;
+		}
+		if ("http".contentEquals(this.out.subSequence(start - 7, start - 3))) {
+			return start - 7;
+		}
+		if (start >= 8 && "https".contentEquals(this.out.subSequence(start - 8, start - 3))) {
+			return start - 8;
+		}
+		return -1;
+	}
+
+	private static boolean isRunChar(char c) {
+		return c == '-' || c == ' ' || isAlphanumeric(c);
+	}
+
+	private static boolean isAlphanumeric(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	private static boolean isUrlChar(char c) {
+		return isUrlLastChar(c) || c == '?' || c == '!' || c == ':' || c == ',' || c == '.' || c == ';';
+	}
+
+	private static boolean isUrlLastChar(char c) {
+		return isAlphanumeric(c) || switch (c) {
+			case '-', '+', '&', '@', '#', '/', '%', '=', '~', '_', '|' -> true;
+			default -> false;
+		};
+	}
+}
@@ -0,0 +1,299 @@
+package am.ik.blog.translator.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.engine.TranslationEngineRouter;
+import am.ik.blog.translator.engine.TranslationEngineRouter.Routed;
+import am.ik.blog.translator.memory.Segment;
+import am.ik.blog.translator.memory.TranslationMemory;
+import com.vladsch.flexmark.ext.gfm.strikethrough.StrikethroughExtension;
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.formatter.Formatter;
+import com.vladsch.flexmark.formatter.RenderPurpose;
+import com.vladsch.flexmark.formatter.TranslationHandler;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MarkdownTranslator implements TextTranslator, DisposableBean {
+	static final String SEGMENT_SEPARATOR = "<!-- segment -->\n";
+
+	private final TranslatorProps props;
+
+	private final TranslationMemory translationMemory;
+
+	private final TranslationEngineRouter translationEngineRouter;
+
+	private final ExecutorService executorService = Executors.newCachedThreadPool(new CustomizableThreadFactory("markdown-translator-"));
+
+	private final MutableDataSet options = new MutableDataSet()
+			.set(Parser.EXTENSIONS, Arrays.asList(
+					StrikethroughExtension.create(),
+					TablesExtension.create()
+			))
+			// set GitHub table parsing options
+			.set(TablesExtension.WITH_CAPTION, false)
+			.set(TablesExtension.COLUMN_SPANS, false)
+			.set(TablesExtension.MIN_HEADER_ROWS, 1)
+			.set(TablesExtension.MAX_HEADER_ROWS, 1)
+			.set(TablesExtension.APPEND_MISSING_COLUMNS, true)
+			.set(TablesExtension.DISCARD_EXTRA_COLUMNS, true)
+			.set(TablesExtension.HEADER_SEPARATOR_COLUMN_MATCH, true);
+
+	final Parser parser = Parser.builder(options).build();
+
+	final Formatter formatter = Formatter.builder(options).build();
+
+	final HtmlRenderer htmlRenderer = HtmlRenderer.builder(options).build();
+
+	private final FlexmarkHtmlConverter converter = FlexmarkHtmlConverter.builder(options).build();
+
+	public MarkdownTranslator(TranslatorProps props, TranslationMemory translationMemory, TranslationEngineRouter translationEngineRouter) {
+		this.props = props;
+		this.translationMemory = translationMemory;
+		this.translationEngineRouter = translationEngineRouter;
+	}
+
+	@Override
+	public String translate(String text, String source, String target) {
+		return this.translateAll(List.of(text), source, target).get(0);
+	}
+
+	@Override
+	public List<String> translateAll(List<String> texts, String source, String target) {
+		return this.translateAll(texts, source, List.of(target)).get(target);
+	}
+
+	@Override
+	public Map<String, List<String>> translateAll(List<String> texts, String source, List<String> targets) {
+		final Map<String, List<String>> translated = new LinkedHashMap<>();
+		this.translateAllTracked(texts, source, targets).forEach((target, translatedTexts) -> translated.put(target, translatedTexts.stream()
+				.map(TranslatedText::text)
+				.toList()));
+		return translated;
+	}
+
+	/**
+	 * Translates the texts in one pass so that their segments share the translation memory lookup and the batches sent
+	 * to the engine. The texts are parsed and split into segments once for all targets, and the segments are
+	 * translated into the targets concurrently. A text is memorizable if none of its segments was translated by an
+	 * engine whose results cannot be memorized.
+	 */
+	@Override
+	public Map<String, List<TranslatedText>> translateAllTracked(List<String> texts, String source, List<String> targets) {
+		final List<String> translatingTargets = targets.stream()
+				.filter(target -> !Objects.equals(source, target))
+				.distinct()
+				.toList();
+		final Map<String, List<TranslatedText>> translated = new LinkedHashMap<>();
+		final List<TranslatedText> untranslated = texts.stream().map(text -> new TranslatedText(text, true)).toList();
+		if (texts.isEmpty() || translatingTargets.isEmpty()) {
+			targets.forEach(target -> translated.put(target, untranslated));
+			return translated;
+		}
+		final List<Document> documents = new ArrayList<>(texts.size());
+		final List<TranslationHandler> translationHandlers = new ArrayList<>(texts.size());
+		final List<String> translatingTexts = new ArrayList<>();
+		for (String text : texts) {
+			final Document document = this.parser.parse(this.preprocess(text));
+			final TranslationHandler translationHandler = this.formatter.getTranslationHandler();
+			this.formatter.translationRender(document, translationHandler, RenderPurpose.TRANSLATION_SPANS);
+			translatingTexts.addAll(translationHandler.getTranslatingTexts());
+			documents.add(document);
+			translationHandlers.add(translationHandler);
+		}
+		final Map<String, List<TranslatedText>> translatedTexts = new HashMap<>();
+		if (translatingTargets.size() == 1) {
+			final String target = translatingTargets.get(0);
+			translatedTexts.put(target, this.translateSegments(translatingTexts, source, target));
+		}
+		else {
+			final Map<String, CompletableFuture<List<TranslatedText>>> futures = new LinkedHashMap<>();
+			translatingTargets.forEach(target -> futures.put(target, CompletableFuture.supplyAsync(() -> this.translateSegments(translatingTexts, source, target), this.executorService)));
+			join(futures.values().toArray(CompletableFuture[]::new));
+			futures.forEach((target, future) -> translatedTexts.put(target, future.join()));
+		}
+		for (String target : targets) {
+			if (!translatingTargets.contains(target)) {
+				translated.put(target, untranslated);
+			}
+			else if (!translated.containsKey(target)) {
+				// the handlers are stateful, so the translated documents are rendered one target at a time
+				translated.put(target, this.render(documents, translationHandlers, translatedTexts.get(target)));
+			}
+		}
+		return translated;
+	}
+
+	List<TranslatedText> render(List<Document> documents, List<TranslationHandler> translationHandlers, List<TranslatedText> translatedTexts) {
+		final List<TranslatedText> translated = new ArrayList<>(documents.size());
+		int offset = 0;
+		for (int i = 0; i < documents.size(); i++) {
+			final TranslationHandler translationHandler = translationHandlers.get(i);
+			final int size = translationHandler.getTranslatingTexts().size();
+			final List<TranslatedText> segments = translatedTexts.subList(offset, offset + size);
+			translationHandler.setTranslatedTexts(segments.stream().map(TranslatedText::text).toList());
+			offset += size;
+			final String translatedSpans = this.formatter.translationRender(documents.get(i), translationHandler, RenderPurpose.TRANSLATED_SPANS);
+			final String text = this.postprocess(this.formatter.translationRender(this.parser.parse(translatedSpans), translationHandler, RenderPurpose.TRANSLATED));
+			translated.add(new TranslatedText(text, segments.stream().allMatch(TranslatedText::memorizable)));
+		}
+		return translated;
+	}
+
+	String preprocess(String text) {
+		return MarkdownRewriter.protect(text);
+	}
+
+	String postprocess(String translated) {
+		return MarkdownRewriter.restore(translated);
+	}
+
+	List<TranslatedText> translateSegments(List<String> translatingTexts, String source, String target) {
+		final List<Segment> segments = translatingTexts.stream().map(Segment::of).toList();
+		final Map<String, Segment> distinct = new LinkedHashMap<>();
+		segments.stream()
+				.filter(segment -> !segment.isBlank())
+				.forEach(segment -> distinct.putIfAbsent(segment.hash(), segment));
+		final Map<String, String> translations = new HashMap<>(this.translationMemory.lookup(source, target, distinct.keySet()));
+		final Set<String> unmemorizable = new HashSet<>();
+		final List<Segment> misses = distinct.values().stream()
+				.filter(segment -> !translations.containsKey(segment.hash()))
+				.toList();
+		if (!misses.isEmpty()) {
+			final List<Routed> batches = this.translateHtmls(this.renderHtmls(misses), source, target);
+			final Map<String, String> learned = new LinkedHashMap<>();
+			int i = 0;
+			for (Routed batch : batches) {
+				for (String translated : batch.translated()) {
+					final String hash = misses.get(i++).hash();
+					final String converted = this.convertTranslatedHtml(translated);
+					translations.put(hash, converted);
+					if (batch.engine().isMemorizable()) {
+						learned.put(hash, converted);
+					}
+					else {
+						unmemorizable.add(hash);
+					}
+				}
+			}
+			if (!learned.isEmpty()) {
+				this.translationMemory.store(source, target, learned);
+			}
+		}
+		return segments.stream()
+				.map(segment -> segment.isBlank() ? new TranslatedText(segment.text(), true)
+						: new TranslatedText(segment.restore(translations.get(segment.hash())), !unmemorizable.contains(segment.hash())))
+				.toList();
+	}
+
+	/**
+	 * Renders the segments to html with one parse of a document where they are separated by an html comment, instead
+	 * of parsing every segment. When a segment swallows a separator, e.g. with an unclosed {@code <pre>}, the segments
+	 * are rendered one by one.
+	 */
+	List<String> renderHtmls(List<Segment> segments) {
+		final String document = segments.stream()
+				.map(Segment::text)
+				.collect(Collectors.joining("\n\n" + SEGMENT_SEPARATOR + "\n"));
+		final String[] htmls = this.htmlRenderer.render(this.parser.parse(document)).split(Pattern.quote(SEGMENT_SEPARATOR), -1);
+		if (htmls.length == segments.size()) {
+			return Arrays.asList(htmls);
+		}
+		return segments.stream()
+				.map(segment -> this.htmlRenderer.render(this.parser.parse(segment.text())))
+				.toList();
+	}
+
+	/**
+	 * Sends the html in size-bounded batches. Batches are distributed over at most {@code googleApiParallelism} lanes
+	 * that call the engine concurrently, and the results are returned in the original order.
+	 */
+	List<Routed> translateHtmls(List<String> htmls, String source, String target) {
+		final List<List<String>> batches = this.partition(htmls);
+		if (batches.size() == 1) {
+			return List.of(this.translationEngineRouter.translate(batches.get(0), source, target));
+		}
+		final AtomicReferenceArray<Routed> results = new AtomicReferenceArray<>(batches.size());
+		final int lanes = Math.min(this.props.getGoogleApiParallelism(), batches.size());
+		final CompletableFuture<?>[] futures = IntStream.range(0, lanes)
+				.mapToObj(lane -> CompletableFuture.runAsync(() -> {
+					for (int i = lane; i < batches.size(); i += lanes) {
+						results.set(i, this.translationEngineRouter.translate(batches.get(i), source, target));
+					}
+				}, this.executorService))
+				.toArray(CompletableFuture[]::new);
+		join(futures);
+		return IntStream.range(0, batches.size()).mapToObj(results::get).toList();
+	}
+
+	static void join(CompletableFuture<?>[] futures) {
+		try {
+			CompletableFuture.allOf(futures).join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	List<List<String>> partition(List<String> htmls) {
+		final List<List<String>> batches = new ArrayList<>();
+		List<String> batch = new ArrayList<>();
+		int characters = 0;
+		for (String html : htmls) {
+			if (!batch.isEmpty() && (batch.size() >= this.props.getGoogleApiBatchMaxSegments() || characters + html.length() > this.props.getGoogleApiBatchMaxCharacters())) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+				characters = 0;
+			}
+			batch.add(html);
+			characters += html.length();
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		return batches;
+	}
+
+	String convertTranslatedHtml(String translatedHtml) {
+		return this.converter.convert(translatedHtml)
+				.replace("\\<", "<")
+				.replace("\\>", ">")
+				.replaceAll("\\*[^\\d*]*(\\d+)[^\\d*\n]*\\*", "_$1_")
+				.replaceAll(" (_\\d+_) ", " `$1` ")
+				.replaceAll("\\s(_\\d+_\\n)", "$1")
+				.strip();
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdown();
+	}
+}
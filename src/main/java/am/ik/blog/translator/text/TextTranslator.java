@@ -1,5 +1,42 @@
 package am.ik.blog.translator.text;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface TextTranslator {
 	String translate(String text, String source, String target);
+
+	/**
+	 * Translates the texts as separate documents. Implementations may send them to the engine together.
+	 */
+	default List<String> translateAll(List<String> texts, String source, String target) {
+		return texts.stream().map(text -> this.translate(text, source, target)).toList();
+	}
+
+	/**
+	 * Translates the texts into each of the targets. Implementations may prepare the texts once for all targets.
+	 *
+	 * @return the translated texts keyed by the target in the order of the targets
+	 */
+	default Map<String, List<String>> translateAll(List<String> texts, String source, List<String> targets) {
+		final Map<String, List<String>> translated = new LinkedHashMap<>();
+		for (String target : targets) {
+			translated.computeIfAbsent(target, t -> this.translateAll(texts, source, t));
+		}
+		return translated;
+	}
+
+	/**
+	 * Translates the texts into each of the targets like {@link #translateAll(List, String, List)} and tells whether
+	 * each translated text may be memorized. Implementations that do not know the engines regard every text as
+	 * memorizable.
+	 */
+	default Map<String, List<TranslatedText>> translateAllTracked(List<String> texts, String source, List<String> targets) {
+		final Map<String, List<TranslatedText>> translated = new LinkedHashMap<>();
+		this.translateAll(texts, source, targets).forEach((target, translatedTexts) -> translated.put(target, translatedTexts.stream()
+				.map(text -> new TranslatedText(text, true))
+				.toList()));
+		return translated;
+	}
 }
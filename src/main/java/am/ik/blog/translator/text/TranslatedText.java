@@ -0,0 +1,8 @@
+package am.ik.blog.translator.text;
+
+/**
+ * A translated text with whether it may be memorized, i.e. every segment of it was found in the translation memory or
+ * translated by an engine whose results can be memorized rather than by a fallback such as the pseudo engine.
+ */
+public record TranslatedText(String text, boolean memorizable) {
+}
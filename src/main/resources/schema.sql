@@ -7,4 +7,89 @@ CREATE TABLE IF NOT EXISTS translation
     content    TEXT,
     created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
     PRIMARY KEY (entry_id, language, revision)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS translation_content
+(
+    hash       CHAR(64) PRIMARY KEY,
+    content    BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+-- already compressed with lz4
+ALTER TABLE translation_content ALTER COLUMN content SET STORAGE EXTERNAL;
+
+ALTER TABLE translation ADD COLUMN IF NOT EXISTS content_hash CHAR(64) REFERENCES translation_content (hash);
+
+-- the changes to rebuild the content from the next revision
+ALTER TABLE translation ADD COLUMN IF NOT EXISTS delta TEXT;
+
+CREATE INDEX IF NOT EXISTS translation_revisions ON translation (entry_id, language, revision DESC) INCLUDE (title, created_at);
+
+-- the weighted title and content of the latest revision, maintained by the application as the content is compressed
+ALTER TABLE translation ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+CREATE INDEX IF NOT EXISTS translation_search_vector ON translation USING GIN (search_vector) WHERE search_vector IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS translation_memory
+(
+    source     VARCHAR(2),
+    target     VARCHAR(2),
+    hash       CHAR(64),
+    translated TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    PRIMARY KEY (source, target, hash)
+);
+
+CREATE TABLE IF NOT EXISTS translation_block
+(
+    entry_id   INT,
+    language   VARCHAR(2),
+    position   INT,
+    hash       CHAR(64),
+    engine     VARCHAR(32),
+    translated TEXT,
+    PRIMARY KEY (entry_id, language, position)
+);
+
+CREATE TABLE IF NOT EXISTS translation_quota
+(
+    name       VARCHAR(32) PRIMARY KEY,
+    tokens     DOUBLE PRECISION,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS translation_job
+(
+    job_id     UUID PRIMARY KEY,
+    entry_id   INT,
+    language   VARCHAR(2),
+    status     VARCHAR(16) DEFAULT 'PENDING',
+    attempts   INT         DEFAULT 0,
+    revision   INT,
+    error      TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS translation_job_status_created_at ON translation_job (status, created_at);
+
+-- a pending job that failed transiently is not claimed again until then
+ALTER TABLE translation_job ADD COLUMN IF NOT EXISTS available_at TIMESTAMP WITH TIME ZONE DEFAULT NOW();
+
+CREATE INDEX IF NOT EXISTS translation_job_unfinished ON translation_job (entry_id, language) WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE TABLE IF NOT EXISTS translation_feed
+(
+    name       VARCHAR(32) PRIMARY KEY,
+    watermark  TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS translation_job_entry_language_created_at ON translation_job (entry_id, language, created_at);
+
+-- looks up the revisions referencing a content before the content is deleted
+CREATE INDEX IF NOT EXISTS translation_content_hash ON translation (content_hash) WHERE content_hash IS NOT NULL;
+
+-- the revision stored from the blocks, whose blocks are reused only while it is the latest revision
+ALTER TABLE translation_block ADD COLUMN IF NOT EXISTS revision INT;
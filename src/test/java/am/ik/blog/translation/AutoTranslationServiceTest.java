@@ -0,0 +1,98 @@
+package am.ik.blog.translation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.source.EntrySource;
+import am.ik.blog.translator.source.EntrySourceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AutoTranslationServiceTest {
+	final EntrySourceClient entrySourceClient = mock(EntrySourceClient.class);
+
+	final EntryTranslator entryTranslator = mock(EntryTranslator.class);
+
+	final TranslationService translationService = mock(TranslationService.class);
+
+	final TranslationMapper translationMapper = mock(TranslationMapper.class);
+
+	final SessionLocks sessionLocks = mock(SessionLocks.class);
+
+	@BeforeEach
+	void setUp() {
+		given(this.entrySourceClient.get(100L)).willReturn(new EntrySource(100L, "こんにちは", "世界"));
+		given(this.translationMapper.getCurrentTimestamp()).willReturn(Instant.now());
+		given(this.sessionLocks.withLock(anyString(), any())).willAnswer(invocation -> ((Function<Instant, ?>) invocation.getArgument(1)).apply(Instant.now()));
+		given(this.translationService.addNewTranslation(eq(new Translated(100L, "en", "Hello", "World")), any()))
+				.willReturn(new Translation(new TranslationKey(100L, "en", 3), "Hello", "World", Instant.now()));
+	}
+
+	@Test
+	void translate_coalesced() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		given(this.entryTranslator.translate(100L, "en")).willAnswer(invocation -> {
+			started.countDown();
+			assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+			return new Translated(100L, "en", "Hello", "World");
+		});
+		final AutoTranslationService autoTranslationService = new AutoTranslationService(this.entrySourceClient, this.entryTranslator, this.translationService, this.translationMapper, this.sessionLocks, new AutoTranslationProps(2));
+		final CompletableFuture<Translation> leader = CompletableFuture.supplyAsync(() -> autoTranslationService.translate(100L, "en"));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		final List<CompletableFuture<Translation>> followers = IntStream.range(0, 4)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> autoTranslationService.translate(100L, "en")))
+				.toList();
+		// wait until the followers wait for the flight of the leader
+		final CompletableFuture<Translation> flight = autoTranslationService.flights.values().iterator().next();
+		while (flight.getNumberOfDependents() < followers.size()) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+		assertThat(leader.get().translationKey().revision()).isEqualTo(3);
+		for (CompletableFuture<Translation> follower : followers) {
+			assertThat(follower.get().translationKey().revision()).isEqualTo(3);
+		}
+		verify(this.entryTranslator, times(1)).translate(100L, "en");
+		verify(this.sessionLocks, times(1)).withLock(anyString(), any());
+	}
+
+	@Test
+	void translate_failed() {
+		given(this.entryTranslator.translate(100L, "en")).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Not Found"));
+		final AutoTranslationService autoTranslationService = new AutoTranslationService(this.entrySourceClient, this.entryTranslator, this.translationService, this.translationMapper, this.sessionLocks, new AutoTranslationProps(2));
+		assertThatThrownBy(() -> autoTranslationService.translate(100L, "en")).isInstanceOf(ResponseStatusException.class);
+		// the failed flight is not shared with the next request
+		assertThatThrownBy(() -> autoTranslationService.translate(100L, "en")).isInstanceOf(ResponseStatusException.class);
+		verify(this.entryTranslator, times(2)).translate(100L, "en");
+	}
+
+	@Test
+	void translate_withoutLock() {
+		given(this.entryTranslator.translate(100L, "en")).willReturn(new Translated(100L, "en", "Hello", "World"));
+		final AutoTranslationService autoTranslationService = new AutoTranslationService(this.entrySourceClient, this.entryTranslator, this.translationService, this.translationMapper, this.sessionLocks, new AutoTranslationProps(0));
+		assertThat(autoTranslationService.translate(100L, "en").translationKey().revision()).isEqualTo(3);
+		verify(this.sessionLocks, never()).withLock(anyString(), any());
+	}
+}
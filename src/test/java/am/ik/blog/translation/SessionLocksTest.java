@@ -0,0 +1,56 @@
+package am.ik.blog.translation;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class SessionLocksTest {
+	private final SessionLocks sessionLocks;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	SessionLocksTest(DataSourceProperties dataSourceProperties, JdbcTemplate jdbcTemplate) {
+		this.sessionLocks = new SessionLocks(dataSourceProperties, new AutoTranslationProps(2));
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.sessionLocks.destroy();
+	}
+
+	@Test
+	void withLock() {
+		final String sql = "SELECT pg_try_advisory_xact_lock(hashtextextended(?, 0))";
+		final Instant before = this.jdbcTemplate.queryForObject("SELECT clock_timestamp()", Timestamp.class).toInstant();
+		// the other connections are taken on another thread as the test runs in a transaction
+		final String result = this.sessionLocks.withLock("translation/1/en/abc", requestedAt -> {
+			assertThat(requestedAt).isAfterOrEqualTo(before);
+			assertThat(CompletableFuture.supplyAsync(() -> this.jdbcTemplate.queryForObject(sql, Boolean.class, "translation/1/en/abc")).join()).isFalse();
+			assertThat(CompletableFuture.supplyAsync(() -> this.jdbcTemplate.queryForObject(sql, Boolean.class, "translation/1/en/xyz")).join()).isTrue();
+			return "done";
+		});
+		assertThat(result).isEqualTo("done");
+		assertThat(CompletableFuture.supplyAsync(() -> this.jdbcTemplate.queryForObject(sql, Boolean.class, "translation/1/en/abc")).join()).isTrue();
+	}
+}
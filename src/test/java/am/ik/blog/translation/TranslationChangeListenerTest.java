@@ -0,0 +1,56 @@
+package am.ik.blog.translation;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Import({ TranslationMapper.class, LatestTranslationCache.class, TranslationChangeListener.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(executionPhase = ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:init.sql")
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class TranslationChangeListenerTest {
+	private final LatestTranslationCache latestTranslationCache;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	TranslationChangeListenerTest(LatestTranslationCache latestTranslationCache, JdbcTemplate jdbcTemplate) {
+		this.latestTranslationCache = latestTranslationCache;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void invalidateOnChangeByAnotherReplica() throws Exception {
+		assertThat(this.latestTranslationCache.get(1L, "en").map(t -> t.translationKey().revision())).contains(2);
+		// a mapper that is not connected to this cache, as if it were on another replica
+		new TranslationMapper(this.jdbcTemplate, new TranslationStorageProps(10, Map.of())).insert(new Translation(new TranslationKey(1L, "en", 3), "title3", "content3", Instant.now()));
+		Optional<Translation> latest = this.latestTranslationCache.get(1L, "en");
+		for (int i = 0; i < 50 && latest.map(t -> t.translationKey().revision()).orElse(0) != 3; i++) {
+			Thread.sleep(100);
+			latest = this.latestTranslationCache.get(1L, "en");
+		}
+		assertThat(latest.map(t -> t.translationKey().revision())).contains(3);
+	}
+}
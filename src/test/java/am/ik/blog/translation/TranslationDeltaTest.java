@@ -0,0 +1,26 @@
+package am.ik.blog.translation;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranslationDeltaTest {
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"a\\nb\\nc\\n|a\\nB\\nc\\n",
+			"a\\nb\\nc|a\\nb\\nc\\n",
+			"a\\nb\\nc\\n|\\nx\\na\\nc\\ny",
+			"a\\r\\nb\\r\\n|a\\r\\nc\\r\\n",
+			"a\\nb\\n|a\\nb\\n",
+			"''|a\\n",
+			"a\\n|''"
+	})
+	void diffAndApply(String base, String content) {
+		base = base.replace("\\n", "\n").replace("\\r", "\r");
+		content = content.replace("\\n", "\n").replace("\\r", "\r");
+		final String delta = TranslationDelta.diff(base, content);
+		assertThat(TranslationDelta.apply(base, delta)).isEqualTo(content);
+	}
+}
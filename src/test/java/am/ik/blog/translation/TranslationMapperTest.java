@@ -1,8 +1,12 @@
 package am.ik.blog.translation;
 
+import java.io.StringWriter;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -32,7 +36,7 @@ class TranslationMapperTest {
 	private final TranslationMapper translationMapper;
 
 	TranslationMapperTest(JdbcTemplate jdbcTemplate) {
-		this.translationMapper = new TranslationMapper(jdbcTemplate);
+		this.translationMapper = new TranslationMapper(jdbcTemplate, new TranslationStorageProps(10, Map.of()));
 	}
 
 	@ParameterizedTest
@@ -59,6 +63,27 @@ class TranslationMapperTest {
 		assertThat(translationsEn.get(1).createdAt()).isNotNull();
 	}
 
+	@Test
+	void getRevisionsOfTranslation() {
+		for (int revision = 3; revision <= 5; revision++) {
+			this.translationMapper.insert(new Translation(new TranslationKey(1L, "en", revision), "title" + revision, "content" + revision, Instant.now()));
+		}
+		final List<Translation> firstPage = new ArrayList<>();
+		this.translationMapper.getRevisionsOfTranslation(1L, "en", null, 2, firstPage::add);
+		assertThat(firstPage).extracting(translation -> translation.translationKey().revision()).containsExactly(5, 4);
+		assertThat(firstPage).allSatisfy(translation -> {
+			assertThat(translation.title()).isNotNull();
+			assertThat(translation.content()).isNull();
+			assertThat(translation.createdAt()).isNotNull();
+		});
+		final List<Translation> secondPage = new ArrayList<>();
+		this.translationMapper.getRevisionsOfTranslation(1L, "en", 4, 2, secondPage::add);
+		assertThat(secondPage).extracting(translation -> translation.translationKey().revision()).containsExactly(3, 2);
+		final List<Translation> lastPage = new ArrayList<>();
+		this.translationMapper.getRevisionsOfTranslation(1L, "en", 2, 2, lastPage::add);
+		assertThat(lastPage).extracting(translation -> translation.translationKey().revision()).containsExactly(1);
+	}
+
 	@ParameterizedTest
 	@CsvSource({
 			"1, 2, title2, content2",
@@ -110,6 +135,48 @@ class TranslationMapperTest {
 		assertThat(optionalTranslation.isPresent()).isFalse();
 	}
 
+	@Test
+	void getLatestTranslationWithoutContent() {
+		final Optional<Translation> optionalTranslation = this.translationMapper.getLatestTranslationWithoutContent(1L, "en");
+		assertThat(optionalTranslation.isPresent()).isTrue();
+		final Translation translation = optionalTranslation.get();
+		assertThat(translation.translationKey()).isEqualTo(new TranslationKey(1L, "en", 2));
+		assertThat(translation.title()).isEqualTo("title2");
+		assertThat(translation.content()).isNull();
+		assertThat(translation.createdAt()).isNotNull();
+	}
+
+	@Test
+	void streamLatestContent() {
+		final StringWriter writer = new StringWriter();
+		final boolean found = this.translationMapper.streamLatestContent(1L, "en", (translation, content) -> {
+			assertThat(translation.translationKey()).isEqualTo(new TranslationKey(1L, "en", 2));
+			assertThat(translation.content()).isNull();
+			content.transferTo(writer);
+		});
+		assertThat(found).isTrue();
+		assertThat(writer.toString()).isEqualTo("content2");
+	}
+
+	@Test
+	void streamLatestContent_notFound() {
+		final boolean found = this.translationMapper.streamLatestContent(100L, "en", (translation, content) -> {
+			throw new AssertionError("must not be called");
+		});
+		assertThat(found).isFalse();
+	}
+
+	@Test
+	void getTranslationWithoutContent() {
+		final TranslationKey translationKey = new TranslationKey(1L, "cn", 1);
+		final Optional<Translation> optionalTranslation = this.translationMapper.getTranslationWithoutContent(translationKey);
+		assertThat(optionalTranslation.isPresent()).isTrue();
+		final Translation translation = optionalTranslation.get();
+		assertThat(translation.translationKey()).isEqualTo(translationKey);
+		assertThat(translation.content()).isNull();
+		assertThat(this.translationMapper.getTranslationWithoutContent(new TranslationKey(1L, "en", 3)).isPresent()).isFalse();
+	}
+
 	@ParameterizedTest
 	@CsvSource({
 			"1, en, 3, title3, content3, 1",
@@ -128,6 +195,144 @@ class TranslationMapperTest {
 		assertThat(retrieved.createdAt()).isNotNull();
 	}
 
+	@Test
+	void getLatestTranslations() {
+		this.translationMapper.insert(new Translation(new TranslationKey(2L, "en", 2), "hello2", "Hello2", Instant.now()));
+		final List<Translation> translations = this.translationMapper.getLatestTranslations(List.of(1L, 2L, 3L), "en", true);
+		assertThat(translations).extracting(Translation::translationKey).containsExactly(new TranslationKey(1L, "en", 2), new TranslationKey(2L, "en", 2));
+		assertThat(translations).extracting(Translation::title).containsExactly("title2", "hello2");
+		assertThat(translations).extracting(Translation::content).containsExactly("content2", "Hello2");
+		final List<Translation> withoutContent = this.translationMapper.getLatestTranslations(List.of(1L, 2L, 3L), "en", false);
+		assertThat(withoutContent).extracting(Translation::title).containsExactly("title2", "hello2");
+		assertThat(withoutContent).extracting(Translation::content).containsOnlyNulls();
+		assertThat(this.translationMapper.getLatestTranslations(List.of(), "en", true)).isEmpty();
+	}
+
+	@Test
+	void insertAll_createdAtOfDatabase() {
+		final Instant before = this.translationMapper.getCurrentTimestamp();
+		final Translation inserted = this.translationMapper.insertAll(List.of(new Translation(new TranslationKey(3L, "en", null), "foo1", "Foo1", null))).get(0);
+		assertThat(inserted.createdAt()).isAfterOrEqualTo(before).isBeforeOrEqualTo(this.translationMapper.getCurrentTimestamp());
+		assertThat(this.translationMapper.getLatestTranslation(3L, "en")).hasValueSatisfying(latest -> assertThat(latest.createdAt()).isEqualTo(inserted.createdAt()));
+	}
+
+	@Test
+	void insertAll() {
+		final Instant now = Instant.now();
+		final String content = "Hello World!\n".repeat(100);
+		final List<Translation> inserted = this.translationMapper.insertAll(List.of(
+				new Translation(new TranslationKey(1L, "en", null), "title3", content, now),
+				new Translation(new TranslationKey(3L, "en", null), "foo1", "Foo1", now),
+				new Translation(new TranslationKey(1L, "en", null), "title4", content + "!", now),
+				new Translation(new TranslationKey(1L, "fr", null), "titre1", content, now)));
+		assertThat(inserted).extracting(Translation::translationKey).containsExactly(
+				new TranslationKey(1L, "en", 3),
+				new TranslationKey(3L, "en", 1),
+				new TranslationKey(1L, "en", 4),
+				new TranslationKey(1L, "fr", 1));
+		assertThat(inserted).extracting(Translation::title).containsExactly("title3", "foo1", "title4", "titre1");
+		for (Translation translation : inserted) {
+			assertThat(this.translationMapper.getTranslation(translation.translationKey())).hasValueSatisfying(retrieved -> {
+				assertThat(retrieved.title()).isEqualTo(translation.title());
+				assertThat(retrieved.content()).isEqualTo(translation.content());
+			});
+		}
+		assertThat(this.translationMapper.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_content", Integer.class)).isEqualTo(3);
+		// the previous revision is replaced with a delta
+		assertThat(this.translationMapper.jdbcTemplate.queryForObject("SELECT delta IS NOT NULL FROM translation WHERE entry_id = 1 AND language = 'en' AND revision = 3", Boolean.class)).isTrue();
+		assertThat(this.translationMapper.insertAll(List.of())).isEmpty();
+	}
+
+	@Test
+	void insertAll_chunked() {
+		final Instant now = Instant.now();
+		final int size = TranslationMapper.INSERT_CHUNK_SIZE * 10;
+		final List<Translation> translations = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			// half of the rows are the revisions of the same translation across the chunks
+			final TranslationKey translationKey = (i % 2 == 0) ? new TranslationKey(10L, "en", null) : new TranslationKey(10000L + i, "en", null);
+			translations.add(new Translation(translationKey, "title" + i, null, now));
+		}
+		final List<Translation> inserted = this.translationMapper.insertAll(translations);
+		assertThat(inserted).hasSize(size);
+		assertThat(inserted.stream().filter(translation -> translation.translationKey().entryId() == 10L).map(translation -> translation.translationKey().revision()))
+				.containsExactlyElementsOf(IntStream.rangeClosed(1, size / 2).boxed().toList());
+		assertThat(this.translationMapper.getLatestTranslation(10L, "en")).hasValueSatisfying(latest -> assertThat(latest.title()).isEqualTo("title" + (size - 2)));
+		assertThat(this.translationMapper.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation WHERE entry_id = 10 AND search_vector IS NOT NULL", Integer.class)).isEqualTo(1);
+	}
+
+	@Test
+	void insert_deduplicateContent() {
+		final String content = "Hello World!\n".repeat(100);
+		this.translationMapper.insert(new Translation(new TranslationKey(3L, "en", 1), "title1", content, Instant.now()));
+		this.translationMapper.insert(new Translation(new TranslationKey(3L, "fr", 1), "title2", content, Instant.now()));
+		final JdbcTemplate jdbcTemplate = this.translationMapper.jdbcTemplate;
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_content", Integer.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation WHERE entry_id = 3 AND content IS NULL AND content_hash IS NOT NULL", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT octet_length(content) FROM translation_content", Integer.class)).isLessThan(content.length());
+		// the content is kept while another revision references it
+		this.translationMapper.delete(new TranslationKey(3L, "fr", 1));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_content", Integer.class)).isEqualTo(1);
+		assertThat(this.translationMapper.getLatestTranslation(3L, "fr").get().content()).isEqualTo(content);
+		final StringWriter writer = new StringWriter();
+		this.translationMapper.streamLatestContent(3L, "en", (translation, reader) -> reader.transferTo(writer));
+		assertThat(writer.toString()).isEqualTo(content);
+	}
+
+	@Test
+	void getLatestTranslationDigest() {
+		// inline content
+		final TranslationDigest digest = this.translationMapper.getLatestTranslationDigest(1L, "cn").get();
+		assertThat(digest.translationKey()).isEqualTo(new TranslationKey(1L, "cn", 1));
+		assertThat(digest.hasSameContent("标题1", "内容1")).isTrue();
+		assertThat(digest.hasSameContent("标题1", "内容2")).isFalse();
+		assertThat(digest.hasSameContent("标题2", "内容1")).isFalse();
+		// content stored in translation_content
+		this.translationMapper.insert(new Translation(new TranslationKey(1L, "cn", 2), "标题2", "内容2", Instant.now()));
+		final TranslationDigest inserted = this.translationMapper.getLatestTranslationDigest(1L, "cn").get();
+		assertThat(inserted.translationKey()).isEqualTo(new TranslationKey(1L, "cn", 2));
+		assertThat(inserted.hasSameContent("标题2", "内容2")).isTrue();
+		assertThat(this.translationMapper.getLatestTranslationDigest(3L, "en")).isEmpty();
+	}
+
+	@Test
+	void insert_delta() {
+		final TranslationMapper translationMapper = new TranslationMapper(this.translationMapper.jdbcTemplate, new TranslationStorageProps(3, Map.of()));
+		final List<String> contents = new ArrayList<>();
+		for (int revision = 1; revision <= 7; revision++) {
+			final String content = "# Title\n\n" + "paragraph\n".repeat(50) + "revision " + revision + "\n";
+			contents.add(content);
+			translationMapper.insert(new Translation(new TranslationKey(3L, "en", revision), "title" + revision, content, Instant.now()));
+		}
+		// revisions 3 and 6 are snapshots and 7 is the latest
+		assertThat(this.translationMapper.jdbcTemplate.queryForList("SELECT revision FROM translation WHERE entry_id = 3 AND delta IS NULL ORDER BY revision", Integer.class))
+				.containsExactly(3, 6, 7);
+		// the contents of the revisions replaced with deltas are deleted
+		assertThat(this.translationMapper.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_content", Integer.class)).isEqualTo(3);
+		for (int revision = 1; revision <= 7; revision++) {
+			final Translation translation = translationMapper.getTranslation(new TranslationKey(3L, "en", revision)).get();
+			assertThat(translation.title()).isEqualTo("title" + revision);
+			assertThat(translation.content()).isEqualTo(contents.get(revision - 1));
+		}
+		assertThat(translationMapper.getLatestTranslation(3L, "en").get().content()).isEqualTo(contents.get(6));
+		assertThat(translationMapper.getTranslation(new TranslationKey(3L, "en", 8))).isEmpty();
+	}
+
+	@Test
+	void delete_delta() {
+		final String content1 = "paragraph\n".repeat(50) + "revision 1\n";
+		final String content2 = "paragraph\n".repeat(50) + "revision 2\n";
+		this.translationMapper.insert(new Translation(new TranslationKey(3L, "en", 1), "title1", content1, Instant.now()));
+		this.translationMapper.insert(new Translation(new TranslationKey(3L, "en", 2), "title2", content2, Instant.now()));
+		assertThat(this.translationMapper.jdbcTemplate.queryForObject("SELECT delta IS NOT NULL FROM translation WHERE entry_id = 3 AND revision = 1", Boolean.class)).isTrue();
+		assertThat(this.translationMapper.jdbcTemplate.queryForList("SELECT hash FROM translation_content", String.class)).containsExactly(TranslationContentCodec.hash(content2));
+		this.translationMapper.delete(new TranslationKey(3L, "en", 2));
+		// only the restored content is left
+		assertThat(this.translationMapper.jdbcTemplate.queryForList("SELECT hash FROM translation_content", String.class)).containsExactly(TranslationContentCodec.hash(content1));
+		assertThat(this.translationMapper.getLatestTranslation(3L, "en").get().content()).isEqualTo(content1);
+		assertThat(this.translationMapper.getTranslation(new TranslationKey(3L, "en", 1)).get().content()).isEqualTo(content1);
+	}
+
 	@ParameterizedTest
 	@CsvSource({
 			"1, en, 2, 1",
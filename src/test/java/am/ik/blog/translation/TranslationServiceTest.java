@@ -0,0 +1,78 @@
+package am.ik.blog.translation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.TranslatedBlocks;
+import am.ik.blog.translator.memory.BlockMemory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TranslationServiceTest {
+	final TranslationMapper translationMapper = mock(TranslationMapper.class);
+
+	final LatestTranslationCache latestTranslationCache = mock(LatestTranslationCache.class);
+
+	final BlockMemory blockMemory = mock(BlockMemory.class);
+
+	final TranslationService translationService = new TranslationService(this.translationMapper, this.latestTranslationCache, this.blockMemory);
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void addNewTranslation_invalidateAfterCommit() {
+		given(this.translationMapper.getLatestTranslationDigest(100L, "en")).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(anyList())).willReturn(List.of(new Translation(new TranslationKey(100L, "en", 1), "Hello", "World", Instant.now())));
+		TransactionSynchronizationManager.initSynchronization();
+		this.translationService.addNewTranslation(100L, "en", "Hello", "World");
+		verify(this.latestTranslationCache, never()).invalidate(any(), any());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		verify(this.latestTranslationCache).invalidate(100L, "en");
+	}
+
+	@Test
+	void addNewTranslation_memorizeAfterCommit() {
+		given(this.translationMapper.getLatestTranslationDigest(100L, "en")).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(anyList())).willReturn(List.of(new Translation(new TranslationKey(100L, "en", 2), "Hello", "World", Instant.now())));
+		TransactionSynchronizationManager.initSynchronization();
+		final TranslatedBlocks blocks = new TranslatedBlocks("google", List.of("hash"), List.of("World"));
+		this.translationService.addNewTranslation(new Translated(100L, "en", "Hello", "World", blocks), null);
+		verify(this.blockMemory, never()).store(any(), any(), anyInt(), any(), anyList(), anyList());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		verify(this.blockMemory).store(100L, "en", 2, "google", List.of("hash"), List.of("World"));
+	}
+
+	@Test
+	void addNewTranslation_notMemorizedOnRollback() {
+		given(this.translationMapper.getLatestTranslationDigest(100L, "en")).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(anyList())).willReturn(List.of(new Translation(new TranslationKey(100L, "en", 2), "Hello", "World", Instant.now())));
+		TransactionSynchronizationManager.initSynchronization();
+		this.translationService.addNewTranslation(new Translated(100L, "en", "Hello", "World", new TranslatedBlocks("google", List.of("hash"), List.of("World"))), null);
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		verify(this.blockMemory, never()).store(any(), any(), anyInt(), any(), anyList(), anyList());
+	}
+
+	@Test
+	void deleteTranslation_withoutTransaction() {
+		this.translationService.deleteTranslation(new TranslationKey(100L, "en", 1));
+		verify(this.latestTranslationCache).invalidate(100L, "en");
+	}
+}
@@ -0,0 +1,51 @@
+package am.ik.blog.translation.feed;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class TranslationFeedMapperTest {
+	private final TranslationFeedMapper translationFeedMapper;
+
+	TranslationFeedMapperTest(JdbcTemplate jdbcTemplate) {
+		this.translationFeedMapper = new TranslationFeedMapper(jdbcTemplate);
+	}
+
+	@Test
+	void getWatermark() {
+		final Instant initial = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		assertThat(this.translationFeedMapper.getWatermark("blog-api", initial)).isEqualTo(initial);
+		assertThat(this.translationFeedMapper.updateWatermark("blog-api", initial.plusSeconds(60))).isEqualTo(1);
+		// the initial watermark is used only once
+		assertThat(this.translationFeedMapper.getWatermark("blog-api", initial)).isEqualTo(initial.plusSeconds(60));
+	}
+
+	@Test
+	void tryLockWatermark() {
+		final Instant initial = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		final Instant watermark = this.translationFeedMapper.getWatermark("blog-api", initial);
+		assertThat(this.translationFeedMapper.tryLockWatermark("blog-api", watermark)).isTrue();
+		// moved by another poller since it was read
+		assertThat(this.translationFeedMapper.tryLockWatermark("blog-api", watermark.minusSeconds(60))).isFalse();
+	}
+}
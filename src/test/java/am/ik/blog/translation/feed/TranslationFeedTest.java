@@ -0,0 +1,136 @@
+package am.ik.blog.translation.feed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.job.TranslationJobMapper;
+import am.ik.blog.translator.source.EntrySourceClient;
+import am.ik.blog.translator.source.EntryUpdate;
+import am.ik.blog.translator.source.EntryUpdates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TranslationFeedTest {
+	final EntrySourceClient entrySourceClient = mock(EntrySourceClient.class);
+
+	final TranslationMapper translationMapper = mock(TranslationMapper.class);
+
+	final TranslationJobMapper translationJobMapper = mock(TranslationJobMapper.class);
+
+	final TranslationFeedMapper translationFeedMapper = mock(TranslationFeedMapper.class);
+
+	final Instant watermark = Instant.parse("2022-01-01T00:00:00Z");
+
+	@BeforeEach
+	void setUp() {
+		given(this.translationFeedMapper.getWatermark(eq(TranslationFeed.NAME), any())).willReturn(this.watermark);
+		given(this.translationFeedMapper.tryLockWatermark(TranslationFeed.NAME, this.watermark)).willReturn(true);
+		given(this.entrySourceClient.getUpdatedEntries(this.watermark, 50, 10)).willReturn(new EntryUpdates(List.of(
+				new EntryUpdate(100L, this.watermark.plusSeconds(10)),
+				new EntryUpdate(200L, this.watermark.plusSeconds(20)),
+				new EntryUpdate(300L, this.watermark.plusSeconds(30))), true));
+		// 100 has an up-to-date en translation and 200 has an en translation older than the update
+		given(this.translationMapper.getLatestTranslations(List.of(100L, 200L, 300L), "en", false)).willReturn(List.of(
+				new Translation(new TranslationKey(100L, "en", 1), "Hello", null, this.watermark.plusSeconds(15)),
+				new Translation(new TranslationKey(200L, "en", 1), "Hello", null, this.watermark.plusSeconds(15))));
+		given(this.translationMapper.getLatestTranslations(List.of(100L, 200L, 300L), "zh", false)).willReturn(List.of());
+		given(this.translationJobMapper.enqueueAll(anyList())).willAnswer(invocation -> invocation.getArgument(0, List.class).size());
+	}
+
+	TranslationFeed translationFeed(int maxPendingJobs) {
+		return new TranslationFeed(this.entrySourceClient, this.translationMapper, this.translationJobMapper, this.translationFeedMapper,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), new TranslationFeedProps(List.of("en", "zh"), Duration.ofDays(1), maxPendingJobs, 50, 10));
+	}
+
+	@Test
+	void poll() {
+		assertThat(this.translationFeed(20).poll()).isEqualTo(5);
+		// the jobs of the most read language first
+		verify(this.translationJobMapper).enqueueAll(List.of(
+				new TranslationKey(200L, "en", null),
+				new TranslationKey(300L, "en", null),
+				new TranslationKey(100L, "zh", null),
+				new TranslationKey(200L, "zh", null),
+				new TranslationKey(300L, "zh", null)));
+		verify(this.translationFeedMapper).updateWatermark(TranslationFeed.NAME, this.watermark.plusSeconds(30));
+	}
+
+	@Test
+	void poll_budget() {
+		given(this.translationJobMapper.countUnfinished()).willReturn(17);
+		assertThat(this.translationFeed(20).poll()).isEqualTo(3);
+		verify(this.translationJobMapper).enqueueAll(List.of(
+				new TranslationKey(200L, "en", null),
+				new TranslationKey(100L, "zh", null),
+				new TranslationKey(200L, "zh", null)));
+		verify(this.translationFeedMapper).updateWatermark(TranslationFeed.NAME, this.watermark.plusSeconds(20));
+	}
+
+	@Test
+	void poll_incomplete() {
+		given(this.entrySourceClient.getUpdatedEntries(this.watermark, 50, 10)).willReturn(new EntryUpdates(List.of(
+				new EntryUpdate(200L, this.watermark.plusSeconds(20)),
+				new EntryUpdate(300L, this.watermark.plusSeconds(30))), false));
+		given(this.translationMapper.getLatestTranslations(List.of(200L, 300L), "en", false)).willReturn(List.of());
+		given(this.translationMapper.getLatestTranslations(List.of(200L, 300L), "zh", false)).willReturn(List.of());
+		assertThat(this.translationFeed(20).poll()).isEqualTo(4);
+		// the entries updated before 200 have not been read, so the watermark is kept for them
+		verify(this.translationFeedMapper, never()).updateWatermark(anyString(), any());
+	}
+
+	@Test
+	void poll_handledByJob() {
+		final TranslationFeed translationFeed = this.translationFeed(20);
+		assertThat(translationFeed.poll()).isEqualTo(5);
+		verify(this.translationFeedMapper).updateWatermark(TranslationFeed.NAME, this.watermark.plusSeconds(30));
+		// the jobs succeeded without storing new revisions, e.g. only the tags of the entries were edited
+		final Instant next = this.watermark.plusSeconds(30);
+		given(this.translationFeedMapper.getWatermark(eq(TranslationFeed.NAME), any())).willReturn(next);
+		given(this.translationFeedMapper.tryLockWatermark(TranslationFeed.NAME, next)).willReturn(true);
+		given(this.entrySourceClient.getUpdatedEntries(next, 50, 10)).willReturn(new EntryUpdates(List.of(new EntryUpdate(300L, next)), true));
+		given(this.translationMapper.getLatestTranslations(List.of(300L), "en", false)).willReturn(List.of());
+		given(this.translationMapper.getLatestTranslations(List.of(300L), "zh", false)).willReturn(List.of());
+		given(this.translationJobMapper.getLatestCreatedAt(List.of(300L), "en")).willReturn(Map.of(300L, next.plusSeconds(1)));
+		given(this.translationJobMapper.getLatestCreatedAt(List.of(300L), "zh")).willReturn(Map.of(300L, next.plusSeconds(1)));
+		// the entry at the watermark is read again but not queued again
+		assertThat(translationFeed.poll()).isZero();
+		assertThat(translationFeed.poll()).isZero();
+		verify(this.translationJobMapper).enqueueAll(anyList());
+	}
+
+	@Test
+	void poll_budgetExhausted() {
+		given(this.translationJobMapper.countUnfinished()).willReturn(20);
+		assertThat(this.translationFeed(20).poll()).isZero();
+		verify(this.entrySourceClient, never()).getUpdatedEntries(any(), anyInt(), anyInt());
+		verify(this.translationFeedMapper, never()).updateWatermark(anyString(), any());
+	}
+
+	@Test
+	void poll_locked() {
+		// another instance holds the lock or has moved the watermark
+		given(this.translationFeedMapper.tryLockWatermark(TranslationFeed.NAME, this.watermark)).willReturn(false);
+		assertThat(this.translationFeed(20).poll()).isZero();
+		verify(this.translationJobMapper, never()).enqueueAll(anyList());
+		verify(this.translationFeedMapper, never()).updateWatermark(anyString(), any());
+	}
+}
@@ -0,0 +1,182 @@
+package am.ik.blog.translation.job;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import am.ik.blog.translation.TranslationKey;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class TranslationJobMapperTest {
+	private final TranslationJobMapper translationJobMapper;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	TranslationJobMapperTest(JdbcTemplate jdbcTemplate) {
+		this.translationJobMapper = new TranslationJobMapper(jdbcTemplate);
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void enqueue() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		assertThat(job.jobId()).isNotNull();
+		assertThat(job.entryId()).isEqualTo(100L);
+		assertThat(job.language()).isEqualTo("en");
+		assertThat(job.status()).isEqualTo(TranslationJobStatus.PENDING);
+		assertThat(job.attempts()).isEqualTo(0);
+		assertThat(job.revision()).isNull();
+		final Optional<TranslationJob> found = this.translationJobMapper.findById(job.jobId());
+		assertThat(found).contains(job);
+	}
+
+	@Test
+	void enqueueAll() {
+		this.translationJobMapper.enqueue(100L, "en");
+		final int enqueued = this.translationJobMapper.enqueueAll(List.of(new TranslationKey(200L, "en", null), new TranslationKey(100L, "en", null), new TranslationKey(100L, "zh", null)));
+		// the pending job of (100, en) is not queued again
+		assertThat(enqueued).isEqualTo(2);
+		assertThat(this.translationJobMapper.countUnfinished()).isEqualTo(3);
+		final List<TranslationJob> claimed = this.translationJobMapper.claim(10, Duration.ofMinutes(10));
+		assertThat(claimed).extracting(job -> job.entryId() + "/" + job.language()).containsExactlyInAnyOrder("100/en", "200/en", "100/zh");
+		assertThat(this.jdbcTemplate.queryForList("SELECT entry_id || '/' || language FROM translation_job ORDER BY created_at", String.class))
+				.containsExactly("100/en", "200/en", "100/zh");
+		claimed.forEach(job -> this.translationJobMapper.succeed(job, 1));
+		assertThat(this.translationJobMapper.countUnfinished()).isZero();
+	}
+
+	@Test
+	void getLatestCreatedAt() {
+		this.translationJobMapper.enqueue(100L, "en");
+		this.translationJobMapper.fail(this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0), "Oops");
+		final TranslationJob job2 = this.translationJobMapper.enqueue(100L, "en");
+		this.translationJobMapper.enqueue(100L, "zh");
+		// finished jobs count as well as unfinished ones
+		assertThat(this.translationJobMapper.getLatestCreatedAt(List.of(100L, 200L), "en")).containsExactly(entry(100L, job2.createdAt()));
+		assertThat(this.translationJobMapper.getLatestCreatedAt(List.of(200L), "en")).isEmpty();
+	}
+
+	@Test
+	void claim() {
+		final TranslationJob job1 = this.translationJobMapper.enqueue(100L, "en");
+		final TranslationJob job2 = this.translationJobMapper.enqueue(200L, "en");
+		final List<TranslationJob> claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10));
+		assertThat(claimed).hasSize(1);
+		assertThat(claimed.get(0).jobId()).isEqualTo(job1.jobId());
+		assertThat(claimed.get(0).status()).isEqualTo(TranslationJobStatus.RUNNING);
+		assertThat(claimed.get(0).attempts()).isEqualTo(1);
+		final List<TranslationJob> next = this.translationJobMapper.claim(10, Duration.ofMinutes(10));
+		assertThat(next).hasSize(1);
+		assertThat(next.get(0).jobId()).isEqualTo(job2.jobId());
+		assertThat(this.translationJobMapper.claim(10, Duration.ofMinutes(10))).isEmpty();
+	}
+
+	@Test
+	void claim_stale() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		this.translationJobMapper.claim(1, Duration.ofMinutes(10));
+		this.jdbcTemplate.update("UPDATE translation_job SET updated_at = NOW() - INTERVAL '1 hour' WHERE job_id = ?", job.jobId());
+		final List<TranslationJob> claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10));
+		assertThat(claimed).hasSize(1);
+		assertThat(claimed.get(0).attempts()).isEqualTo(2);
+	}
+
+	@Test
+	void succeed() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		// only the claimed job is finished
+		assertThat(this.translationJobMapper.succeed(job, 3)).isZero();
+		final TranslationJob claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0);
+		assertThat(this.translationJobMapper.succeed(claimed, 3)).isEqualTo(1);
+		final TranslationJob found = this.translationJobMapper.findById(job.jobId()).get();
+		assertThat(found.status()).isEqualTo(TranslationJobStatus.SUCCEEDED);
+		assertThat(found.revision()).isEqualTo(3);
+	}
+
+	@Test
+	void succeed_reclaimed() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		final TranslationJob claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0);
+		this.jdbcTemplate.update("UPDATE translation_job SET updated_at = NOW() - INTERVAL '1 hour' WHERE job_id = ?", job.jobId());
+		final TranslationJob reclaimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0);
+		// the stale attempt does not finish the job that the newer attempt is running
+		assertThat(this.translationJobMapper.succeed(claimed, 3)).isZero();
+		assertThat(this.translationJobMapper.fail(claimed, "Oops")).isZero();
+		assertThat(this.translationJobMapper.retry(claimed, "Oops", Duration.ofMinutes(1))).isZero();
+		assertThat(this.translationJobMapper.findById(job.jobId()).get().status()).isEqualTo(TranslationJobStatus.RUNNING);
+		assertThat(this.translationJobMapper.succeed(reclaimed, 3)).isEqualTo(1);
+	}
+
+	@Test
+	void retry() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		final TranslationJob running = this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0);
+		assertThat(this.translationJobMapper.retry(running, "Oops", Duration.ofMinutes(1))).isEqualTo(1);
+		final TranslationJob found = this.translationJobMapper.findById(job.jobId()).get();
+		assertThat(found.status()).isEqualTo(TranslationJobStatus.PENDING);
+		assertThat(found.error()).isEqualTo("Oops");
+		assertThat(this.translationJobMapper.claim(1, Duration.ofMinutes(10))).isEmpty();
+		this.jdbcTemplate.update("UPDATE translation_job SET available_at = NOW() - INTERVAL '1 second' WHERE job_id = ?", job.jobId());
+		final List<TranslationJob> claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10));
+		assertThat(claimed).hasSize(1);
+		assertThat(claimed.get(0).attempts()).isEqualTo(2);
+	}
+
+	@Test
+	void purgeFinished() {
+		final TranslationJob succeeded = this.translationJobMapper.enqueue(100L, "en");
+		this.translationJobMapper.succeed(this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0), 1);
+		final TranslationJob failed = this.translationJobMapper.enqueue(200L, "en");
+		this.translationJobMapper.fail(this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0), "Oops");
+		final TranslationJob recent = this.translationJobMapper.enqueue(300L, "en");
+		this.translationJobMapper.succeed(this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0), 1);
+		final TranslationJob pending = this.translationJobMapper.enqueue(400L, "en");
+		this.jdbcTemplate.update("UPDATE translation_job SET updated_at = NOW() - INTERVAL '8 days' WHERE entry_id IN (100, 200, 400)");
+		assertThat(this.translationJobMapper.purgeFinished(Duration.ofDays(7), 1)).isEqualTo(1);
+		assertThat(this.translationJobMapper.purgeFinished(Duration.ofDays(7), 10)).isEqualTo(1);
+		assertThat(this.translationJobMapper.purgeFinished(Duration.ofDays(7), 10)).isZero();
+		assertThat(this.translationJobMapper.findById(succeeded.jobId())).isEmpty();
+		assertThat(this.translationJobMapper.findById(failed.jobId())).isEmpty();
+		assertThat(this.translationJobMapper.findById(recent.jobId())).isPresent();
+		assertThat(this.translationJobMapper.findById(pending.jobId())).isPresent();
+	}
+
+	@Test
+	void heartbeat() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		this.translationJobMapper.claim(1, Duration.ofMinutes(10));
+		this.jdbcTemplate.update("UPDATE translation_job SET updated_at = NOW() - INTERVAL '1 hour' WHERE job_id = ?", job.jobId());
+		assertThat(this.translationJobMapper.heartbeat(List.of(job.jobId()))).isEqualTo(1);
+		assertThat(this.translationJobMapper.claim(1, Duration.ofMinutes(10))).isEmpty();
+	}
+
+	@Test
+	void fail() {
+		final TranslationJob job = this.translationJobMapper.enqueue(100L, "en");
+		final TranslationJob claimed = this.translationJobMapper.claim(1, Duration.ofMinutes(10)).get(0);
+		assertThat(this.translationJobMapper.fail(claimed, "Oops")).isEqualTo(1);
+		final TranslationJob found = this.translationJobMapper.findById(job.jobId()).get();
+		assertThat(found.status()).isEqualTo(TranslationJobStatus.FAILED);
+		assertThat(found.error()).isEqualTo("Oops");
+	}
+}
@@ -0,0 +1,106 @@
+package am.ik.blog.translation.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import am.ik.blog.translation.AutoTranslationService;
+import am.ik.blog.translation.NoChangeException;
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TranslationJobWorkerTest {
+	final TranslationJobMapper translationJobMapper = mock(TranslationJobMapper.class);
+
+	final AutoTranslationService autoTranslationService = mock(AutoTranslationService.class);
+
+	final TranslationJobWorker translationJobWorker = new TranslationJobWorker(this.translationJobMapper, this.autoTranslationService, new TranslationJobProps(1, 3, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofDays(7)));
+
+	final TranslationJob job = new TranslationJob(UUID.randomUUID(), 100L, "en", TranslationJobStatus.RUNNING, 1, null, null, Instant.now(), Instant.now());
+
+	@AfterEach
+	void tearDown() {
+		this.translationJobWorker.destroy();
+	}
+
+	@Test
+	void run() {
+		given(this.autoTranslationService.translate(100L, "en")).willReturn(new Translation(new TranslationKey(100L, "en", 3), "Hello", "World", Instant.now()));
+		this.translationJobWorker.run(this.job);
+		verify(this.translationJobMapper).succeed(this.job, 3);
+	}
+
+	@Test
+	void run_noChange() {
+		given(this.autoTranslationService.translate(100L, "en")).willThrow(new NoChangeException(new TranslationKey(100L, "en", 2)));
+		this.translationJobWorker.run(this.job);
+		verify(this.translationJobMapper).succeed(this.job, 2);
+	}
+
+	@Test
+	void run_retryable() {
+		given(this.autoTranslationService.translate(100L, "en")).willThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+		this.translationJobWorker.run(this.job);
+		verify(this.translationJobMapper).retry(eq(this.job), any(), eq(Duration.ofMinutes(1)));
+		verify(this.translationJobMapper, never()).fail(any(), any());
+	}
+
+	@Test
+	void run_nonRetryable() {
+		given(this.autoTranslationService.translate(100L, "en")).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+		this.translationJobWorker.run(this.job);
+		verify(this.translationJobMapper).fail(eq(this.job), any());
+		verify(this.translationJobMapper, never()).retry(any(), any(), any());
+	}
+
+	@Test
+	void run_lastAttempt() {
+		given(this.autoTranslationService.translate(100L, "en")).willThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+		final TranslationJob lastAttempt = new TranslationJob(this.job.jobId(), 100L, "en", TranslationJobStatus.RUNNING, 3, null, null, Instant.now(), Instant.now());
+		this.translationJobWorker.run(lastAttempt);
+		verify(this.translationJobMapper).fail(eq(lastAttempt), any());
+		verify(this.translationJobMapper, never()).retry(any(), any(), any());
+	}
+
+	@Test
+	void run_reclaimed() {
+		given(this.autoTranslationService.translate(100L, "en")).willReturn(new Translation(new TranslationKey(100L, "en", 3), "Hello", "World", Instant.now()));
+		// another worker has claimed the job as stale in the meantime
+		given(this.translationJobMapper.succeed(this.job, 3)).willReturn(0);
+		this.translationJobWorker.run(this.job);
+		verify(this.translationJobMapper).succeed(this.job, 3);
+		verify(this.translationJobMapper, never()).fail(any(), any());
+		verify(this.translationJobMapper, never()).retry(any(), any(), any());
+	}
+
+	@Test
+	void purge() {
+		given(this.translationJobMapper.purgeFinished(Duration.ofDays(7), TranslationJobWorker.PURGE_BATCH_SIZE)).willReturn(TranslationJobWorker.PURGE_BATCH_SIZE, 10);
+		this.translationJobWorker.purge();
+		verify(this.translationJobMapper, times(2)).purgeFinished(Duration.ofDays(7), TranslationJobWorker.PURGE_BATCH_SIZE);
+	}
+
+	@Test
+	void isRetryable() {
+		assertThat(TranslationJobWorker.isRetryable(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS))).isTrue();
+		assertThat(TranslationJobWorker.isRetryable(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))).isTrue();
+		assertThat(TranslationJobWorker.isRetryable(new IllegalStateException())).isTrue();
+		assertThat(TranslationJobWorker.isRetryable(new HttpClientErrorException(HttpStatus.BAD_REQUEST))).isFalse();
+	}
+}
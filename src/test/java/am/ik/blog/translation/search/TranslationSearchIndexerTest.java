@@ -0,0 +1,30 @@
+package am.ik.blog.translation.search;
+
+import java.util.List;
+
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TranslationSearchIndexerTest {
+	final TranslationMapper translationMapper = mock(TranslationMapper.class);
+
+	final TranslationSearchIndexer translationSearchIndexer = new TranslationSearchIndexer(this.translationMapper, new TranslationSearchProps(2));
+
+	@Test
+	void index_stopsOnceBackfilled() {
+		final TranslationKey translationKey = new TranslationKey(100L, "en", 1);
+		given(this.translationMapper.getUnindexedLatestRevisions(2)).willReturn(List.of(translationKey), List.of());
+		given(this.translationMapper.index(translationKey)).willReturn(true);
+		assertThat(this.translationSearchIndexer.index()).isEqualTo(1);
+		assertThat(this.translationSearchIndexer.index()).isEqualTo(0);
+		assertThat(this.translationSearchIndexer.index()).isEqualTo(0);
+		verify(this.translationMapper, times(2)).getUnindexedLatestRevisions(2);
+	}
+}
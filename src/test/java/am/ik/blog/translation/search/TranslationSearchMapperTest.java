@@ -0,0 +1,144 @@
+package am.ik.blog.translation.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationStorageProps;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class TranslationSearchMapperTest {
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TranslationMapper translationMapper;
+
+	private final TranslationSearchMapper translationSearchMapper;
+
+	TranslationSearchMapperTest(JdbcTemplate jdbcTemplate) {
+		final TranslationStorageProps props = new TranslationStorageProps(10, Map.of());
+		this.jdbcTemplate = jdbcTemplate;
+		this.translationMapper = new TranslationMapper(jdbcTemplate, props);
+		this.translationSearchMapper = new TranslationSearchMapper(jdbcTemplate, this.translationMapper, props);
+	}
+
+	static Translation translation(long entryId, String language, String title, String content) {
+		return new Translation(new TranslationKey(entryId, language, null), title, content, Instant.now());
+	}
+
+	@Test
+	void search() {
+		this.translationMapper.insertAll(List.of(
+				translation(100L, "en", "Getting started", "Spring Boot makes it easy to create applications."),
+				translation(200L, "en", "Spring Boot", "Creating a web application with Spring Boot."),
+				translation(300L, "en", "Kotlin", "Kotlin is a programming language."),
+				translation(100L, "zh", "入门", "Spring Boot 使创建应用程序变得容易。")));
+		// the previous revision is no longer found
+		this.translationMapper.insertAll(List.of(translation(100L, "en", "Getting started", "Spring Boot makes it easy to create services.")));
+		final List<TranslationHit> hits = this.translationSearchMapper.search("en", "creating applications", null, 10);
+		assertThat(hits).hasSize(1);
+		assertThat(hits.get(0).translationKey()).isEqualTo(new TranslationKey(200L, "en", 1));
+		assertThat(this.translationSearchMapper.search("en", "create -kotlin", null, 10))
+				.extracting(hit -> hit.translationKey().entryId())
+				.containsExactlyInAnyOrder(100L, 200L);
+		// the title has a higher weight
+		final List<TranslationHit> spring = this.translationSearchMapper.search("en", "spring", null, 10);
+		assertThat(spring).extracting(hit -> hit.translationKey().entryId()).containsExactly(200L, 100L);
+		assertThat(spring.get(0).title()).isEqualTo("<b>Spring</b> Boot");
+		assertThat(spring.get(0).snippet()).contains("<b>Spring</b> Boot");
+		assertThat(spring.get(1).translationKey()).isEqualTo(new TranslationKey(100L, "en", 2));
+		assertThat(spring.get(1).title()).isEqualTo("Getting started");
+		assertThat(spring.get(1).snippet()).isEqualTo("<b>Spring</b> Boot makes it easy to create services");
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation WHERE search_vector IS NOT NULL", Integer.class)).isEqualTo(4);
+	}
+
+	@Test
+	void search_after() {
+		this.translationMapper.insertAll(List.of(
+				translation(300L, "en", "Spring", "Spring"),
+				translation(100L, "en", "Spring", "Spring"),
+				translation(200L, "en", "Spring", "Spring"),
+				translation(400L, "en", "Spring Boot", "Spring Boot")));
+		final List<TranslationHit> first = this.translationSearchMapper.search("en", "spring", null, 2);
+		assertThat(first).extracting(hit -> hit.translationKey().entryId()).containsExactly(100L, 200L);
+		final SearchCursor cursor = SearchCursor.parse(SearchCursor.of(first.get(1)).format());
+		assertThat(cursor).isEqualTo(SearchCursor.of(first.get(1)));
+		final List<TranslationHit> second = this.translationSearchMapper.search("en", "spring", cursor, 2);
+		assertThat(second).extracting(hit -> hit.translationKey().entryId()).containsExactly(300L, 400L);
+		assertThat(this.translationSearchMapper.search("en", "spring", SearchCursor.of(second.get(1)), 2)).isEmpty();
+	}
+
+	@Test
+	void search_afterEqualRank() {
+		final List<Translation> translations = new ArrayList<>();
+		for (long entryId = 1; entryId <= 9; entryId++) {
+			// three groups of the same rank, whose ranks are not exact in decimal
+			translations.add(translation(entryId, "en", "Spring", "Spring boot ".repeat((int) (entryId % 3) + 1)));
+		}
+		this.translationMapper.insertAll(translations);
+		final List<TranslationHit> all = this.translationSearchMapper.search("en", "spring", null, 100);
+		assertThat(all).hasSize(9);
+		assertThat(all.stream().map(TranslationHit::rank).distinct()).hasSize(3);
+		final List<Long> paged = new ArrayList<>();
+		SearchCursor cursor = null;
+		for (int page = 0; page < 10; page++) {
+			final List<TranslationHit> hits = this.translationSearchMapper.search("en", "spring", cursor, 2);
+			hits.forEach(hit -> paged.add(hit.translationKey().entryId()));
+			if (hits.size() < 2) {
+				break;
+			}
+			cursor = SearchCursor.parse(SearchCursor.of(hits.get(1)).format());
+			assertThat(cursor).isEqualTo(SearchCursor.of(hits.get(1)));
+		}
+		assertThat(paged).containsExactlyElementsOf(all.stream().map(hit -> hit.translationKey().entryId()).toList());
+	}
+
+	@Test
+	void search_deleted() {
+		this.translationMapper.insertAll(List.of(
+				translation(100L, "en", "Hello", "Spring"),
+				translation(100L, "en", "Hello", "Kotlin")));
+		assertThat(this.translationSearchMapper.search("en", "spring", null, 10)).isEmpty();
+		this.translationMapper.delete(new TranslationKey(100L, "en", 2));
+		assertThat(this.translationSearchMapper.search("en", "spring", null, 10))
+				.extracting(TranslationHit::translationKey)
+				.containsExactly(new TranslationKey(100L, "en", 1));
+	}
+
+	@Test
+	void index() {
+		// inserted before the search was introduced
+		this.jdbcTemplate.update("INSERT INTO translation(entry_id, language, revision, title, content) VALUES (100, 'en', 1, 'Hello', 'Spring')");
+		this.jdbcTemplate.update("INSERT INTO translation(entry_id, language, revision, title, content) VALUES (100, 'en', 2, 'Hello', 'Spring Boot')");
+		assertThat(this.translationSearchMapper.search("en", "spring", null, 10)).isEmpty();
+		assertThat(this.translationMapper.getUnindexedLatestRevisions(10)).containsExactly(new TranslationKey(100L, "en", 2));
+		assertThat(this.translationMapper.index(new TranslationKey(100L, "en", 1))).isFalse();
+		assertThat(this.translationMapper.index(new TranslationKey(100L, "en", 2))).isTrue();
+		assertThat(this.translationMapper.getUnindexedLatestRevisions(10)).isEmpty();
+		assertThat(this.translationSearchMapper.search("en", "spring", null, 10))
+				.extracting(TranslationHit::snippet)
+				.containsExactly("<b>Spring</b> Boot");
+	}
+}
@@ -0,0 +1,126 @@
+package am.ik.blog.translation.web;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import am.ik.blog.translation.LatestTranslationCache;
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translation.bulk.BulkTranslationService;
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.memory.BlockMemory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BulkTranslationController.class)
+@Import({ TranslationService.class, LatestTranslationCache.class, BulkTranslationService.class })
+class BulkTranslationControllerTest {
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@MockBean
+	TranslationMapper translationMapper;
+
+	@MockBean
+	BlockMemory blockMemory;
+
+	@MockBean
+	EntryTranslator entryTranslator;
+
+	@Test
+	void postBulkTranslation() throws Exception {
+		given(this.entryTranslator.translate(anyLong(), anyList())).willAnswer(invocation -> {
+			final Long entryId = invocation.getArgument(0);
+			final List<String> languages = invocation.getArgument(1);
+			if (entryId == 300L) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not Found");
+			}
+			return languages.stream().map(language -> new Translated(entryId, language, "Hello", "Hello World")).toList();
+		});
+		given(this.translationMapper.getLatestTranslation(anyLong(), anyString())).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(any())).willAnswer(invocation -> assignRevision(invocation.getArgument(0), 1));
+		final MvcResult mvcResult = this.mockMvc.perform(post("/translations/bulk")
+						.content("""
+								{"entryIds": [100, 200, 300], "languages": ["en", "zh"]}
+								""")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		this.mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+		final List<JsonNode> lines = Arrays.stream(mvcResult.getResponse().getContentAsString().split("\n"))
+				.map(line -> {
+					try {
+						return this.objectMapper.readTree(line);
+					}
+					catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				})
+				.toList();
+		assertThat(lines).hasSize(6);
+		assertThat(lines).filteredOn(line -> line.get("status").asInt() == 201).hasSize(4)
+				.allSatisfy(line -> assertThat(line.get("revision").asInt()).isEqualTo(1));
+		assertThat(lines).filteredOn(line -> line.get("status").asInt() == 404).hasSize(2)
+				.allSatisfy(line -> {
+					assertThat(line.get("entryId").asLong()).isEqualTo(300L);
+					assertThat(line.get("error").asText()).isEqualTo("Not Found");
+				});
+	}
+
+	@Test
+	void postBulkTranslation_badRequest() throws Exception {
+		this.mockMvc.perform(post("/translations/bulk")
+						.content("""
+								{"entryIds": []}
+								""")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.details.length()").value(2))
+				.andExpect(jsonPath("$.details[0].args[0]").value("entryIds"))
+				.andExpect(jsonPath("$.details[1].args[0]").value("languages"));
+	}
+
+	/**
+	 * Assigns the revision and, like the database, the creation time
+	 */
+	static List<Translation> assignRevision(List<Translation> translations, int revision) {
+		return translations.stream()
+				.map(translation -> new Translation(new TranslationKey(translation.translationKey().entryId(), translation.translationKey().language(), revision),
+						translation.title(), translation.content(), (translation.createdAt() == null) ? Instant.now() : translation.createdAt()))
+				.toList();
+	}
+}
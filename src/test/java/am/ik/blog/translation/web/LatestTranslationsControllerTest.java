@@ -0,0 +1,74 @@
+package am.ik.blog.translation.web;
+
+import java.time.Instant;
+import java.util.List;
+
+import am.ik.blog.translation.LatestTranslationCache;
+import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translator.memory.BlockMemory;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = LatestTranslationsController.class)
+@Import({ TranslationService.class, LatestTranslationCache.class })
+class LatestTranslationsControllerTest {
+	@Autowired
+	MockMvc mockMvc;
+
+	@MockBean
+	TranslationMapper translationMapper;
+
+	@MockBean
+	BlockMemory blockMemory;
+
+	@Test
+	void getLatestTranslations() throws Exception {
+		given(this.translationMapper.getLatestTranslations(List.of(300L, 100L, 200L), "en", false)).willReturn(List.of(
+				new Translation(new TranslationKey(100L, "en", 2), "Hello", null, Instant.now()),
+				new Translation(new TranslationKey(300L, "en", 1), "World", null, Instant.now())));
+		this.mockMvc.perform(get("/translations/latest").param("entryIds", "300,100,200").param("fields", "title"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].entryId").value(300))
+				.andExpect(jsonPath("$[0].revision").value(1))
+				.andExpect(jsonPath("$[0].title").value("World"))
+				.andExpect(jsonPath("$[0].content").doesNotExist())
+				.andExpect(jsonPath("$[1].entryId").value(100))
+				.andExpect(jsonPath("$[1].revision").value(2))
+				.andExpect(jsonPath("$[1].title").value("Hello"));
+	}
+
+	@Test
+	void getLatestTranslations_withContent() throws Exception {
+		given(this.translationMapper.getLatestTranslations(List.of(100L), "ja", true)).willReturn(List.of(
+				new Translation(new TranslationKey(100L, "ja", 2), "こんにちは", "世界", Instant.now())));
+		this.mockMvc.perform(get("/translations/latest").param("entryIds", "100").param("language", "ja"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].language").value("ja"))
+				.andExpect(jsonPath("$[0].content").value("世界"));
+	}
+
+	@Test
+	void getLatestTranslations_badRequest() throws Exception {
+		this.mockMvc.perform(get("/translations/latest").param("entryIds", "100").param("fields", "title,body"))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get("/translations/latest").param("entryIds", "1,".repeat(101)))
+				.andExpect(status().isBadRequest());
+		verifyNoInteractions(this.translationMapper);
+	}
+}
@@ -0,0 +1,94 @@
+package am.ik.blog.translation.web;
+
+import java.util.Optional;
+
+import am.ik.blog.translation.LatestTranslationCache;
+import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translation.streaming.StreamingTranslationService;
+import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.TranslatedChunk;
+import am.ik.blog.translator.TranslationProgress;
+import am.ik.blog.translator.memory.BlockMemory;
+import am.ik.blog.translator.source.EntrySource;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import static am.ik.blog.translation.web.BulkTranslationControllerTest.assignRevision;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = StreamingTranslationController.class)
+@Import({ TranslationService.class, LatestTranslationCache.class, StreamingTranslationService.class })
+class StreamingTranslationControllerTest {
+	@Autowired
+	MockMvc mockMvc;
+
+	@MockBean
+	TranslationMapper translationMapper;
+
+	@MockBean
+	BlockMemory blockMemory;
+
+	@MockBean
+	EntryTranslator entryTranslator;
+
+	@Test
+	void postTranslationAutomatically() throws Exception {
+		given(this.entryTranslator.translate(eq(100L), eq("en"), any())).willAnswer(invocation -> {
+			final TranslationProgress progress = invocation.getArgument(2);
+			progress.entryFetched(new EntrySource(100L, "こんにちは", "# 世界\n\n世界"));
+			progress.segmentsExtracted(2, 2, 2);
+			progress.chunkTranslated(new TranslatedChunk("en", 0, 1, 2, "# World\n\n"));
+			progress.chunkTranslated(new TranslatedChunk("en", 1, 2, 2, "World\n"));
+			return new Translated(100L, "en", "Hello", "# World\n\nWorld\n");
+		});
+		given(this.translationMapper.getLatestTranslationDigest(100L, "en")).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(any())).willAnswer(invocation -> assignRevision(invocation.getArgument(0), 3));
+		final MvcResult mvcResult = this.mockMvc.perform(post("/translations/{entryId}/auto", 100L)
+						.param("language", "en")
+						.accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		this.mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk());
+		final String events = mvcResult.getResponse().getContentAsString();
+		assertThat(events.lines().filter(line -> line.startsWith("event:")))
+				.containsExactly("event:fetched", "event:segmented", "event:chunk", "event:chunk", "event:persisted");
+		assertThat(events).contains("""
+				data:{"language":"en","start":0,"end":1,"blocks":2,"content":"# World\\n\\n"}""");
+		assertThat(events).contains("\"revision\":3").contains("\"title\":\"Hello\"").doesNotContain("\"content\":\"# World\\n\\nWorld\\n\"");
+	}
+
+	@Test
+	void postTranslationAutomatically_error() throws Exception {
+		given(this.entryTranslator.translate(eq(100L), eq("en"), any())).willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Not Found"));
+		final MvcResult mvcResult = this.mockMvc.perform(post("/translations/{entryId}/auto", 100L)
+						.param("language", "en")
+						.accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		this.mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk());
+		assertThat(mvcResult.getResponse().getContentAsString())
+				.contains("event:error")
+				.contains("\"status\":404")
+				.contains("\"message\":\"Not Found\"");
+	}
+}
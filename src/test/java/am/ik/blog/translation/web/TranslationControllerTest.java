@@ -1,30 +1,59 @@
 package am.ik.blog.translation.web;
 
+import java.io.StringReader;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import am.ik.blog.translation.AutoTranslationService;
+import am.ik.blog.translation.LatestTranslationCache;
+import am.ik.blog.translation.SessionLocks;
 import am.ik.blog.translation.Translation;
+import am.ik.blog.translation.TranslationDigest;
 import am.ik.blog.translation.TranslationKey;
 import am.ik.blog.translation.TranslationMapper;
+import am.ik.blog.translation.TranslationService;
+import am.ik.blog.translation.job.TranslationJob;
+import am.ik.blog.translation.job.TranslationJobMapper;
+import am.ik.blog.translation.job.TranslationJobStatus;
 import am.ik.blog.translator.EntryTranslator;
+import am.ik.blog.translator.Translated;
+import am.ik.blog.translator.memory.BlockMemory;
+import am.ik.blog.translator.source.EntrySource;
+import am.ik.blog.translator.source.EntrySourceClient;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = TranslationController.class)
+@Import({ TranslationService.class, LatestTranslationCache.class, AutoTranslationService.class })
 class TranslationControllerTest {
 	@Autowired
 	MockMvc mockMvc;
@@ -32,17 +61,31 @@ class TranslationControllerTest {
 	@MockBean
 	TranslationMapper translationMapper;
 
+	@MockBean
+	BlockMemory blockMemory;
+
+	@MockBean
+	SessionLocks sessionLocks;
+
+	@MockBean
+	TranslationJobMapper translationJobMapper;
+
 	@MockBean
 	EntryTranslator entryTranslator;
 
+	@MockBean
+	EntrySourceClient entrySourceClient;
+
 	@Test
 	void getAllRevisionsOfTranslation() throws Exception {
 		final long entryId = 100L;
 		final String language = "en";
-		given(this.translationMapper.getAllRevisionsOfTranslation(entryId, language))
-				.willReturn(List.of(
-						new Translation(new TranslationKey(entryId, language, 2), "Hello World!", null, Instant.now()),
-						new Translation(new TranslationKey(entryId, language, 1), "Hello World!", null, Instant.now().minusSeconds(10000))));
+		willAnswer(invocation -> {
+			final Consumer<Translation> consumer = invocation.getArgument(4);
+			consumer.accept(new Translation(new TranslationKey(entryId, language, 2), "Hello World!", null, Instant.now()));
+			consumer.accept(new Translation(new TranslationKey(entryId, language, 1), "Hello World!", null, Instant.now().minusSeconds(10000)));
+			return null;
+		}).given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), isNull(), eq(1000), any());
 		this.mockMvc.perform(get("/translations/{entryId}", entryId).param("language", language))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$").isArray())
@@ -61,6 +104,64 @@ class TranslationControllerTest {
 				.andExpect(jsonPath("$[1].createdAt").isString());
 	}
 
+	@Test
+	void getAllRevisionsOfTranslation_page() throws Exception {
+		final long entryId = 100L;
+		final String language = "en";
+		willAnswer(invocation -> {
+			final Consumer<Translation> consumer = invocation.getArgument(4);
+			consumer.accept(new Translation(new TranslationKey(entryId, language, 9), "Hello World!", null, Instant.now()));
+			return null;
+		}).given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), eq(10), eq(1), any());
+		this.mockMvc.perform(get("/translations/{entryId}", entryId).param("language", language).param("after", "10").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].revision").value(9));
+	}
+
+	@Test
+	void getAllRevisionsOfTranslation_pages() throws Exception {
+		final long entryId = 100L;
+		final String language = "en";
+		willAnswer(invocation -> revisions(invocation.getArgument(4), entryId, language, 1500, 1000))
+				.given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), isNull(), eq(1000), any());
+		willAnswer(invocation -> revisions(invocation.getArgument(4), entryId, language, 500, 500))
+				.given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), eq(501), eq(1000), any());
+		this.mockMvc.perform(get("/translations/{entryId}", entryId).param("language", language))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1500))
+				.andExpect(jsonPath("$[0].revision").value(1500))
+				.andExpect(jsonPath("$[1499].revision").value(1));
+	}
+
+	@Test
+	void getAllRevisionsOfTranslation_failedPage() {
+		final long entryId = 100L;
+		final String language = "en";
+		willAnswer(invocation -> revisions(invocation.getArgument(4), entryId, language, 1500, 1000))
+				.given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), isNull(), eq(1000), any());
+		willThrow(new QueryTimeoutException("timeout"))
+				.given(this.translationMapper).getRevisionsOfTranslation(eq(entryId), eq(language), eq(501), eq(1000), any());
+		// fails instead of completing a truncated array
+		assertThatThrownBy(() -> this.mockMvc.perform(get("/translations/{entryId}", entryId).param("language", language)))
+				.hasRootCauseInstanceOf(QueryTimeoutException.class);
+	}
+
+	static Void revisions(Consumer<Translation> consumer, long entryId, String language, int from, int size) {
+		for (int revision = from; revision > from - size; revision--) {
+			consumer.accept(new Translation(new TranslationKey(entryId, language, revision), "Hello World!", null, Instant.now()));
+		}
+		return null;
+	}
+
+	@Test
+	void getAllRevisionsOfTranslation_badLimit() throws Exception {
+		this.mockMvc.perform(get("/translations/{entryId}", 100L).param("limit", "0"))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get("/translations/{entryId}", 100L).param("limit", "1001"))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	void getLatestTranslation() throws Exception {
 		final long entryId = 100L;
@@ -78,6 +179,90 @@ class TranslationControllerTest {
 				.andExpect(jsonPath("$.createdAt").isString());
 	}
 
+	@Test
+	void getLatestTranslation_etag() throws Exception {
+		final long entryId = 101L;
+		final String language = "en";
+		final Instant createdAt = Instant.parse("2022-01-01T00:00:00Z");
+		given(this.translationMapper.getLatestTranslation(entryId, language))
+				.willReturn(Optional.of(new Translation(new TranslationKey(entryId, language, 3), "Hello World!", "This is a test content.", createdAt)));
+		this.mockMvc.perform(get("/translations/{entryId}/latest", entryId).param("language", language))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"101-en-3-1640995200000\""))
+				.andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sat, 01 Jan 2022 00:00:00 GMT"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	@Test
+	void getLatestTranslation_notModified() throws Exception {
+		final long entryId = 102L;
+		final String language = "en";
+		final Instant createdAt = Instant.parse("2022-01-01T00:00:00Z");
+		given(this.translationMapper.getLatestTranslationWithoutContent(entryId, language))
+				.willReturn(Optional.of(new Translation(new TranslationKey(entryId, language, 3), "Hello World!", null, createdAt)));
+		this.mockMvc.perform(get("/translations/{entryId}/latest", entryId).param("language", language)
+						.header(HttpHeaders.IF_NONE_MATCH, "\"102-en-3-1640995200000\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"102-en-3-1640995200000\""));
+		verify(this.translationMapper, never()).getLatestTranslation(entryId, language);
+	}
+
+	@Test
+	void getTranslation_notModified() throws Exception {
+		final long entryId = 100L;
+		final int revision = 1;
+		final String language = "en";
+		final Instant createdAt = Instant.parse("2022-01-01T00:00:00Z");
+		final TranslationKey translationKey = new TranslationKey(entryId, language, revision);
+		given(this.translationMapper.getTranslationWithoutContent(translationKey))
+				.willReturn(Optional.of(new Translation(translationKey, "Hello World!", null, createdAt)));
+		this.mockMvc.perform(get("/translations/{entryId}/revisions/{revision}", entryId, revision).param("language", language)
+						.header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 01 Jan 2022 00:00:00 GMT"))
+				.andExpect(status().isNotModified());
+		verify(this.translationMapper, never()).getTranslation(translationKey);
+	}
+
+	@Test
+	void getTranslation_modified() throws Exception {
+		final long entryId = 100L;
+		final int revision = 2;
+		final String language = "en";
+		final TranslationKey translationKey = new TranslationKey(entryId, language, revision);
+		final Translation translation = new Translation(translationKey, "Hello World!", "This is a test content.", Instant.parse("2022-01-02T00:00:00Z"));
+		given(this.translationMapper.getTranslationWithoutContent(translationKey))
+				.willReturn(Optional.of(new Translation(translationKey, "Hello World!", null, translation.createdAt())));
+		given(this.translationMapper.getTranslation(translationKey)).willReturn(Optional.of(translation));
+		this.mockMvc.perform(get("/translations/{entryId}/revisions/{revision}", entryId, revision).param("language", language)
+						.header(HttpHeaders.IF_NONE_MATCH, "\"100-en-2-1640995200000\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"100-en-2-1641081600000\""))
+				.andExpect(jsonPath("$.content").value("This is a test content."));
+	}
+
+	@Test
+	void getLatestTranslationContent() throws Exception {
+		final long entryId = 103L;
+		final String language = "en";
+		final Instant createdAt = Instant.parse("2022-01-01T00:00:00Z");
+		given(this.translationMapper.streamLatestContent(eq(entryId), eq(language), any())).willAnswer(invocation -> {
+			final TranslationMapper.ContentConsumer consumer = invocation.getArgument(2);
+			consumer.accept(new Translation(new TranslationKey(entryId, language, 3), "Hello World!", null, createdAt), new StringReader("# Hello\n\nこんにちは"));
+			return true;
+		});
+		this.mockMvc.perform(get("/translations/{entryId}/latest/content", entryId).param("language", language))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("text/markdown;charset=UTF-8"))
+				.andExpect(content().string("# Hello\n\nこんにちは"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"103-en-3-1640995200000\""));
+	}
+
+	@Test
+	void getLatestTranslationContent_notFound() throws Exception {
+		given(this.translationMapper.streamLatestContent(eq(104L), eq("en"), any())).willReturn(false);
+		this.mockMvc.perform(get("/translations/{entryId}/latest/content", 104L))
+				.andExpect(status().isNotFound());
+	}
+
 	@Test
 	void getTranslation() throws Exception {
 		final long entryId = 100L;
@@ -96,6 +281,36 @@ class TranslationControllerTest {
 				.andExpect(jsonPath("$.createdAt").isString());
 	}
 
+	@Test
+	void diffTranslation() throws Exception {
+		final long entryId = 100L;
+		final String language = "en";
+		given(this.translationMapper.getTranslation(new TranslationKey(entryId, language, 1)))
+				.willReturn(Optional.of(new Translation(new TranslationKey(entryId, language, 1), "Hello World!", "# Hello\n\nThis is a test content.\n", Instant.now())));
+		given(this.translationMapper.getTranslation(new TranslationKey(entryId, language, 2)))
+				.willReturn(Optional.of(new Translation(new TranslationKey(entryId, language, 2), "Hello World!", "# Hello\n\nThis is a test content 2.\n", Instant.now())));
+		this.mockMvc.perform(get("/translations/{entryId}/diff", entryId).param("from", "1").param("to", "2"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/x-diff;charset=UTF-8"))
+				.andExpect(content().string("""
+						--- 100/en/1
+						+++ 100/en/2
+						@@ -1,3 +1,3 @@
+						 # Hello
+						\s
+						-This is a test content.
+						+This is a test content 2.
+						"""));
+	}
+
+	@Test
+	void diffTranslation_notFound() throws Exception {
+		final long entryId = 100L;
+		given(this.translationMapper.getTranslation(new TranslationKey(entryId, "en", 1))).willReturn(Optional.empty());
+		this.mockMvc.perform(get("/translations/{entryId}/diff", entryId).param("from", "1").param("to", "2"))
+				.andExpect(status().isNotFound());
+	}
+
 	@Test
 	void getAvailableLanguage() throws Exception {
 		final long entryId = 100L;
@@ -114,8 +329,8 @@ class TranslationControllerTest {
 	void postTranslation_created_new() throws Exception {
 		final long entryId = 100L;
 		final String language = "en";
-		given(this.translationMapper.getLatestTranslation(entryId, language)).willReturn(Optional.empty());
-		given(this.translationMapper.insert(any())).willReturn(1);
+		given(this.translationMapper.getLatestTranslationDigest(entryId, language)).willReturn(Optional.empty());
+		given(this.translationMapper.insertAll(any())).willAnswer(invocation -> assignRevision(invocation.getArgument(0), 1));
 		this.mockMvc.perform(post("/translations/{entryId}", entryId)
 				.content("""
 						{"title": "Hello World!", "content": "This is a test content.", "language": "%s"}
@@ -135,9 +350,9 @@ class TranslationControllerTest {
 	void postTranslation_created_increment() throws Exception {
 		final long entryId = 100L;
 		final String language = "en";
-		given(this.translationMapper.getLatestTranslation(entryId, language))
-				.willReturn(Optional.of(new Translation(new TranslationKey(entryId, language, 100), "Hello World!", "This is a test content.", Instant.now())));
-		given(this.translationMapper.insert(any())).willReturn(1);
+		given(this.translationMapper.getLatestTranslationDigest(entryId, language))
+				.willReturn(Optional.of(new TranslationDigest(new TranslationKey(entryId, language, 100), "Hello World!", "0".repeat(64))));
+		given(this.translationMapper.insertAll(any())).willAnswer(invocation -> assignRevision(invocation.getArgument(0), 101));
 		this.mockMvc.perform(post("/translations/{entryId}", entryId)
 				.content("""
 						{"title": "Hello World 2!", "content": "This is a test content 2.", "language": "%s"}
@@ -171,6 +386,61 @@ class TranslationControllerTest {
 				.andExpect(jsonPath("$.details[2].args[0]").value("content"));
 	}
 
+	@Test
+	void postTranslationAutomatically() throws Exception {
+		final long entryId = 100L;
+		final String language = "en";
+		given(this.entrySourceClient.get(entryId)).willReturn(new EntrySource(entryId, "こんにちは", "世界"));
+		given(this.entryTranslator.translate(entryId, language)).willReturn(new Translated(entryId, language, "Hello", "World"));
+		given(this.translationMapper.getLatestTranslationDigest(entryId, language)).willReturn(Optional.empty());
+		given(this.sessionLocks.withLock(any(), any())).willAnswer(invocation -> ((Function<Instant, ?>) invocation.getArgument(1)).apply(Instant.now()));
+		given(this.translationMapper.insertAll(any())).willAnswer(invocation -> BulkTranslationControllerTest.assignRevision(invocation.getArgument(0), 1));
+		this.mockMvc.perform(post("/translations/{entryId}/auto", entryId).param("language", language))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Location", "http://localhost/translations/%d/revisions/1?language=en".formatted(entryId)))
+				.andExpect(jsonPath("$.revision").value(1))
+				.andExpect(jsonPath("$.title").value("Hello"))
+				.andExpect(jsonPath("$.content").value("World"));
+	}
+
+	@Test
+	void postTranslationAutomatically_async() throws Exception {
+		final long entryId = 100L;
+		final String language = "en";
+		final UUID jobId = UUID.randomUUID();
+		given(this.translationJobMapper.enqueue(entryId, language))
+				.willReturn(new TranslationJob(jobId, entryId, language, TranslationJobStatus.PENDING, 0, null, null, Instant.now(), Instant.now()));
+		this.mockMvc.perform(post("/translations/{entryId}/auto", entryId).param("language", language).param("async", "true"))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "http://localhost/translations/%d/jobs/%s".formatted(entryId, jobId)))
+				.andExpect(jsonPath("$.jobId").value(jobId.toString()))
+				.andExpect(jsonPath("$.entryId").value(entryId))
+				.andExpect(jsonPath("$.language").value(language))
+				.andExpect(jsonPath("$.status").value("PENDING"));
+	}
+
+	@Test
+	void getTranslationJob() throws Exception {
+		final long entryId = 100L;
+		final UUID jobId = UUID.randomUUID();
+		given(this.translationJobMapper.findById(jobId))
+				.willReturn(Optional.of(new TranslationJob(jobId, entryId, "en", TranslationJobStatus.SUCCEEDED, 1, 3, null, Instant.now(), Instant.now())));
+		this.mockMvc.perform(get("/translations/{entryId}/jobs/{jobId}", entryId, jobId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.jobId").value(jobId.toString()))
+				.andExpect(jsonPath("$.status").value("SUCCEEDED"))
+				.andExpect(jsonPath("$.revision").value(3));
+	}
+
+	@Test
+	void getTranslationJob_notFound() throws Exception {
+		final UUID jobId = UUID.randomUUID();
+		given(this.translationJobMapper.findById(jobId))
+				.willReturn(Optional.of(new TranslationJob(jobId, 200L, "en", TranslationJobStatus.PENDING, 0, null, null, Instant.now(), Instant.now())));
+		this.mockMvc.perform(get("/translations/{entryId}/jobs/{jobId}", 100L, jobId))
+				.andExpect(status().isNotFound());
+	}
+
 	@Test
 	void deleteTranslation() throws Exception {
 		final long entryId = 100L;
@@ -180,4 +450,14 @@ class TranslationControllerTest {
 		this.mockMvc.perform(delete("/translations/{entryId}/revisions/{revision}", entryId, revision).param("language", language))
 				.andExpect(status().isNoContent());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Assigns the revision and, like the database, the creation time
+	 */
+	static List<Translation> assignRevision(List<Translation> translations, int revision) {
+		return translations.stream()
+				.map(translation -> new Translation(new TranslationKey(translation.translationKey().entryId(), translation.translationKey().language(), revision),
+						translation.title(), translation.content(), (translation.createdAt() == null) ? Instant.now() : translation.createdAt()))
+				.toList();
+	}
+}
@@ -0,0 +1,68 @@
+package am.ik.blog.translation.web;
+
+import java.time.Instant;
+import java.util.List;
+
+import am.ik.blog.translation.TranslationKey;
+import am.ik.blog.translation.search.SearchCursor;
+import am.ik.blog.translation.search.TranslationHit;
+import am.ik.blog.translation.search.TranslationSearchMapper;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = TranslationSearchController.class)
+class TranslationSearchControllerTest {
+	@Autowired
+	MockMvc mockMvc;
+
+	@MockBean
+	TranslationSearchMapper translationSearchMapper;
+
+	@Test
+	void search() throws Exception {
+		given(this.translationSearchMapper.search("en", "spring", new SearchCursor(0.5f, 100L), 2)).willReturn(List.of(
+				new TranslationHit(new TranslationKey(200L, "en", 3), "<b>Spring</b> Boot", "Hello <b>Spring</b>", 0.5f, Instant.now()),
+				new TranslationHit(new TranslationKey(300L, "en", 1), "Kotlin", "<b>Spring</b> with Kotlin", 0.25f, Instant.now())));
+		this.mockMvc.perform(get("/translations/search").param("q", "spring").param("after", "3f000000:100").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hits.length()").value(2))
+				.andExpect(jsonPath("$.hits[0].translationKey.entryId").value(200))
+				.andExpect(jsonPath("$.hits[0].title").value("<b>Spring</b> Boot"))
+				.andExpect(jsonPath("$.hits[0].snippet").value("Hello <b>Spring</b>"))
+				.andExpect(jsonPath("$.hits[1].translationKey.entryId").value(300))
+				.andExpect(jsonPath("$.next").value("3e800000:300"));
+	}
+
+	@Test
+	void search_lastPage() throws Exception {
+		given(this.translationSearchMapper.search("zh", "spring", null, 20)).willReturn(List.of(
+				new TranslationHit(new TranslationKey(200L, "zh", 3), "<b>Spring</b>", "<b>Spring</b>", 0.5f, Instant.now())));
+		this.mockMvc.perform(get("/translations/search").param("q", "spring").param("language", "zh"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hits.length()").value(1))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+
+	@Test
+	void search_badRequest() throws Exception {
+		this.mockMvc.perform(get("/translations/search").param("q", " "))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get("/translations/search").param("q", "spring").param("limit", "101"))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get("/translations/search").param("q", "spring").param("after", "100"))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get("/translations/search").param("q", "spring").param("after", "x:100"))
+				.andExpect(status().isBadRequest());
+		verifyNoInteractions(this.translationSearchMapper);
+	}
+}
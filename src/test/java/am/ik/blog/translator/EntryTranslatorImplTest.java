@@ -0,0 +1,248 @@
+package am.ik.blog.translator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import am.ik.blog.translator.EntryTranslatorImpl.TranslatedContent;
+import am.ik.blog.translator.engine.PseudoTranslationEngine;
+import am.ik.blog.translator.engine.TranslationEngine;
+import am.ik.blog.translator.engine.TranslationEngineProps;
+import am.ik.blog.translator.engine.TranslationEngineRouter;
+import am.ik.blog.translator.http.UpstreamProps;
+import am.ik.blog.translator.memory.BlockMemory;
+import am.ik.blog.translator.memory.TranslationMemory;
+import am.ik.blog.translator.source.EntrySource;
+import am.ik.blog.translator.source.EntrySourceClient;
+import am.ik.blog.translator.text.MarkdownTranslator;
+import am.ik.blog.translator.text.TextTranslator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class EntryTranslatorImplTest {
+	final List<String> requests = new CopyOnWriteArrayList<>();
+
+	final List<String> targets = new CopyOnWriteArrayList<>();
+
+	final Map<String, String> stored = new HashMap<>();
+
+	final List<Object> events = new CopyOnWriteArrayList<>();
+
+	EntryTranslatorImpl entryTranslator;
+
+	BlockMemory blockMemory;
+
+	TextTranslator textTranslator;
+
+	TranslationEngineRouter router;
+
+	UpstreamProps upstreamProps;
+
+	@BeforeEach
+	void setUp() {
+		final BlockMemory blockMemory = mock(BlockMemory.class);
+		this.blockMemory = blockMemory;
+		given(blockMemory.lookup(1L, "en", "pseudo")).willAnswer(invocation -> Map.copyOf(this.stored));
+		this.textTranslator = (text, source, target) -> {
+			this.requests.add(text);
+			this.targets.add(target);
+			return target.equals("en") ? text.toUpperCase() + "\n" : text + " (" + target + ")\n";
+		};
+		this.router = new TranslationEngineRouter(List.of(new PseudoTranslationEngine()), new TranslationEngineProps("pseudo", Map.of(), null));
+		this.upstreamProps = new UpstreamProps(Duration.ofSeconds(1), Duration.ofSeconds(1), 1, Duration.ofMinutes(1), 1, Duration.ofMillis(10), 50, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 100, 1, 1, 128, 5000, 1, true, this.upstreamProps, this.upstreamProps);
+		this.entryTranslator = new EntryTranslatorImpl(mock(EntrySourceClient.class), this.textTranslator, blockMemory, this.router, props);
+	}
+
+	// what TranslationService does once the translation is stored
+	void memorize(TranslatedBlocks blocks) {
+		this.stored.clear();
+		for (int i = 0; i < blocks.hashes().size(); i++) {
+			this.stored.put(blocks.hashes().get(i), blocks.translated().get(i));
+		}
+	}
+
+	@Test
+	void translateIncrementally() {
+		final TranslatedContent translated = this.entryTranslator.translateIncrementally(1L, """
+				# title
+
+				paragraph 1
+
+				paragraph 2
+				""", List.of("en")).get("en");
+		assertThat(translated.blocks().engine()).isEqualTo("pseudo");
+		this.memorize(translated.blocks());
+		assertThat(translated.content()).isEqualTo("""
+				# TITLE
+
+				PARAGRAPH 1
+
+				PARAGRAPH 2
+				""");
+		assertThat(this.requests).containsExactly("# title", "paragraph 1", "paragraph 2");
+		this.requests.clear();
+		final String retranslated = this.entryTranslator.translateIncrementally(1L, """
+				# title
+
+				paragraph 1 (fixed)
+
+				paragraph 2
+
+				paragraph 3
+				""", List.of("en")).get("en").content();
+		assertThat(retranslated).isEqualTo("""
+				# TITLE
+
+				PARAGRAPH 1 (FIXED)
+
+				PARAGRAPH 2
+
+				PARAGRAPH 3
+				""");
+		assertThat(this.requests).containsExactly("paragraph 1 (fixed)", "paragraph 3");
+	}
+
+	@Test
+	void translateIncrementally_languages() {
+		this.stored.put(BlockMemory.hash("# title"), "# TITLE\n");
+		final Map<String, TranslatedContent> translated = this.entryTranslator.translateIncrementally(1L, """
+				# title
+
+				paragraph 1
+				""", List.of("en", "fr"));
+		assertThat(translated).extractingFromEntries(Map.Entry::getKey, entry -> entry.getValue().content()).containsExactlyInAnyOrder(
+				tuple("en", """
+						# TITLE
+
+						PARAGRAPH 1
+						"""),
+				tuple("fr", """
+						# title (fr)
+
+						paragraph 1 (fr)
+						"""));
+		// the blocks missing in any language are translated into every language that misses some blocks
+		assertThat(this.requests).containsExactly("paragraph 1", "# title", "paragraph 1", "# title");
+		assertThat(this.targets).containsExactly("en", "en", "fr", "fr");
+	}
+
+	@Test
+	void translateIncrementally_progress() {
+		// chunks of at most 12 characters
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 100, 1, 1, 128, 12, 1, true, this.upstreamProps, this.upstreamProps);
+		final EntryTranslatorImpl entryTranslator = new EntryTranslatorImpl(mock(EntrySourceClient.class), this.textTranslator, this.blockMemory, this.router, props);
+		this.stored.put(BlockMemory.hash("paragraph 2"), "PARAGRAPH 2\n");
+		final String translated = entryTranslator.translateIncrementally(1L, """
+				# title
+
+				paragraph 1
+
+				paragraph 2
+
+				paragraph 3
+				""", List.of("en"), new TranslationProgress() {
+			@Override
+			public void segmentsExtracted(int blocks, int translatingBlocks, int chunks) {
+				events.add(List.of(blocks, translatingBlocks, chunks));
+			}
+
+			@Override
+			public void chunkTranslated(TranslatedChunk chunk) {
+				events.add(chunk);
+			}
+		}).get("en").content();
+		assertThat(this.requests).containsExactly("# title", "paragraph 1", "paragraph 3");
+		assertThat(this.events).containsExactly(
+				List.of(4, 3, 3),
+				new TranslatedChunk("en", 0, 1, 4, "# TITLE\n\n"),
+				// the memorized block follows the translated one
+				new TranslatedChunk("en", 1, 3, 4, "PARAGRAPH 1\n\nPARAGRAPH 2\n\n"),
+				new TranslatedChunk("en", 3, 4, 4, "PARAGRAPH 3\n"));
+		assertThat(this.events.stream()
+				.filter(TranslatedChunk.class::isInstance)
+				.map(chunk -> ((TranslatedChunk) chunk).content())
+				.collect(Collectors.joining())).isEqualTo(translated);
+	}
+
+	@Test
+	void translate_progressWithoutIncremental() {
+		// chunks of at most 12 characters
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 100, 1, 1, 128, 12, 1, false, this.upstreamProps, this.upstreamProps);
+		final EntrySourceClient entrySourceClient = mock(EntrySourceClient.class);
+		given(entrySourceClient.get(1L)).willReturn(new EntrySource(1L, "title", """
+				# title
+
+				paragraph 1
+
+				paragraph 1
+				"""));
+		final EntryTranslatorImpl entryTranslator = new EntryTranslatorImpl(entrySourceClient, this.textTranslator, this.blockMemory, this.router, props);
+		final Translated translated = entryTranslator.translate(1L, "en", new TranslationProgress() {
+			@Override
+			public void chunkTranslated(TranslatedChunk chunk) {
+				events.add(chunk);
+			}
+		});
+		// the content is sent in blocks even though no memorized block is reused
+		assertThat(this.requests).contains("# title", "paragraph 1").doesNotHaveDuplicates();
+		assertThat(this.events).hasSizeGreaterThan(1);
+		assertThat(this.events.stream()
+				.map(chunk -> ((TranslatedChunk) chunk).content())
+				.collect(Collectors.joining())).isEqualTo(translated.content()).endsWith("""
+				# TITLE
+
+				PARAGRAPH 1
+
+				PARAGRAPH 1
+				""");
+		assertThat(translated.blocks()).isNull();
+	}
+
+	@Test
+	void translateIncrementally_fallback() {
+		final TranslationEngine google = new TranslationEngine() {
+			@Override
+			public String name() {
+				return "google";
+			}
+
+			@Override
+			public List<String> translate(List<String> htmls, String source, String target) {
+				throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+			}
+		};
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 100, 1, 1, 128, 5000, 1, true, this.upstreamProps, this.upstreamProps);
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(google, new PseudoTranslationEngine()), new TranslationEngineProps("google", Map.of(), "pseudo"));
+		final MarkdownTranslator markdownTranslator = new MarkdownTranslator(props, mock(TranslationMemory.class), router);
+		try {
+			final EntryTranslatorImpl entryTranslator = new EntryTranslatorImpl(mock(EntrySourceClient.class), markdownTranslator, this.blockMemory, router, props);
+			final TranslatedContent translated = entryTranslator.translateIncrementally(2L, """
+					# title
+
+					paragraph
+					""", List.of("en")).get("en");
+			assertThat(translated.content()).isEqualTo("""
+					# ţíţļé
+
+					þáŕáĝŕáþĥ
+					""");
+			// the pseudo-localized blocks must not be reused as the translations of google
+			assertThat(translated.blocks()).isEqualTo(new TranslatedBlocks("google", List.of(), List.of()));
+		}
+		finally {
+			markdownTranslator.destroy();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package am.ik.blog.translator.engine;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.http.MalformedResponseException;
+import am.ik.blog.translator.http.UpstreamProps;
+import am.ik.blog.translator.quota.CharacterQuota;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class GoogleTranslationEngineTest {
+	final MockWebServer server = new MockWebServer();
+
+	GoogleTranslationEngine engine;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.server.start();
+		final UpstreamProps upstreamProps = new UpstreamProps(Duration.ofSeconds(1), Duration.ofSeconds(1), 1, Duration.ofMinutes(1), 3, Duration.ofMillis(10), 50, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+		final TranslatorProps props = new TranslatorProps("http://localhost", this.server.url("").toString().replaceAll("/$", ""), "dummy", 100, 1, 1, 128, 5000, 1, true, upstreamProps, upstreamProps);
+		this.engine = new GoogleTranslationEngine(new RestTemplateBuilder(), mock(CharacterQuota.class), props);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		this.server.shutdown();
+	}
+
+	@Test
+	void translate() {
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"data": {"translations": [{"translatedText": "<p>Hello</p>"}, {"translatedText": "<p>World</p>"}]}}
+				"""));
+		assertThat(this.engine.translate(List.of("<p>こんにちは</p>", "<p>世界</p>"), "ja", "en")).containsExactly("<p>Hello</p>", "<p>World</p>");
+	}
+
+	@Test
+	void translate_missingTranslation() {
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"data": {"translations": [{"translatedText": "<p>Hello</p>"}]}}
+				"""));
+		assertThatThrownBy(() -> this.engine.translate(List.of("<p>こんにちは</p>", "<p>世界</p>"), "ja", "en"))
+				.isInstanceOf(MalformedResponseException.class);
+		// not retried as the answer would be the same
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	void translate_noTranslations() {
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"error": {"code": 400}}
+				"""));
+		assertThatThrownBy(() -> this.engine.translate(List.of("<p>こんにちは</p>"), "ja", "en"))
+				.isInstanceOf(MalformedResponseException.class);
+	}
+}
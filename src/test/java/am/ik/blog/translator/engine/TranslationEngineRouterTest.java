@@ -0,0 +1,85 @@
+package am.ik.blog.translator.engine;
+
+import java.util.List;
+import java.util.Map;
+
+import am.ik.blog.translator.quota.QuotaExceededException;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TranslationEngineRouterTest {
+	final PseudoTranslationEngine pseudo = new PseudoTranslationEngine();
+
+	@Test
+	void route() {
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(failing("google", new HttpServerErrorException(HttpStatus.BAD_GATEWAY)), this.pseudo),
+				new TranslationEngineProps("google", Map.of("fr", "pseudo"), null));
+		assertThat(router.route("en").name()).isEqualTo("google");
+		assertThat(router.route("fr").name()).isEqualTo("pseudo");
+		assertThat(router.translate(List.of("<p>Hello</p>"), "ja", "fr").translated()).containsExactly("<p>Héļļó</p>");
+	}
+
+	@Test
+	void translate_fallbackOnServerError() {
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(failing("google", new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)), this.pseudo),
+				new TranslationEngineProps("google", Map.of(), "pseudo"));
+		final TranslationEngineRouter.Routed routed = router.translate(List.of("<p>Hello</p>"), "ja", "en");
+		assertThat(routed.engine()).isSameAs(this.pseudo);
+		assertThat(routed.translated()).containsExactly("<p>Héļļó</p>");
+	}
+
+	@Test
+	void translate_fallbackOnTimeout() {
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(failing("google", new ResourceAccessException("Read timed out")), this.pseudo),
+				new TranslationEngineProps("google", Map.of(), "pseudo"));
+		assertThat(router.translate(List.of("<p>Hello</p>"), "ja", "en").engine()).isSameAs(this.pseudo);
+	}
+
+	@Test
+	void translate_noFallbackOnQuotaExceeded() {
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(failing("google", new QuotaExceededException("The quota is exhausted.")), this.pseudo),
+				new TranslationEngineProps("google", Map.of(), "pseudo"));
+		assertThatThrownBy(() -> router.translate(List.of("<p>Hello</p>"), "ja", "en")).isInstanceOf(QuotaExceededException.class);
+	}
+
+	@Test
+	void translate_noFallbackOnClientError() {
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(failing("google", new HttpClientErrorException(HttpStatus.FORBIDDEN)), this.pseudo),
+				new TranslationEngineProps("google", Map.of(), "pseudo"));
+		assertThatThrownBy(() -> router.translate(List.of("<p>Hello</p>"), "ja", "en")).isInstanceOf(HttpClientErrorException.class);
+	}
+
+	@Test
+	void unknownEngine() {
+		assertThatThrownBy(() -> new TranslationEngineRouter(List.of(this.pseudo), new TranslationEngineProps("google", Map.of(), null)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("google");
+	}
+
+	@Test
+	void pseudoLocalize() {
+		assertThat(PseudoTranslationEngine.pseudoLocalize("<p>Hello <a href=\"https://example.com\">World</a> &amp; <code>foo</code> _1_ こんにちは</p>"))
+				.isEqualTo("<p>Héļļó <a href=\"https://example.com\">Wóŕļð</a> &amp; <code>foo</code> _1_ こんにちは</p>");
+	}
+
+	static TranslationEngine failing(String name, RuntimeException e) {
+		return new TranslationEngine() {
+			@Override
+			public String name() {
+				return name;
+			}
+
+			@Override
+			public List<String> translate(List<String> htmls, String source, String target) {
+				throw e;
+			}
+		};
+	}
+}
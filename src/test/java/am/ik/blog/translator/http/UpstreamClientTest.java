@@ -0,0 +1,138 @@
+package am.ik.blog.translator.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamClientTest {
+	final MockWebServer server = new MockWebServer();
+
+	final MockWebServer otherServer = new MockWebServer();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.server.start();
+		this.otherServer.start();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		this.server.shutdown();
+		this.otherServer.shutdown();
+	}
+
+	static UpstreamClient client(String name, int maxAttempts, int slidingWindowSize, int maxConcurrentCalls) {
+		final UpstreamProps props = new UpstreamProps(Duration.ofSeconds(1), Duration.ofMillis(500), 2, Duration.ofMinutes(1),
+				maxAttempts, Duration.ofMillis(10), 50, slidingWindowSize, Duration.ofMinutes(1), Duration.ZERO);
+		return new UpstreamClient(name, new RestTemplateBuilder(), props, maxConcurrentCalls);
+	}
+
+	static String get(UpstreamClient client, MockWebServer server) {
+		return client.execute(restTemplate -> restTemplate.getForObject(server.url("/").toString(), String.class));
+	}
+
+	@Test
+	void execute_keepAlive() throws Exception {
+		final UpstreamClient client = client("test", 1, 10, 1);
+		this.server.enqueue(new MockResponse().setBody("1"));
+		this.server.enqueue(new MockResponse().setBody("2"));
+		assertThat(get(client, this.server)).isEqualTo("1");
+		assertThat(get(client, this.server)).isEqualTo("2");
+		assertThat(this.server.takeRequest().getSequenceNumber()).isEqualTo(0);
+		assertThat(this.server.takeRequest().getSequenceNumber()).isEqualTo(1);
+	}
+
+	@Test
+	void execute_retry() {
+		final UpstreamClient client = client("test", 3, 10, 1);
+		this.server.enqueue(new MockResponse().setResponseCode(503));
+		this.server.enqueue(new MockResponse().setResponseCode(429));
+		this.server.enqueue(new MockResponse().setBody("OK"));
+		assertThat(get(client, this.server)).isEqualTo("OK");
+		assertThat(this.server.getRequestCount()).isEqualTo(3);
+	}
+
+	@Test
+	void execute_beforeEachAttempt() {
+		final UpstreamClient client = client("test", 3, 10, 1);
+		this.server.enqueue(new MockResponse().setResponseCode(429));
+		this.server.enqueue(new MockResponse().setBody("OK"));
+		final AtomicInteger attempts = new AtomicInteger();
+		final String body = client.execute(attempts::incrementAndGet, restTemplate -> restTemplate.getForObject(this.server.url("/").toString(), String.class));
+		assertThat(body).isEqualTo("OK");
+		assertThat(attempts.get()).isEqualTo(2);
+		// the exceptions of the action are not retried
+		assertThatThrownBy(() -> client.execute(() -> {
+			attempts.incrementAndGet();
+			throw new UpstreamUnavailableException("quota", null);
+		}, restTemplate -> restTemplate.getForObject(this.server.url("/").toString(), String.class))).isInstanceOf(UpstreamUnavailableException.class);
+		assertThat(attempts.get()).isEqualTo(3);
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test
+	void execute_noRetryOnClientError() {
+		final UpstreamClient client = client("test", 3, 1, 1);
+		this.server.enqueue(new MockResponse().setResponseCode(404));
+		assertThatThrownBy(() -> get(client, this.server)).isInstanceOf(HttpClientErrorException.NotFound.class);
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+		assertThat(client.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void execute_readTimeout() {
+		final UpstreamClient client = client("test", 2, 10, 1);
+		this.server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+		this.server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+		assertThatThrownBy(() -> get(client, this.server)).isInstanceOf(ResourceAccessException.class)
+				.isNotInstanceOf(UpstreamUnavailableException.class);
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test
+	void execute_circuitBreakerIsolatesUpstream() {
+		final UpstreamClient failing = client("failing", 1, 2, 1);
+		final UpstreamClient healthy = client("healthy", 1, 2, 1);
+		for (int i = 0; i < 3; i++) {
+			this.server.enqueue(new MockResponse().setResponseCode(500));
+			this.otherServer.enqueue(new MockResponse().setBody("OK"));
+		}
+		assertThatThrownBy(() -> get(failing, this.server)).isInstanceOf(HttpServerErrorException.class);
+		assertThatThrownBy(() -> get(failing, this.server)).isInstanceOf(HttpServerErrorException.class);
+		assertThat(failing.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThatThrownBy(() -> get(failing, this.server)).isInstanceOf(UpstreamUnavailableException.class);
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+		for (int i = 0; i < 3; i++) {
+			assertThat(get(healthy, this.otherServer)).isEqualTo("OK");
+		}
+		assertThat(healthy.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void execute_bulkhead() throws Exception {
+		final UpstreamClient client = client("test", 1, 10, 1);
+		this.server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+		final CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> get(client, this.server));
+		this.server.takeRequest();
+		assertThatThrownBy(() -> get(client, this.server)).isInstanceOf(UpstreamUnavailableException.class);
+		assertThat(slow.get()).isEqualTo("slow");
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+}
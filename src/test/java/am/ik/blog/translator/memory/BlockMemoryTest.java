@@ -0,0 +1,78 @@
+package am.ik.blog.translator.memory;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Import(BlockMemory.class)
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class BlockMemoryTest {
+	private final BlockMemory blockMemory;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	BlockMemoryTest(BlockMemory blockMemory, JdbcTemplate jdbcTemplate) {
+		this.blockMemory = blockMemory;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	void insertRevision(long entryId, String language, int revision) {
+		this.jdbcTemplate.update("INSERT INTO translation(entry_id, language, revision, title) VALUES (?, ?, ?, 'title')", entryId, language, revision);
+	}
+
+	@Test
+	void store() {
+		final String hash1 = BlockMemory.hash("# こんにちは");
+		final String hash2 = BlockMemory.hash("さようなら");
+		this.insertRevision(1L, "en", 1);
+		this.blockMemory.store(1L, "en", 1, "google", List.of(hash1, hash2), List.of("# Hello", "Goodbye"));
+		assertThat(this.blockMemory.lookup(1L, "en", "google")).isEqualTo(Map.of(hash1, "# Hello", hash2, "Goodbye"));
+		assertThat(this.blockMemory.lookup(1L, "en", "pseudo")).isEmpty();
+		assertThat(this.blockMemory.lookup(1L, "cn", "google")).isEmpty();
+		assertThat(this.blockMemory.lookup(2L, "en", "google")).isEmpty();
+	}
+
+	@Test
+	void store_replace() {
+		final String hash1 = BlockMemory.hash("# こんにちは");
+		final String hash2 = BlockMemory.hash("さようなら");
+		this.insertRevision(1L, "en", 1);
+		this.insertRevision(1L, "en", 2);
+		this.blockMemory.store(1L, "en", 1, "google", List.of(hash1, hash2), List.of("# Hello", "Goodbye"));
+		this.blockMemory.store(1L, "en", 2, "google", List.of(hash2), List.of("Bye"));
+		assertThat(this.blockMemory.lookup(1L, "en", "google")).isEqualTo(Map.of(hash2, "Bye"));
+		// the blocks of an older revision stored late do not replace the newer ones
+		this.blockMemory.store(1L, "en", 1, "google", List.of(hash1), List.of("# Hello"));
+		assertThat(this.blockMemory.lookup(1L, "en", "google")).isEqualTo(Map.of(hash2, "Bye"));
+	}
+
+	@Test
+	void lookup_notLatestRevision() {
+		final String hash1 = BlockMemory.hash("# こんにちは");
+		this.insertRevision(1L, "en", 1);
+		this.blockMemory.store(1L, "en", 1, "google", List.of(hash1), List.of("# Hello"));
+		// e.g. the translation was edited by hand
+		this.insertRevision(1L, "en", 2);
+		assertThat(this.blockMemory.lookup(1L, "en", "google")).isEmpty();
+	}
+}
@@ -0,0 +1,79 @@
+package am.ik.blog.translator.memory;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Import(TranslationMemory.class)
+@Sql(executionPhase = ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:init.sql")
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class TranslationMemoryTest {
+	private static final String HASH = "0000000000000000000000000000000000000000000000000000000000000001";
+
+	private final TranslationMemory translationMemory;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	TranslationMemoryTest(TranslationMemory translationMemory, JdbcTemplate jdbcTemplate) {
+		this.translationMemory = translationMemory;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void lookup() {
+		final Map<String, String> found = this.translationMemory.lookup("ja", "en", List.of(HASH, Segment.of("未知").hash()));
+		assertThat(found).containsExactly(Map.entry(HASH, "Hello"));
+	}
+
+	@Test
+	void lookup_otherTarget() {
+		final Map<String, String> found = this.translationMemory.lookup("ja", "cn", List.of(HASH));
+		assertThat(found).isEmpty();
+	}
+
+	@Test
+	void store() {
+		final Segment segment = Segment.of("こんにちは `_3_` 世界");
+		this.translationMemory.store("ja", "en", Map.of(segment.hash(), "Hello `_1_` World"));
+		final Integer count = this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM translation_memory WHERE hash = ?", Integer.class, segment.hash());
+		assertThat(count).isEqualTo(1);
+		final Map<String, String> found = this.translationMemory.lookup("ja", "en", List.of(segment.hash()));
+		assertThat(found).containsExactly(Map.entry(segment.hash(), "Hello `_1_` World"));
+	}
+
+	@Test
+	void store_conflict() {
+		this.translationMemory.store("ja", "en", Map.of(HASH, "Hi"));
+		final String translated = this.jdbcTemplate.queryForObject("SELECT translated FROM translation_memory WHERE hash = ?", String.class, HASH);
+		assertThat(translated).isEqualTo("Hello");
+	}
+
+	@Test
+	void segment() {
+		final Segment segment = Segment.of(" これは `_12_` と [_13_](_14_) と `_12_` です。\n");
+		assertThat(segment.text()).isEqualTo("これは `_1_` と [_2_](_3_) と `_1_` です。");
+		assertThat(segment.placeholders()).containsExactly("_12_", "_13_", "_14_");
+		assertThat(segment.hash()).isEqualTo(Segment.of("これは `_1_` と [_2_](_3_) と `_1_` です。").hash());
+		assertThat(segment.restore("[_2_](_3_) and `_1_` are `_1_`.")).isEqualTo("[_13_](_14_) and `_12_` are `_12_`.");
+	}
+}
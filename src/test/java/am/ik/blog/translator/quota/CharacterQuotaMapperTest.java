@@ -0,0 +1,76 @@
+package am.ik.blog.translator.quota;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@JdbcTest(properties = {
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.datasource.url=jdbc:tc:postgresql:11:///translation?TC_INITSCRIPT=file:src/main/resources/schema.sql"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+@Import(CharacterQuotaMapper.class)
+@Sql(executionPhase = ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean.sql")
+class CharacterQuotaMapperTest {
+	final QuotaBucket minute = new QuotaBucket.Refilling("test:minute", 100, Duration.ofMinutes(1));
+
+	final QuotaBucket day = new QuotaBucket.Daily("test:day", 50, ZoneId.of("America/Los_Angeles"));
+
+	private final CharacterQuotaMapper characterQuotaMapper;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	CharacterQuotaMapperTest(CharacterQuotaMapper characterQuotaMapper, JdbcTemplate jdbcTemplate) {
+		this.characterQuotaMapper = characterQuotaMapper;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void consume() {
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isEqualTo(100);
+		assertThat(this.characterQuotaMapper.consume(List.of(this.minute), 60)).isZero();
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isCloseTo(40, within(1.0));
+		final Duration wait = this.characterQuotaMapper.consume(List.of(this.minute), 60);
+		// 20 characters are refilled in 12 seconds
+		assertThat(wait).isBetween(Duration.ofSeconds(11), Duration.ofSeconds(12));
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isCloseTo(40, within(1.0));
+	}
+
+	@Test
+	void consume_allOrNothing() {
+		assertThat(this.characterQuotaMapper.consume(List.of(this.minute, this.day), 60)).isPositive();
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isEqualTo(100);
+		assertThat(this.characterQuotaMapper.remaining(this.day).characters()).isEqualTo(50);
+		assertThat(this.characterQuotaMapper.consume(List.of(this.minute, this.day), 30)).isZero();
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isCloseTo(70, within(1.0));
+		assertThat(this.characterQuotaMapper.remaining(this.day).characters()).isEqualTo(20);
+	}
+
+	@Test
+	void remaining_refill() {
+		this.characterQuotaMapper.consume(List.of(this.minute, this.day), 50);
+		this.jdbcTemplate.update("UPDATE translation_quota SET updated_at = NOW() - INTERVAL '30 seconds' WHERE name = 'test:minute'");
+		this.jdbcTemplate.update("UPDATE translation_quota SET updated_at = NOW() - INTERVAL '1 day' WHERE name = 'test:day'");
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isCloseTo(100, within(1.0));
+		assertThat(this.characterQuotaMapper.remaining(this.day).characters()).isEqualTo(50);
+		this.jdbcTemplate.update("UPDATE translation_quota SET updated_at = NOW() - INTERVAL '15 seconds' WHERE name = 'test:minute'");
+		assertThat(this.characterQuotaMapper.remaining(this.minute).characters()).isCloseTo(75, within(1.0));
+	}
+}
@@ -0,0 +1,81 @@
+package am.ik.blog.translator.quota;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import am.ik.blog.translator.quota.CharacterQuotaMapper.Remaining;
+import am.ik.blog.translator.quota.CharacterQuotaProps.Policy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CharacterQuotaTest {
+	final CharacterQuotaMapper characterQuotaMapper = mock(CharacterQuotaMapper.class);
+
+	CharacterQuota characterQuota(long perMinute, long perDay, Policy policy) {
+		return new CharacterQuota(this.characterQuotaMapper, new CharacterQuotaProps(perMinute, perDay, ZoneId.of("UTC"), policy, Duration.ofSeconds(1)));
+	}
+
+	@Test
+	void acquire_unlimited() {
+		final CharacterQuota characterQuota = characterQuota(0, 0, Policy.QUEUE);
+		characterQuota.acquire(1000);
+		assertThat(characterQuota.buckets()).isEmpty();
+		verifyNoInteractions(this.characterQuotaMapper);
+	}
+
+	@Test
+	void acquire_queue() {
+		given(this.characterQuotaMapper.consume(any(), anyLong())).willReturn(Duration.ofMillis(10), Duration.ZERO);
+		final CharacterQuota characterQuota = characterQuota(100, 1000, Policy.QUEUE);
+		characterQuota.acquire(50);
+		assertThat(characterQuota.buckets()).extracting(QuotaBucket::name).containsExactly("google-api:minute", "google-api:day");
+		verify(this.characterQuotaMapper, times(2)).consume(characterQuota.buckets(), 50);
+	}
+
+	@Test
+	void acquire_queueTooLong() {
+		given(this.characterQuotaMapper.consume(any(), anyLong())).willReturn(Duration.ofSeconds(2));
+		assertThatThrownBy(() -> characterQuota(100, 0, Policy.QUEUE).acquire(50))
+				.isInstanceOf(QuotaExceededException.class)
+				.hasMessage("The quota of the Google Translation api is exhausted. Retry after 2 seconds.");
+		verify(this.characterQuotaMapper).consume(any(), anyLong());
+	}
+
+	@Test
+	void acquire_shed() {
+		given(this.characterQuotaMapper.consume(any(), anyLong())).willReturn(Duration.ofMillis(10));
+		assertThatThrownBy(() -> characterQuota(100, 0, Policy.SHED).acquire(50))
+				.isInstanceOf(QuotaExceededException.class);
+		verify(this.characterQuotaMapper).consume(any(), anyLong());
+	}
+
+	@Test
+	void remaining() {
+		final CharacterQuota characterQuota = characterQuota(100, 1000, Policy.QUEUE);
+		final QuotaBucket minute = characterQuota.buckets().get(0);
+		given(this.characterQuotaMapper.remaining(minute)).willReturn(new Remaining(40, Instant.now()));
+		assertThat(characterQuota.remaining(minute)).isCloseTo(40, within(1.0));
+		// refilled from the state read last without reading it again
+		assertThat(characterQuota.remaining(minute)).isBetween(40.0, 100.0);
+		verify(this.characterQuotaMapper, times(1)).remaining(minute);
+	}
+
+	@Test
+	void acquire_exceedCapacity() {
+		assertThatThrownBy(() -> characterQuota(100, 0, Policy.QUEUE).acquire(101))
+				.isInstanceOf(QuotaExceededException.class)
+				.hasMessage("101 characters exceed the capacity of google-api:minute.");
+		verifyNoInteractions(this.characterQuotaMapper);
+	}
+}
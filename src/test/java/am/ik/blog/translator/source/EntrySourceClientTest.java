@@ -0,0 +1,131 @@
+package am.ik.blog.translator.source;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.http.MalformedResponseException;
+import am.ik.blog.translator.http.UpstreamProps;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntrySourceClientTest {
+	static final String ENTRY = """
+			{"entryId":100,"content":"# 見出し\\n\\nこんにちは","frontMatter":{"tags":[{"name":"Java"}],"title":"タイトル","categories":[]},"created":{"name":"making"}}
+			""";
+
+	final MockWebServer server = new MockWebServer();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.server.start();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		this.server.shutdown();
+	}
+
+	EntrySourceClient client(Duration maxAge) {
+		return client(maxAge, 1);
+	}
+
+	EntrySourceClient client(Duration maxAge, int maxAttempts) {
+		final UpstreamProps upstreamProps = new UpstreamProps(Duration.ofSeconds(1), Duration.ofSeconds(1), 1, Duration.ofMinutes(1), maxAttempts, Duration.ofMillis(10), 50, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+		final TranslatorProps props = new TranslatorProps(this.server.url("").toString().replaceAll("/$", ""), "http://localhost", "dummy", 100, 1, 1, 128, 5000, 1, true, upstreamProps, upstreamProps);
+		final EntrySourceProps entrySourceProps = new EntrySourceProps(DataSize.ofMegabytes(1), maxAge, Duration.ofHours(1));
+		return new EntrySourceClient(new RestTemplateBuilder(), new EntrySourceCache(entrySourceProps), props, entrySourceProps);
+	}
+
+	@Test
+	void get() {
+		this.server.enqueue(new MockResponse().setBody(ENTRY).setHeader("Content-Type", "application/json"));
+		final EntrySource source = client(Duration.ZERO).get(100L);
+		assertThat(source).isEqualTo(new EntrySource(100L, "タイトル", "# 見出し\n\nこんにちは"));
+	}
+
+	@Test
+	void get_revalidate() throws Exception {
+		final EntrySourceClient client = client(Duration.ZERO);
+		this.server.enqueue(new MockResponse().setBody(ENTRY).setHeader("ETag", "\"v1\"").setHeader("Last-Modified", "Sun, 18 Oct 2026 00:00:00 GMT"));
+		this.server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+		this.server.enqueue(new MockResponse().setBody(ENTRY.replace("タイトル", "新タイトル")).setHeader("ETag", "\"v2\""));
+		assertThat(client.get(100L).title()).isEqualTo("タイトル");
+		assertThat(client.get(100L).title()).isEqualTo("タイトル");
+		assertThat(client.get(100L).title()).isEqualTo("新タイトル");
+		final RecordedRequest first = this.server.takeRequest();
+		assertThat(first.getPath()).isEqualTo("/entries/100");
+		assertThat(first.getHeader("If-None-Match")).isNull();
+		final RecordedRequest second = this.server.takeRequest();
+		assertThat(second.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+		assertThat(second.getHeader("If-Modified-Since")).isEqualTo("Sun, 18 Oct 2026 00:00:00 GMT");
+		final RecordedRequest third = this.server.takeRequest();
+		assertThat(third.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+	}
+
+	@Test
+	void get_malformed() {
+		final EntrySourceClient client = client(Duration.ZERO, 3);
+		for (int i = 0; i < 10; i++) {
+			this.server.enqueue(new MockResponse().setBody(ENTRY.substring(0, 40)).setHeader("Content-Type", "application/json"));
+			assertThatThrownBy(() -> client.get(100L)).isInstanceOf(MalformedResponseException.class);
+		}
+		// neither retried nor counted by the circuit breaker
+		assertThat(this.server.getRequestCount()).isEqualTo(10);
+		this.server.enqueue(new MockResponse().setBody(ENTRY).setHeader("Content-Type", "application/json"));
+		assertThat(client.get(100L).title()).isEqualTo("タイトル");
+	}
+
+	@Test
+	void get_withinMaxAge() {
+		final EntrySourceClient client = client(Duration.ofMinutes(1));
+		this.server.enqueue(new MockResponse().setBody(ENTRY).setHeader("ETag", "\"v1\""));
+		assertThat(client.get(100L).title()).isEqualTo("タイトル");
+		assertThat(client.get(100L).title()).isEqualTo("タイトル");
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	void getUpdatedEntries() throws Exception {
+		final EntrySourceClient client = client(Duration.ZERO);
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"content":[{"entryId":300,"updated":{"name":"making","date":"2026-10-18T12:00:00+09:00"}},{"entryId":200,"created":{"name":"making","date":"2026-10-18T11:00:00+09:00"}}]}
+				"""));
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"content":[{"entryId":150,"updated":{"name":"making","date":"2026-10-18T10:00:00+09:00"}},{"entryId":100,"updated":{"name":"making","date":"2026-10-18T09:00:00+09:00"}}]}
+				"""));
+		final EntryUpdates updates = client.getUpdatedEntries(Instant.parse("2026-10-18T01:00:00Z"), 2, 10);
+		assertThat(updates.complete()).isTrue();
+		assertThat(updates.updates()).containsExactly(
+				new EntryUpdate(150L, Instant.parse("2026-10-18T01:00:00Z")),
+				new EntryUpdate(200L, Instant.parse("2026-10-18T02:00:00Z")),
+				new EntryUpdate(300L, Instant.parse("2026-10-18T03:00:00Z")));
+		assertThat(this.server.takeRequest().getPath()).isEqualTo("/entries?excludeContent=true&page=0&size=2");
+		assertThat(this.server.takeRequest().getPath()).isEqualTo("/entries?excludeContent=true&page=1&size=2");
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test
+	void getUpdatedEntries_incomplete() throws Exception {
+		final EntrySourceClient client = client(Duration.ZERO);
+		this.server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("""
+				{"content":[{"entryId":300,"updated":{"name":"making","date":"2026-10-18T12:00:00+09:00"}},{"entryId":200,"created":{"name":"making","date":"2026-10-18T11:00:00+09:00"}}]}
+				"""));
+		final EntryUpdates updates = client.getUpdatedEntries(Instant.parse("2026-10-18T01:00:00Z"), 2, 1);
+		// the entries updated between the watermark and 200 are not read
+		assertThat(updates.complete()).isFalse();
+		assertThat(updates.updates()).extracting(EntryUpdate::entryId).containsExactly(200L, 300L);
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,91 @@
+package am.ik.blog.translator.text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownBlocksTest {
+	static final String SEPARATOR = "\n<!-- block -->\n";
+
+	static Stream<String> golden() throws IOException {
+		return Stream.of(new PathMatchingResourcePatternResolver().getResources("classpath:golden/blocks/*.md"))
+				.map(Resource::getFilename)
+				.filter(name -> !name.endsWith(".blocks.md"))
+				.map(name -> name.substring(0, name.length() - ".md".length()));
+	}
+
+	@ParameterizedTest
+	@MethodSource("golden")
+	void split_golden(String name) throws IOException {
+		final String text = read(name + ".md");
+		final List<String> blocks = MarkdownBlocks.split(text);
+		// the expected blocks are separated by the separator lines
+		assertThat(String.join(SEPARATOR, blocks) + "\n").isEqualTo(read(name + ".blocks.md"));
+		assertThat(MarkdownBlocks.join(blocks)).isEqualTo(text);
+	}
+
+	@Test
+	void split() {
+		final List<String> blocks = MarkdownBlocks.split("""
+				# Title
+
+				Paragraph 1
+				continued
+
+
+				* item 1
+
+				* item 2
+				  continued
+
+				    nested
+
+				```java
+				foo();
+
+				bar();
+				```
+
+				~~~~
+				```
+
+				~~~
+				~~~~
+				Paragraph 2
+				""");
+		assertThat(blocks).containsExactly(
+				"# Title",
+				"Paragraph 1\ncontinued",
+				"* item 1\n\n* item 2\n  continued\n\n    nested",
+				"```java\nfoo();\n\nbar();\n```",
+				"~~~~\n```\n\n~~~\n~~~~\nParagraph 2");
+	}
+
+	@Test
+	void join() {
+		assertThat(MarkdownBlocks.join(List.of("# Title\n", "Paragraph\n\n", "```\ncode\n```"))).isEqualTo("""
+				# Title
+
+				Paragraph
+
+				```
+				code
+				```
+				""");
+	}
+
+	static String read(String name) throws IOException {
+		return StreamUtils.copyToString(new PathMatchingResourcePatternResolver().getResource("classpath:golden/blocks/" + name).getInputStream(), StandardCharsets.UTF_8);
+	}
+}
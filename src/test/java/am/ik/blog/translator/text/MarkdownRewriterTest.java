@@ -0,0 +1,39 @@
+package am.ik.blog.translator.text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownRewriterTest {
+	static Stream<String> golden() throws IOException {
+		return Stream.of(new PathMatchingResourcePatternResolver().getResources("classpath:golden/markdown/*.md"))
+				.map(Resource::getFilename)
+				.filter(name -> !name.endsWith(".preprocessed.md") && !name.endsWith(".postprocessed.md"))
+				.map(name -> name.substring(0, name.length() - ".md".length()));
+	}
+
+	@ParameterizedTest
+	@MethodSource("golden")
+	void protect(String name) throws IOException {
+		assertThat(MarkdownRewriter.protect(read(name + ".md"))).isEqualTo(read(name + ".preprocessed.md"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("golden")
+	void restore(String name) throws IOException {
+		assertThat(MarkdownRewriter.restore(read(name + ".preprocessed.md"))).isEqualTo(read(name + ".postprocessed.md"));
+	}
+
+	static String read(String name) throws IOException {
+		return StreamUtils.copyToString(new PathMatchingResourcePatternResolver().getResource("classpath:golden/markdown/" + name).getInputStream(), StandardCharsets.UTF_8);
+	}
+}
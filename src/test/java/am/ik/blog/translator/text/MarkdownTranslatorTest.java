@@ -0,0 +1,220 @@
+package am.ik.blog.translator.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import am.ik.blog.translator.TranslatorProps;
+import am.ik.blog.translator.engine.PseudoTranslationEngine;
+import am.ik.blog.translator.engine.TranslationEngine;
+import am.ik.blog.translator.engine.TranslationEngineProps;
+import am.ik.blog.translator.engine.TranslationEngineRouter;
+import am.ik.blog.translator.memory.Segment;
+import am.ik.blog.translator.memory.TranslationMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+class MarkdownTranslatorTest {
+	final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+	final Map<String, String> memorized = new HashMap<>();
+
+	MarkdownTranslator markdownTranslator;
+
+	@BeforeEach
+	void setUp() {
+		final TranslationMemory translationMemory = mock(TranslationMemory.class);
+		given(translationMemory.lookup(eq("ja"), eq("en"), anyCollection())).willAnswer(invocation -> {
+			final Map<String, String> found = new HashMap<>();
+			invocation.<Iterable<String>>getArgument(2).forEach(hash -> {
+				if (this.memorized.containsKey(hash)) {
+					found.put(hash, this.memorized.get(hash));
+				}
+			});
+			return found;
+		});
+		willAnswer(invocation -> {
+			this.memorized.putAll(invocation.getArgument(2));
+			return null;
+		}).given(translationMemory).store(eq("ja"), any(), any());
+		final TranslatorProps props = new TranslatorProps("http://localhost", "http://localhost", "dummy", 100, 1, 2, 3, 100, 2, true, null, null);
+		final TranslationEngine engine = new TranslationEngine() {
+			@Override
+			public String name() {
+				return "fake";
+			}
+
+			@Override
+			public List<String> translate(List<String> htmls, String source, String target) {
+				requests.add(htmls);
+				return htmls.stream()
+						.map(text -> text.replace("こんにちは", "Hello").replace("さようなら", "Goodbye"))
+						.toList();
+			}
+		};
+		final TranslationEngineRouter router = new TranslationEngineRouter(List.of(engine, new PseudoTranslationEngine()), new TranslationEngineProps("fake", Map.of("fr", "pseudo"), null));
+		this.markdownTranslator = new MarkdownTranslator(props, translationMemory, router);
+	}
+
+	@Test
+	void translate() {
+		final String translated = this.markdownTranslator.translate("""
+				# こんにちは
+
+				こんにちは `foo` と **さようなら**
+
+				```java
+				System.out.println("こんにちは");
+				```
+				""", "ja", "en");
+		assertThat(translated).isEqualTo("""
+				# Hello
+
+				Hello `foo` と **Goodbye**
+
+				```java
+				System.out.println("こんにちは");
+				```
+
+				""");
+		assertThat(this.requests).hasSize(1);
+		assertThat(this.requests.get(0)).hasSize(2);
+	}
+
+	@Test
+	void translate_onlyChangedSegmentsAreRequested() {
+		this.markdownTranslator.translate("""
+				こんにちは `foo`
+
+				さようなら
+				""", "ja", "en");
+		this.requests.clear();
+		final String translated = this.markdownTranslator.translate("""
+				`bar` さようなら
+
+				こんにちは `foo`
+
+				さようなら
+				""", "ja", "en");
+		assertThat(translated).isEqualTo("""
+				`bar` Goodbye
+
+				Hello `foo`
+
+				Goodbye
+				""");
+		assertThat(this.requests).hasSize(1);
+		assertThat(this.requests.get(0)).containsExactly("<p><code>_1_</code> さようなら</p>\n");
+	}
+
+	@Test
+	void translate_batches() {
+		final String translated = this.markdownTranslator.translate("""
+				こんにちは1
+
+				こんにちは2
+
+				こんにちは3
+
+				こんにちは4
+
+				%s
+
+				こんにちは5
+				""".formatted("さようなら、こんにちは、".repeat(8)), "ja", "en");
+		assertThat(translated).isEqualTo("""
+				Hello1
+
+				Hello2
+
+				Hello3
+
+				Hello4
+
+				%s
+
+				Hello5
+				""".formatted("Goodbye、Hello、".repeat(8)));
+		assertThat(this.requests).hasSize(4);
+		assertThat(this.requests).allSatisfy(request -> assertThat(request.size()).isLessThanOrEqualTo(3));
+	}
+
+	@Test
+	void translateAll() {
+		final List<String> translated = this.markdownTranslator.translateAll(List.of("# こんにちは", "こんにちは `foo` と **さようなら**", "さようなら"), "ja", "en");
+		assertThat(translated).containsExactly("# Hello\n\n", "Hello `foo` と **Goodbye**\n", "Goodbye\n");
+		assertThat(this.requests).hasSize(1);
+		assertThat(this.requests.get(0)).hasSize(3);
+	}
+
+	@Test
+	void translateAll_targets() throws Exception {
+		final String entry = StreamUtils.copyToString(new ClassPathResource("golden/markdown/entry.md").getInputStream(), StandardCharsets.UTF_8);
+		final Map<String, List<String>> translated = this.markdownTranslator.translateAll(List.of("# こんにちは", entry), "ja", List.of("en", "fr", "ja"));
+		assertThat(translated).containsOnlyKeys("en", "fr", "ja");
+		assertThat(translated.get("en")).containsExactlyElementsOf(this.markdownTranslator.translateAll(List.of("# こんにちは", entry), "ja", "en"));
+		assertThat(translated.get("fr")).containsExactlyElementsOf(this.markdownTranslator.translateAll(List.of("# こんにちは", entry), "ja", "fr"));
+		assertThat(translated.get("ja")).containsExactly("# こんにちは", entry);
+		assertThat(translated.get("en").get(0)).isEqualTo("# Hello\n\n");
+		assertThat(translated.get("fr").get(0)).isEqualTo("# こんにちは\n\n");
+	}
+
+	@Test
+	void partition() {
+		final List<List<String>> batches = this.markdownTranslator.partition(List.of("a".repeat(20), "b".repeat(20), "c".repeat(20), "d".repeat(70), "e", "f", "g", "h"));
+		assertThat(batches).containsExactly(
+				List.of("a".repeat(20), "b".repeat(20), "c".repeat(20)),
+				List.of("d".repeat(70), "e", "f"),
+				List.of("g", "h"));
+	}
+
+	@Test
+	void renderHtmls() {
+		final List<Segment> segments = List.of(Segment.of("こんにちは `foo`"), Segment.of("**さようなら**\n世界"), Segment.of("* リスト"), Segment.of("| a |\n|---|\n| b |"));
+		assertThat(this.markdownTranslator.renderHtmls(segments)).containsExactlyElementsOf(segments.stream()
+				.map(segment -> this.markdownTranslator.htmlRenderer.render(this.markdownTranslator.parser.parse(segment.text())))
+				.toList());
+	}
+
+	@Test
+	void renderHtmls_swallowedSeparator() {
+		// the unclosed pre block runs to the end of the document
+		final List<Segment> segments = List.of(Segment.of("<pre>こんにちは"), Segment.of("さようなら"));
+		assertThat(this.markdownTranslator.renderHtmls(segments)).containsExactly(
+				this.markdownTranslator.htmlRenderer.render(this.markdownTranslator.parser.parse("<pre>こんにちは")), "<p>さようなら</p>\n");
+	}
+
+	@Test
+	void translate_notMemorizable() {
+		final String translated = this.markdownTranslator.translate("""
+				こんにちは Hello `foo`
+				""", "ja", "fr");
+		assertThat(translated).isEqualTo("""
+				こんにちは Héļļó `foo`
+				""");
+		assertThat(this.memorized).isEmpty();
+		final Map<String, List<TranslatedText>> tracked = this.markdownTranslator.translateAllTracked(List.of("こんにちは", "```\nfoo\n```"), "ja", List.of("en", "fr"));
+		assertThat(tracked.get("en")).extracting(TranslatedText::memorizable).containsExactly(true, true);
+		// the code block has no segment translated by the pseudo engine
+		assertThat(tracked.get("fr")).extracting(TranslatedText::memorizable).containsExactly(false, true);
+	}
+
+	@Test
+	void translate_sameLanguage() {
+		assertThat(this.markdownTranslator.translate("こんにちは", "ja", "ja")).isEqualTo("こんにちは");
+		assertThat(this.requests).isEmpty();
+	}
+}
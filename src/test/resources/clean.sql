@@ -1 +1,6 @@
-TRUNCATE TABLE translation;
\ No newline at end of file
+TRUNCATE TABLE translation, translation_content;
+TRUNCATE TABLE translation_memory;
+TRUNCATE TABLE translation_block;
+TRUNCATE TABLE translation_quota;
+TRUNCATE TABLE translation_job;
+TRUNCATE TABLE translation_feed;
\ No newline at end of file
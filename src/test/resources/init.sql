@@ -5,4 +5,6 @@ VALUES (1, 'en', 2, 'title2', 'content2');
 INSERT INTO translation(entry_id, language, revision, title, content)
 VALUES (1, 'cn', 1, '标题1', '内容1');
 INSERT INTO translation(entry_id, language, revision, title, content)
-VALUES (2, 'en', 1, 'hello1', 'Hello1');
\ No newline at end of file
+VALUES (2, 'en', 1, 'hello1', 'Hello1');
+INSERT INTO translation_memory(source, target, hash, translated)
+VALUES ('ja', 'en', '0000000000000000000000000000000000000000000000000000000000000001', 'Hello');